@@ -0,0 +1,160 @@
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+
+/**
+ * Runs blocking auth work (JDBC, hashing) off the Swing event thread.
+ *
+ * Work runs on a small bounded pool; every callback is posted back to the EDT with
+ * {@link SwingUtilities#invokeLater} and fires exactly once: success, failure,
+ * timeout or cancellation. Requests submitted with a key that is already in flight
+ * are collapsed onto the running request instead of starting a second query.
+ */
+class AuthExecutor {
+
+    interface Task<T> {
+        T call() throws Exception;
+    }
+
+    private static final AuthExecutor SHARED = new AuthExecutor(
+            Integer.getInteger("turf.auth.threads", 4),
+            Integer.getInteger("turf.auth.queue", 32));
+
+    static AuthExecutor shared() {
+        return SHARED;
+    }
+
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService timeouts;
+    private final Map<String, Request> inFlight = new ConcurrentHashMap<>();
+
+    AuthExecutor(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "auth-worker-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+        this.timeouts = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "auth-timeouts");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Submits {@code task} unless a request with the same key is already running, in
+     * which case that request is returned and {@code onSuccess}/{@code onFailure} are
+     * not registered a second time.
+     */
+    <T> Request submit(String key, long timeoutMillis, Task<T> task,
+                       Consumer<T> onSuccess, Consumer<Throwable> onFailure) {
+        Request existing = inFlight.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        Request request = new Request(key, onFailure);
+        existing = inFlight.putIfAbsent(key, request);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            request.future = workers.submit(() -> {
+                try {
+                    T result = task.call();
+                    request.complete(() -> onSuccess.accept(result));
+                } catch (Throwable t) {
+                    request.fail(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            request.fail(new RejectedExecutionException("Too many requests in progress. Please try again.", e));
+            return request;
+        }
+        request.timeout = timeouts.schedule(() -> {
+            if (request.cancelFuture()) {
+                request.fail(new TimeoutException("Timed out after " + timeoutMillis + " ms"));
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        return request;
+    }
+
+    boolean isInFlight(String key) {
+        return inFlight.containsKey(key);
+    }
+
+    final class Request {
+        private final String key;
+        private final Consumer<Throwable> onFailure;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile Future<?> future;
+        private volatile ScheduledFuture<?> timeout;
+
+        Request(String key, Consumer<Throwable> onFailure) {
+            this.key = key;
+            this.onFailure = onFailure;
+        }
+
+        /** Cancels the request; the failure callback receives a {@link CancellationException}. */
+        void cancel() {
+            if (cancelFuture()) {
+                fail(new CancellationException("Cancelled by user"));
+            }
+        }
+
+        boolean isDone() {
+            return done.get();
+        }
+
+        private boolean cancelFuture() {
+            if (done.get()) {
+                return false;
+            }
+            Future<?> f = future;
+            if (f != null) {
+                f.cancel(true);
+            }
+            return true;
+        }
+
+        private void complete(Runnable callback) {
+            if (finish()) {
+                SwingUtilities.invokeLater(callback);
+            }
+        }
+
+        private void fail(Throwable t) {
+            if (finish()) {
+                SwingUtilities.invokeLater(() -> onFailure.accept(t));
+            }
+        }
+
+        private boolean finish() {
+            if (!done.compareAndSet(false, true)) {
+                return false;
+            }
+            inFlight.remove(key, this);
+            ScheduledFuture<?> t = timeout;
+            if (t != null) {
+                t.cancel(false);
+            }
+            return true;
+        }
+    }
+}
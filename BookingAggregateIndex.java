@@ -0,0 +1,206 @@
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-turf booking aggregates kept up to date as bookings are added or cancelled,
+ * so the owner dashboard can read count/income/min/max/last-booking in O(1)
+ * instead of scanning every booking on each click.
+ *
+ * Income is accumulated in paise so repeated add/cancel cycles do not drift. Rebuilds
+ * and consistency checks scan the {@link BookingColumnStore} directly.
+ */
+class BookingAggregateIndex {
+
+    static final class TurfAggregate {
+        static final TurfAggregate EMPTY = new TurfAggregate(0, 0L, 0L, 0L, 0L);
+
+        public final int count;
+        public final long incomePaise;
+        public final long minPaise;
+        public final long maxPaise;
+        public final long lastBookedAt;
+
+        TurfAggregate(int count, long incomePaise, long minPaise, long maxPaise, long lastBookedAt) {
+            this.count = count;
+            this.incomePaise = incomePaise;
+            this.minPaise = minPaise;
+            this.maxPaise = maxPaise;
+            this.lastBookedAt = lastBookedAt;
+        }
+
+        public double income() {
+            return incomePaise / 100.0;
+        }
+
+        public double minCost() {
+            return minPaise / 100.0;
+        }
+
+        public double maxCost() {
+            return maxPaise / 100.0;
+        }
+
+        boolean sameAs(TurfAggregate other) {
+            return count == other.count && incomePaise == other.incomePaise && minPaise == other.minPaise
+                    && maxPaise == other.maxPaise && lastBookedAt == other.lastBookedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + " income=" + incomePaise + " min=" + minPaise + " max=" + maxPaise
+                    + " last=" + lastBookedAt;
+        }
+    }
+
+    private static final class Entry {
+        int count;
+        long incomePaise;
+        long minPaise = Long.MAX_VALUE;
+        long maxPaise = Long.MIN_VALUE;
+        long lastBookedAt;
+        // Set when a cancellation removed the current min, max or latest booking; those
+        // cannot be derived incrementally, so they are recomputed on the next read.
+        boolean extremesStale;
+
+        void add(long paise, long bookedAt) {
+            count++;
+            incomePaise += paise;
+            if (paise < minPaise) minPaise = paise;
+            if (paise > maxPaise) maxPaise = paise;
+            if (bookedAt > lastBookedAt) lastBookedAt = bookedAt;
+        }
+
+        TurfAggregate snapshot() {
+            if (count == 0) {
+                return TurfAggregate.EMPTY;
+            }
+            return new TurfAggregate(count, incomePaise, minPaise, maxPaise, lastBookedAt);
+        }
+    }
+
+    private static final Metrics.Timer REBUILD_TIMER = Metrics.timer("aggregates.rebuild");
+    private static final Metrics.Timer VERIFY_TIMER = Metrics.timer("aggregates.verify");
+    private static final Metrics.Counter DRIFT_COUNTER = Metrics.counter("aggregates.driftedTurfs");
+
+    private final Map<String, Entry> byTurf = new HashMap<>();
+    private final BookingColumnStore rawBookings;
+
+    BookingAggregateIndex(BookingColumnStore rawBookings) {
+        this.rawBookings = rawBookings;
+    }
+
+    static long toPaise(double amount) {
+        return Math.round(amount * 100.0);
+    }
+
+    synchronized void onBookingAdded(TurfOwnerDashboard.Booking booking) {
+        byTurf.computeIfAbsent(booking.turfId, id -> new Entry()).add(toPaise(booking.totalCost), booking.bookedAt);
+    }
+
+    synchronized void onBookingCancelled(TurfOwnerDashboard.Booking booking) {
+        Entry entry = byTurf.get(booking.turfId);
+        if (entry == null || entry.count == 0) {
+            return;
+        }
+        long paise = toPaise(booking.totalCost);
+        entry.count--;
+        entry.incomePaise -= paise;
+        if (entry.count == 0) {
+            byTurf.remove(booking.turfId);
+        } else if (paise == entry.minPaise || paise == entry.maxPaise || booking.bookedAt == entry.lastBookedAt) {
+            entry.extremesStale = true;
+        }
+    }
+
+    synchronized TurfAggregate get(String turfId) {
+        Entry entry = byTurf.get(turfId);
+        if (entry == null) {
+            return TurfAggregate.EMPTY;
+        }
+        if (entry.extremesStale) {
+            byTurf.put(turfId, computeFromRaw(turfId));
+            entry = byTurf.get(turfId);
+        }
+        return entry.snapshot();
+    }
+
+    /** Discards all incremental state and rebuilds the index from the raw booking list. */
+    synchronized void rebuild() {
+        long start = REBUILD_TIMER.start();
+        try {
+            byTurf.clear();
+            byTurf.putAll(scanAll());
+        } finally {
+            REBUILD_TIMER.stop(start);
+        }
+    }
+
+    /**
+     * Compares every turf's aggregate with a fresh scan of the raw bookings and
+     * rebuilds the index if anything disagrees.
+     *
+     * @return the turf IDs whose aggregates had drifted (empty when consistent)
+     */
+    synchronized List<String> verifyAndRepair() {
+        long start = VERIFY_TIMER.start();
+        try {
+            return verifyAndRepairLocked();
+        } finally {
+            VERIFY_TIMER.stop(start);
+        }
+    }
+
+    private List<String> verifyAndRepairLocked() {
+        Map<String, Entry> expected = scanAll();
+
+        List<String> drifted = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : expected.entrySet()) {
+            if (!get(e.getKey()).sameAs(e.getValue().snapshot())) {
+                drifted.add(e.getKey());
+            }
+        }
+        for (String turfId : byTurf.keySet()) {
+            if (!expected.containsKey(turfId)) {
+                drifted.add(turfId);
+            }
+        }
+        if (!drifted.isEmpty()) {
+            System.err.println("WARNING: Booking aggregates out of sync for " + drifted + ", rebuilding.");
+            DRIFT_COUNTER.add(drifted.size());
+            byTurf.clear();
+            byTurf.putAll(expected);
+        }
+        return drifted;
+    }
+
+    private Map<String, Entry> scanAll() {
+        Entry[] byCode = new Entry[rawBookings.dictionarySize()];
+        rawBookings.forEachLive((row, code, paise, bookedAt) -> {
+            if (code >= byCode.length) {
+                return; // turf first booked after the scan started
+            }
+            if (byCode[code] == null) {
+                byCode[code] = new Entry();
+            }
+            byCode[code].add(paise, bookedAt);
+        });
+        Map<String, Entry> result = new HashMap<>();
+        for (int code = 0; code < byCode.length; code++) {
+            if (byCode[code] != null) {
+                result.put(rawBookings.turfIdOf(code), byCode[code]);
+            }
+        }
+        return result;
+    }
+
+    private Entry computeFromRaw(String turfId) {
+        Entry entry = new Entry();
+        int code = rawBookings.codeOf(turfId);
+        if (code >= 0) {
+            rawBookings.forEachLive(code, (row, c, paise, bookedAt) -> entry.add(paise, bookedAt));
+        }
+        return entry;
+    }
+}
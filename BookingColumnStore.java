@@ -0,0 +1,288 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column-oriented booking history.
+ *
+ * Each booking is a row spread over three primitive columns: a dictionary-encoded
+ * turf code (int), the cost in paise (long) and the booking time in epoch millis
+ * (long). Rows are never moved; cancelling a booking only sets its bit in a
+ * tombstone bitset, so row numbers stay stable as booking IDs.
+ *
+ * With {@code offHeap} the columns live in direct buffers outside the Java heap,
+ * which keeps multi-million row histories out of GC scanning. Scan kernels work on
+ * the raw columns and do not allocate.
+ */
+class BookingColumnStore {
+
+    /** Point-in-time copy of the columns, safe to scan from several threads without locking. */
+    static final class Columns {
+        public final int size;
+        public final int[] turfCodes;
+        public final long[] costPaise;
+        public final long[] bookedAt;
+        public final long[] tombstones;
+        public final String[] dictionary;
+
+        Columns(int size, int[] turfCodes, long[] costPaise, long[] bookedAt, long[] tombstones, String[] dictionary) {
+            this.size = size;
+            this.turfCodes = turfCodes;
+            this.costPaise = costPaise;
+            this.bookedAt = bookedAt;
+            this.tombstones = tombstones;
+            this.dictionary = dictionary;
+        }
+
+        public boolean isLive(int row) {
+            return row < size && (tombstones[row >>> 6] & (1L << row)) == 0;
+        }
+    }
+
+    /** Receives one live row at a time from {@link #forEachLive}; must not retain anything. */
+    interface RowVisitor {
+        void visit(int row, int turfCode, long costPaise, long bookedAt);
+    }
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final boolean offHeap;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] dictionary = new String[16];
+
+    private int size;
+    private int cancelledCount;
+    private int capacity;
+    private long[] tombstones;
+
+    // Heap columns.
+    private int[] turfCodes;
+    private long[] costPaise;
+    private long[] bookedAt;
+
+    // Off-heap columns (native byte order, absolute indexing).
+    private ByteBuffer turfCodeBuf;
+    private ByteBuffer costBuf;
+    private ByteBuffer bookedAtBuf;
+
+    BookingColumnStore() {
+        this(Boolean.getBoolean("turf.bookings.offHeap"));
+    }
+
+    BookingColumnStore(boolean offHeap) {
+        this.offHeap = offHeap;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    boolean isOffHeap() {
+        return offHeap;
+    }
+
+    synchronized int append(String turfId, long paise, long time) {
+        if (size == capacity) {
+            allocate(capacity * 2);
+        }
+        int row = size++;
+        int code = encode(turfId);
+        if (offHeap) {
+            turfCodeBuf.putInt(row * Integer.BYTES, code);
+            costBuf.putLong(row * Long.BYTES, paise);
+            bookedAtBuf.putLong(row * Long.BYTES, time);
+        } else {
+            turfCodes[row] = code;
+            costPaise[row] = paise;
+            bookedAt[row] = time;
+        }
+        return row;
+    }
+
+    int append(TurfOwnerDashboard.Booking booking) {
+        return append(booking.turfId, BookingAggregateIndex.toPaise(booking.totalCost), booking.bookedAt);
+    }
+
+    /** Marks {@code row} as cancelled; returns false if it was already cancelled or does not exist. */
+    synchronized boolean cancel(int row) {
+        if (row < 0 || row >= size || isCancelled(row)) {
+            return false;
+        }
+        tombstones[row >>> 6] |= 1L << row;
+        cancelledCount++;
+        return true;
+    }
+
+    synchronized boolean isLive(int row) {
+        return row >= 0 && row < size && !isCancelled(row);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized int liveCount() {
+        return size - cancelledCount;
+    }
+
+    /** Returns the dictionary code for {@code turfId}, or -1 if the turf has never been booked. */
+    synchronized int codeOf(String turfId) {
+        Integer code = codes.get(turfId);
+        return code == null ? -1 : code;
+    }
+
+    synchronized String turfIdOf(int code) {
+        return dictionary[code];
+    }
+
+    synchronized int dictionarySize() {
+        return codes.size();
+    }
+
+    /** Materializes one row as a {@link TurfOwnerDashboard.Booking}; null if out of range. */
+    synchronized TurfOwnerDashboard.Booking get(int row) {
+        if (row < 0 || row >= size) {
+            return null;
+        }
+        return new TurfOwnerDashboard.Booking(dictionary[turfCode(row)], cost(row) / 100.0, time(row));
+    }
+
+    /** Copies all rows and tombstones as of now; a bulk copy, so the lock is held only briefly. */
+    synchronized Columns snapshot() {
+        int[] codesCopy = new int[size];
+        long[] costCopy = new long[size];
+        long[] timeCopy = new long[size];
+        if (offHeap) {
+            turfCodeBuf.asIntBuffer().get(codesCopy, 0, size);
+            costBuf.asLongBuffer().get(costCopy, 0, size);
+            bookedAtBuf.asLongBuffer().get(timeCopy, 0, size);
+        } else {
+            System.arraycopy(turfCodes, 0, codesCopy, 0, size);
+            System.arraycopy(costPaise, 0, costCopy, 0, size);
+            System.arraycopy(bookedAt, 0, timeCopy, 0, size);
+        }
+        return new Columns(size, codesCopy, costCopy, timeCopy,
+                Arrays.copyOf(tombstones, (size + 63) >>> 6), Arrays.copyOf(dictionary, codes.size()));
+    }
+
+    // --- Scan kernels -------------------------------------------------------------
+
+    /** Live bookings for a turf code with {@code from <= bookedAt < to}. */
+    synchronized int count(int code, long from, long to) {
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            if (turfCode(row) == code && !isCancelled(row)) {
+                long t = time(row);
+                if (t >= from && t < to) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /** Sum of cost in paise of live bookings for a turf code with {@code from <= bookedAt < to}. */
+    synchronized long sumPaise(int code, long from, long to) {
+        long sum = 0;
+        for (int row = 0; row < size; row++) {
+            if (turfCode(row) == code && !isCancelled(row)) {
+                long t = time(row);
+                if (t >= from && t < to) {
+                    sum += cost(row);
+                }
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * One pass over all live rows in {@code [from, to)}, accumulating count and paise
+     * per turf code into the caller's arrays (which must hold {@link #dictionarySize()}
+     * entries).
+     */
+    synchronized void aggregateByTurf(long from, long to, long[] countsOut, long[] sumsOut) {
+        for (int row = 0; row < size; row++) {
+            if (isCancelled(row)) {
+                continue;
+            }
+            long t = time(row);
+            if (t >= from && t < to) {
+                int code = turfCode(row);
+                countsOut[code]++;
+                sumsOut[code] += cost(row);
+            }
+        }
+    }
+
+    synchronized void forEachLive(RowVisitor visitor) {
+        for (int row = 0; row < size; row++) {
+            if (!isCancelled(row)) {
+                visitor.visit(row, turfCode(row), cost(row), time(row));
+            }
+        }
+    }
+
+    synchronized void forEachLive(int code, RowVisitor visitor) {
+        for (int row = 0; row < size; row++) {
+            if (turfCode(row) == code && !isCancelled(row)) {
+                visitor.visit(row, code, cost(row), time(row));
+            }
+        }
+    }
+
+    // --- Internals ----------------------------------------------------------------
+
+    private boolean isCancelled(int row) {
+        return (tombstones[row >>> 6] & (1L << row)) != 0;
+    }
+
+    private int turfCode(int row) {
+        return offHeap ? turfCodeBuf.getInt(row * Integer.BYTES) : turfCodes[row];
+    }
+
+    private long cost(int row) {
+        return offHeap ? costBuf.getLong(row * Long.BYTES) : costPaise[row];
+    }
+
+    private long time(int row) {
+        return offHeap ? bookedAtBuf.getLong(row * Long.BYTES) : bookedAt[row];
+    }
+
+    private int encode(String turfId) {
+        Integer code = codes.get(turfId);
+        if (code != null) {
+            return code;
+        }
+        int next = codes.size();
+        if (next == dictionary.length) {
+            dictionary = Arrays.copyOf(dictionary, next * 2);
+        }
+        dictionary[next] = turfId;
+        codes.put(turfId, next);
+        return next;
+    }
+
+    private void allocate(int newCapacity) {
+        if (offHeap) {
+            turfCodeBuf = grow(turfCodeBuf, newCapacity * Integer.BYTES);
+            costBuf = grow(costBuf, newCapacity * Long.BYTES);
+            bookedAtBuf = grow(bookedAtBuf, newCapacity * Long.BYTES);
+        } else {
+            turfCodes = turfCodes == null ? new int[newCapacity] : Arrays.copyOf(turfCodes, newCapacity);
+            costPaise = costPaise == null ? new long[newCapacity] : Arrays.copyOf(costPaise, newCapacity);
+            bookedAt = bookedAt == null ? new long[newCapacity] : Arrays.copyOf(bookedAt, newCapacity);
+        }
+        int words = (newCapacity + 63) >>> 6;
+        tombstones = tombstones == null ? new long[words] : Arrays.copyOf(tombstones, words);
+        capacity = newCapacity;
+    }
+
+    private static ByteBuffer grow(ByteBuffer old, int bytes) {
+        ByteBuffer fresh = ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+        if (old != null) {
+            old.clear();
+            fresh.put(old);
+            fresh.clear();
+        }
+        return fresh;
+    }
+}
@@ -0,0 +1,117 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process publish/subscribe for owner ledger changes: bookings created or
+ * cancelled and turfs added. Publishing never blocks on a subscriber.
+ *
+ * Each subscription has its own queue, bounded by the number of distinct turfs
+ * pending. Booking events carry the turf's totals after the change, so a burst for
+ * one turf coalesces into its latest event. A subscriber that falls further behind
+ * than its capacity loses the queue and is told to resync from the ledger instead.
+ */
+final class BookingEventBus {
+
+    private static final Metrics.Counter OVERFLOWS = Metrics.counter("events.overflows");
+
+    enum Type { BOOKING_CREATED, BOOKING_CANCELLED, TURF_ADDED }
+
+    static final class Event {
+        final Type type;
+        /** Ledger order; a view that has read totals at sequence n ignores events up to n. */
+        final long sequence;
+        final String turfId;
+        /** The new turf for {@link Type#TURF_ADDED}, otherwise null. */
+        final TurfOwnerDashboard.Turf turf;
+        /** Live bookings and income of the turf once this change is applied. */
+        final int bookings;
+        final long incomePaise;
+
+        Event(Type type, long sequence, String turfId, TurfOwnerDashboard.Turf turf, int bookings, long incomePaise) {
+            this.type = type;
+            this.sequence = sequence;
+            this.turfId = turfId;
+            this.turf = turf;
+            this.bookings = bookings;
+            this.incomePaise = incomePaise;
+        }
+    }
+
+    /** What a subscriber picks up in one go. */
+    static final class Batch {
+        final List<Event> events;
+        /** Events were dropped; reread everything the subscriber shows. */
+        final boolean overflowed;
+
+        Batch(List<Event> events, boolean overflowed) {
+            this.events = events;
+            this.overflowed = overflowed;
+        }
+    }
+
+    final class Subscription {
+        private final int capacity;
+        private final Runnable onPending;
+        private Map<String, Event> pending = new LinkedHashMap<>();
+        private boolean overflowed;
+
+        private Subscription(int capacity, Runnable onPending) {
+            this.capacity = capacity;
+            this.onPending = onPending;
+        }
+
+        /** Takes everything queued so far; the next event signals {@code onPending} again. */
+        synchronized Batch drain() {
+            Batch batch = new Batch(overflowed ? Collections.emptyList() : new ArrayList<>(pending.values()), overflowed);
+            pending = new LinkedHashMap<>();
+            overflowed = false;
+            return batch;
+        }
+
+        void close() {
+            subscriptions.remove(this);
+        }
+
+        /** Queues the event; true if the queue was idle, meaning the subscriber needs a nudge. */
+        private synchronized boolean offer(Event event) {
+            boolean idle = pending.isEmpty() && !overflowed;
+            if (overflowed) {
+                return false;
+            }
+            String key = event.type == Type.TURF_ADDED ? "+" + event.turfId : event.turfId;
+            if (!pending.containsKey(key) && pending.size() >= capacity) {
+                pending.clear();
+                overflowed = true;
+                OVERFLOWS.increment();
+            } else {
+                pending.put(key, event);
+            }
+            return idle;
+        }
+    }
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * @param capacity  distinct turfs that may be pending before the subscriber must resync
+     * @param onPending called on the publishing thread when the queue goes from empty to
+     *                  non-empty; it should only schedule a {@link Subscription#drain}
+     */
+    Subscription subscribe(int capacity, Runnable onPending) {
+        Subscription subscription = new Subscription(Math.max(1, capacity), onPending);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    void publish(Event event) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.offer(event)) {
+                subscription.onPending.run();
+            }
+        }
+    }
+}
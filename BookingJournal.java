@@ -0,0 +1,852 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Durable local history of the owner console: an append-only binary journal of turf
+ * and booking events plus a compacted snapshot.
+ *
+ * Events are written straight into a memory-mapped segment file, so an append is a
+ * few buffer puts and survives a crash of the process immediately. Durability against
+ * power loss is group-committed: a flusher thread forces the dirty range to disk every
+ * {@code turf.journal.flushMs}, and {@link #awaitDurable} lets a caller wait for the
+ * flush covering its record instead of forcing on its own.
+ *
+ * Every record is {@code [length][crc32][type][payload]}; on startup the segment is
+ * scanned until the first zero length or checksum mismatch, so a torn last write is
+ * simply dropped. Compaction writes the full state as a columnar snapshot and starts a
+ * fresh segment; the snapshot names the segment generation that follows it, so a crash
+ * at any point of a compaction leaves either the old pair or the new pair.
+ *
+ * Compaction runs on a background thread once {@code turf.journal.snapshotEvery}
+ * records have been appended. The snapshot is written without holding any lock, and
+ * records appended meanwhile are carried over into the new segment, so appends (and
+ * the owner console's event thread) wait only for that short hand-over.
+ */
+class BookingJournal {
+
+    /** Receives the recorded history in order during {@link #replay}. */
+    interface Replayer {
+        void turfAdded(TurfOwnerDashboard.Turf turf);
+
+        void bookingAdded(String turfId, long costPaise, long bookedAt);
+
+        void bookingCancelled(int row);
+
+        default void recurringAdded(RecurringBooking rule) {
+        }
+
+        default void recurringCancelled(long ruleId) {
+        }
+    }
+
+    private static final byte TURF_ADDED = 1;
+    private static final byte BOOKING_ADDED = 2;
+    private static final byte BOOKING_CANCELLED = 3;
+    private static final byte RECURRING_ADDED = 4;
+    private static final byte RECURRING_CANCELLED = 5;
+
+    private static final int HEADER_BYTES = 8;
+    private static final int SKIP_TO_NEXT_REGION = -1;
+    // Append positions carry the segment generation in their high bits.
+    private static final int POSITION_BITS = 40;
+    private static final int SNAPSHOT_MAGIC = 0x54524653; // "TRFS"
+    // Version 2 added turf coordinates, 3 the owner and 4 recurring bookings; older
+    // snapshots are still read.
+    private static final int SNAPSHOT_VERSION = 4;
+
+    private static final ExecutorService COMPACTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "journal-compactor");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * The state a journal describes up to a point in it, captured by the journal's owner
+     * for a compaction. Made by {@link #state}.
+     */
+    static final class State {
+        final List<TurfOwnerDashboard.Turf> turfs;
+        final BookingColumnStore.Columns bookings;
+        final List<RecurringBooking> rules;
+        final long generation;
+        final long offset;
+
+        private State(List<TurfOwnerDashboard.Turf> turfs, BookingColumnStore.Columns bookings,
+                      List<RecurringBooking> rules, long generation, long offset) {
+            this.turfs = turfs;
+            this.bookings = bookings;
+            this.rules = rules;
+            this.generation = generation;
+            this.offset = offset;
+        }
+    }
+
+    private static BookingJournal shared;
+    private static boolean sharedOpened;
+
+    /**
+     * The journal under {@code turf.journal.dir} (default {@code ~/.turfhub/journal}),
+     * or null when disabled with {@code turf.journal.enabled=false} or it cannot be opened.
+     */
+    static synchronized BookingJournal shared() {
+        if (!sharedOpened) {
+            sharedOpened = true;
+            if (Boolean.parseBoolean(System.getProperty("turf.journal.enabled", "true"))) {
+                try {
+                    shared = open(directory(), Integer.getInteger("turf.journal.regionMb", 64) * 1024L * 1024L);
+                    BookingJournal opened = shared;
+                    Runtime.getRuntime().addShutdownHook(new Thread(opened::close, "journal-shutdown"));
+                } catch (IOException e) {
+                    System.err.println("Booking journal unavailable, changes will not be saved: " + e.getMessage());
+                }
+            }
+        }
+        return shared;
+    }
+
+    /** Where {@link #shared()} keeps its files; other journals live below it. */
+    static Path directory() {
+        return Paths.get(System.getProperty("turf.journal.dir",
+                System.getProperty("user.home") + File.separator + ".turfhub" + File.separator + "journal"));
+    }
+
+    /** Opens a journal in {@code dir} with the configured flush interval and snapshot threshold. */
+    static BookingJournal open(Path dir, long regionSize) throws IOException {
+        return new BookingJournal(dir, regionSize, Long.getLong("turf.journal.flushMs", 50),
+                Integer.getInteger("turf.journal.snapshotEvery", 500_000));
+    }
+
+    private final Path dir;
+    private final long regionSize;
+    private final int snapshotEvery;
+    private final Thread flusher;
+    private final CRC32 crc = new CRC32();
+    private final Map<String, byte[]> encodedIds = new HashMap<>();
+
+    private long generation;
+    private FileChannel segment;
+    private MappedByteBuffer region;
+    private int regionIndex;
+    private final List<MappedByteBuffer> unflushedRegions = new ArrayList<>();
+    private long recordsSinceSnapshot;
+    private boolean hasSnapshot;
+    private Supplier<State> compactionSource;
+    private boolean compacting;
+
+    // Global byte offsets into the segment; guarded by "this".
+    private long writtenTo;
+    private long flushedTo;
+    private boolean closed;
+
+    BookingJournal(Path dir, long regionSize, long flushMillis, int snapshotEvery) throws IOException {
+        this.dir = dir;
+        this.regionSize = regionSize;
+        this.snapshotEvery = snapshotEvery;
+        Files.createDirectories(dir);
+
+        Path snapshot = snapshotPath();
+        if (Files.exists(snapshot)) {
+            generation = readSnapshotGeneration(snapshot);
+            hasSnapshot = true;
+        }
+        deleteSegmentsOtherThan(generation);
+        openSegment(generation);
+        recordsSinceSnapshot = scanToEnd();
+        flushedTo = writtenTo;
+
+        flusher = new Thread(() -> flushLoop(flushMillis), "journal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** True if there is anything to replay. */
+    synchronized boolean hasData() {
+        return hasSnapshot || writtenTo > 0;
+    }
+
+    /**
+     * Lets the journal compact itself in the background. {@code source} is called on the
+     * compactor thread, without any journal lock held, and must return {@link #state}
+     * taken while no append to this journal can run (e.g. under the owner's lock).
+     */
+    synchronized void compactInBackground(Supplier<State> source) {
+        compactionSource = source;
+    }
+
+    /** Tags the given state with the current end of the journal; see {@link #compactInBackground}. */
+    synchronized State state(List<TurfOwnerDashboard.Turf> turfs, BookingColumnStore.Columns bookings,
+                             List<RecurringBooking> rules) {
+        return new State(turfs, bookings, rules, generation, writtenTo);
+    }
+
+    // --- Appending --------------------------------------------------------------------
+
+    synchronized long turfAdded(TurfOwnerDashboard.Turf turf) {
+        byte[][] strings = {utf8(turf.id), utf8(turf.name), utf8(turf.location), utf8(turf.category),
+                utf8(turf.operatingHours), utf8(turf.owner)};
+        int size = 1 + Double.BYTES * 3;
+        for (byte[] s : strings) {
+            size += Short.BYTES + s.length;
+        }
+        ByteBuffer out = beginRecord(size);
+        out.put(TURF_ADDED);
+        putString(out, strings[0]);
+        putString(out, strings[1]);
+        putString(out, strings[2]);
+        out.putDouble(turf.hourlyRate);
+        putString(out, strings[3]);
+        putString(out, strings[4]);
+        // Coordinates and owner trail the record so segments written before them still replay.
+        out.putDouble(turf.latitude);
+        out.putDouble(turf.longitude);
+        putString(out, strings[5]);
+        return endRecord(out, size);
+    }
+
+    synchronized long bookingAdded(String turfId, long costPaise, long bookedAt) {
+        byte[] id = encodedIds.computeIfAbsent(turfId, BookingJournal::utf8);
+        int size = 1 + Short.BYTES + id.length + Long.BYTES * 2;
+        ByteBuffer out = beginRecord(size);
+        out.put(BOOKING_ADDED);
+        putString(out, id);
+        out.putLong(costPaise);
+        out.putLong(bookedAt);
+        return endRecord(out, size);
+    }
+
+    synchronized long bookingCancelled(int row) {
+        int size = 1 + Integer.BYTES;
+        ByteBuffer out = beginRecord(size);
+        out.put(BOOKING_CANCELLED);
+        out.putInt(row);
+        return endRecord(out, size);
+    }
+
+    synchronized long recurringAdded(RecurringBooking rule) {
+        byte[] turfId = utf8(rule.turfId);
+        byte[] customer = utf8(rule.customer);
+        int size = 1 + ruleSize(turfId, customer, rule);
+        ByteBuffer out = beginRecord(size);
+        out.put(RECURRING_ADDED);
+        putRule(out, turfId, customer, rule);
+        return endRecord(out, size);
+    }
+
+    synchronized long recurringCancelled(long ruleId) {
+        int size = 1 + Long.BYTES;
+        ByteBuffer out = beginRecord(size);
+        out.put(RECURRING_CANCELLED);
+        out.putLong(ruleId);
+        return endRecord(out, size);
+    }
+
+    /** Blocks until everything up to {@code position} (as returned by an append) is on disk. */
+    synchronized void awaitDurable(long position) throws InterruptedException {
+        long gen = position >>> POSITION_BITS;
+        long offset = position & ((1L << POSITION_BITS) - 1);
+        // A compaction since the append means the record is in the (forced) snapshot.
+        while (gen == generation && flushedTo < offset && !closed) {
+            notifyAll();
+            wait();
+        }
+    }
+
+    // --- Replay and compaction -----------------------------------------------------------
+
+    /** Feeds the snapshot and then every journaled event to {@code replayer}, in order. */
+    synchronized void replay(Replayer replayer) throws IOException {
+        if (hasSnapshot) {
+            replaySnapshot(snapshotPath(), replayer);
+        }
+        Map<String, String> ids = new HashMap<>();
+        for (int r = 0; (long) r * regionSize < writtenTo; r++) {
+            ByteBuffer buf = (r == regionIndex ? region : map(r)).duplicate();
+            buf.position(0).limit((int) Math.min(regionSize, writtenTo - (long) r * regionSize));
+            while (buf.remaining() >= HEADER_BYTES) {
+                int length = buf.getInt();
+                if (length == SKIP_TO_NEXT_REGION) {
+                    break;
+                }
+                buf.getInt(); // checksum, already verified by scanToEnd
+                int start = buf.position();
+                byte type = buf.get();
+                if (type == TURF_ADDED) {
+                    String id = getString(buf);
+                    String name = getString(buf);
+                    String location = getString(buf);
+                    double rate = buf.getDouble();
+                    String category = getString(buf);
+                    String hours = getString(buf);
+                    boolean placed = start + length - buf.position() >= Double.BYTES * 2;
+                    double lat = placed ? buf.getDouble() : Double.NaN;
+                    double lon = placed ? buf.getDouble() : Double.NaN;
+                    String owner = start + length - buf.position() >= Short.BYTES ? getString(buf) : "";
+                    replayer.turfAdded(new TurfOwnerDashboard.Turf(id, name, location, rate, category, hours,
+                            lat, lon, owner));
+                } else if (type == BOOKING_ADDED) {
+                    String turfId = getInternedString(buf, ids);
+                    replayer.bookingAdded(turfId, buf.getLong(), buf.getLong());
+                } else if (type == BOOKING_CANCELLED) {
+                    replayer.bookingCancelled(buf.getInt());
+                } else if (type == RECURRING_ADDED) {
+                    replayer.recurringAdded(getRule(buf));
+                } else if (type == RECURRING_CANCELLED) {
+                    replayer.recurringCancelled(buf.getLong());
+                }
+                buf.position(start + length);
+            }
+        }
+    }
+
+    /**
+     * Replaces the journal up to {@code state}'s point with a snapshot of it and starts a
+     * new segment holding the records appended since. Appends are blocked only while
+     * those records are copied, not while the snapshot is written.
+     */
+    void compact(State state) throws IOException {
+        long nextGeneration = state.generation + 1;
+        Path tmp = dir.resolve("snapshot.tmp");
+        writeSnapshot(tmp, nextGeneration, state.turfs, state.bookings, state.rules);
+        synchronized (this) {
+            if (closed || generation != state.generation) {
+                Files.deleteIfExists(tmp);
+                return;
+            }
+            List<ByteBuffer> tail = recordsFrom(state.offset);
+            FileChannel oldSegment = segment;
+            MappedByteBuffer oldRegion = region;
+            int oldRegionIndex = regionIndex;
+            long oldWrittenTo = writtenTo;
+            long oldFlushedTo = flushedTo;
+            long oldRecords = recordsSinceSnapshot;
+            List<MappedByteBuffer> oldUnflushed = new ArrayList<>(unflushedRegions);
+            try {
+                // The new segment is complete and forced before the snapshot that names it appears.
+                Files.deleteIfExists(segmentPath(nextGeneration));
+                generation = nextGeneration;
+                unflushedRegions.clear();
+                openSegment(generation);
+                writtenTo = 0;
+                flushedTo = 0;
+                recordsSinceSnapshot = 0;
+                for (ByteBuffer record : tail) {
+                    appendRaw(record);
+                }
+                forceDirty();
+                Files.move(tmp, snapshotPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException e) {
+                if (segment != oldSegment) {
+                    segment.close();
+                }
+                Files.deleteIfExists(segmentPath(nextGeneration));
+                Files.deleteIfExists(tmp);
+                generation = state.generation;
+                segment = oldSegment;
+                region = oldRegion;
+                regionIndex = oldRegionIndex;
+                writtenTo = oldWrittenTo;
+                flushedTo = oldFlushedTo;
+                recordsSinceSnapshot = oldRecords;
+                unflushedRegions.clear();
+                unflushedRegions.addAll(oldUnflushed);
+                throw e;
+            }
+            hasSnapshot = true;
+            oldSegment.close();
+            Files.deleteIfExists(segmentPath(state.generation));
+            notifyAll();
+        }
+    }
+
+    private void compactNow() {
+        Supplier<State> source;
+        synchronized (this) {
+            source = compactionSource;
+        }
+        try {
+            compact(source.get());
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not compact the booking journal in " + dir + ": " + e.getMessage());
+            synchronized (this) {
+                // Try again after another full batch rather than on every flush.
+                recordsSinceSnapshot = 0;
+            }
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            forceDirty();
+            segment.close();
+        } catch (IOException e) {
+            System.err.println("Could not close booking journal: " + e.getMessage());
+        }
+        flusher.interrupt();
+        notifyAll();
+    }
+
+    // --- Segment internals -------------------------------------------------------------
+
+    private ByteBuffer beginRecord(int payloadSize) {
+        if (closed) {
+            throw new IllegalStateException("Booking journal is closed");
+        }
+        int needed = HEADER_BYTES + payloadSize;
+        if (region.remaining() < needed) {
+            if (region.remaining() >= Integer.BYTES) {
+                region.putInt(SKIP_TO_NEXT_REGION);
+            }
+            nextRegion();
+        }
+        region.position(region.position() + HEADER_BYTES);
+        return region;
+    }
+
+    private long endRecord(ByteBuffer out, int payloadSize) {
+        int payloadStart = out.position() - payloadSize;
+        crc.reset();
+        ByteBuffer payload = out.duplicate();
+        payload.position(payloadStart).limit(payloadStart + payloadSize);
+        crc.update(payload);
+        // Length is written last so a torn record never looks complete.
+        out.putInt(payloadStart - HEADER_BYTES + Integer.BYTES, (int) crc.getValue());
+        out.putInt(payloadStart - HEADER_BYTES, payloadSize);
+        writtenTo = (long) regionIndex * regionSize + out.position();
+        recordsSinceSnapshot++;
+        return (generation << POSITION_BITS) | writtenTo;
+    }
+
+    /** Copies whole records from {@code offset} to the end, skipping region padding. */
+    private List<ByteBuffer> recordsFrom(long offset) throws IOException {
+        List<ByteBuffer> records = new ArrayList<>();
+        long at = offset;
+        while (at < writtenTo) {
+            int r = (int) (at / regionSize);
+            ByteBuffer buf = (r == regionIndex ? region : map(r)).duplicate();
+            buf.limit((int) Math.min(regionSize, writtenTo - (long) r * regionSize));
+            buf.position((int) (at - (long) r * regionSize));
+            int length = buf.remaining() >= HEADER_BYTES ? buf.getInt(buf.position()) : SKIP_TO_NEXT_REGION;
+            if (length == SKIP_TO_NEXT_REGION) {
+                at = (long) (r + 1) * regionSize;
+                continue;
+            }
+            buf.limit(buf.position() + HEADER_BYTES + length);
+            ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + length);
+            record.put(buf).flip();
+            records.add(record);
+            at += HEADER_BYTES + length;
+        }
+        return records;
+    }
+
+    /** Appends a record copied by {@link #recordsFrom}, checksum and all. */
+    private void appendRaw(ByteBuffer record) {
+        ByteBuffer out = beginRecord(record.remaining() - HEADER_BYTES);
+        out.position(out.position() - HEADER_BYTES);
+        out.put(record);
+        writtenTo = (long) regionIndex * regionSize + out.position();
+        recordsSinceSnapshot++;
+    }
+
+    private void nextRegion() {
+        unflushedRegions.add(region);
+        regionIndex++;
+        try {
+            region = map(regionIndex);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow booking journal", e);
+        }
+        writtenTo = (long) regionIndex * regionSize;
+    }
+
+    /** Positions the write cursor after the last intact record; returns how many records there are. */
+    private long scanToEnd() throws IOException {
+        long records = 0;
+        long fileSize = segment.size();
+        for (int r = 0; ; r++) {
+            MappedByteBuffer buf = map(r);
+            boolean torn = false;
+            while (buf.remaining() >= HEADER_BYTES) {
+                int recordStart = buf.position();
+                int length = buf.getInt();
+                if (length == SKIP_TO_NEXT_REGION) {
+                    break;
+                }
+                int checksum = buf.getInt();
+                if (length <= 0 || length > buf.remaining() || !checksumMatches(buf, length, checksum)) {
+                    buf.position(recordStart);
+                    torn = true;
+                    break;
+                }
+                buf.position(buf.position() + length);
+                records++;
+            }
+            boolean laterRegionWritten = (long) (r + 1) * regionSize < fileSize;
+            if (torn || !laterRegionWritten) {
+                region = buf;
+                regionIndex = r;
+                writtenTo = (long) r * regionSize + buf.position();
+                clearTail(buf);
+                return records;
+            }
+        }
+    }
+
+    /**
+     * Zeroes everything after the write cursor. After a power loss an intact record
+     * can sit behind a torn one; it must not be picked up once new records are
+     * appended in front of it.
+     */
+    private static void clearTail(MappedByteBuffer buf) {
+        int from = buf.position();
+        int end = buf.limit();
+        int p = from;
+        while (p + Long.BYTES <= end && buf.getLong(p) == 0) {
+            p += Long.BYTES;
+        }
+        if (p + Long.BYTES > end && (p == end || isZero(buf, p, end))) {
+            return;
+        }
+        for (int i = from; i < end; i++) {
+            buf.put(i, (byte) 0);
+        }
+    }
+
+    private static boolean isZero(ByteBuffer buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean checksumMatches(ByteBuffer buf, int length, int checksum) {
+        crc.reset();
+        ByteBuffer payload = buf.duplicate();
+        payload.limit(buf.position() + length);
+        crc.update(payload);
+        return (int) crc.getValue() == checksum;
+    }
+
+    private MappedByteBuffer map(int index) throws IOException {
+        return segment.map(FileChannel.MapMode.READ_WRITE, (long) index * regionSize, regionSize);
+    }
+
+    private void openSegment(long gen) throws IOException {
+        segment = FileChannel.open(segmentPath(gen),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        region = map(0);
+        regionIndex = 0;
+    }
+
+    /**
+     * Group commit: one force covers every record appended since the last one, and
+     * appends are not blocked while the force is running.
+     */
+    private void flushLoop(long flushMillis) {
+        while (true) {
+            List<MappedByteBuffer> full;
+            MappedByteBuffer current;
+            int from;
+            int to;
+            long target;
+            long gen;
+            synchronized (this) {
+                try {
+                    wait(flushMillis);
+                } catch (InterruptedException e) {
+                    // fall through to the closed check
+                }
+                if (closed) {
+                    return;
+                }
+                if (compactionSource != null && !compacting && recordsSinceSnapshot >= snapshotEvery) {
+                    compacting = true;
+                    COMPACTOR.execute(this::compactNow);
+                }
+                if (writtenTo <= flushedTo) {
+                    continue;
+                }
+                full = new ArrayList<>(unflushedRegions);
+                unflushedRegions.clear();
+                current = region;
+                long regionStart = (long) regionIndex * regionSize;
+                from = (int) Math.max(0, flushedTo - regionStart);
+                to = (int) (writtenTo - regionStart);
+                target = writtenTo;
+                gen = generation;
+            }
+            for (MappedByteBuffer buf : full) {
+                buf.force();
+            }
+            if (to > from) {
+                current.force(from, to - from);
+            }
+            synchronized (this) {
+                if (gen == generation && target > flushedTo) {
+                    flushedTo = target;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void forceDirty() {
+        for (MappedByteBuffer full : unflushedRegions) {
+            full.force();
+        }
+        unflushedRegions.clear();
+        long regionStart = (long) regionIndex * regionSize;
+        int from = (int) Math.max(0, flushedTo - regionStart);
+        int to = (int) (writtenTo - regionStart);
+        if (to > from) {
+            region.force(from, to - from);
+        }
+        flushedTo = writtenTo;
+    }
+
+    private void deleteSegmentsOtherThan(long keep) throws IOException {
+        File[] files = dir.toFile().listFiles((d, name) -> name.startsWith("journal-") && name.endsWith(".log"));
+        if (files == null) {
+            return;
+        }
+        String keepName = segmentPath(keep).getFileName().toString();
+        for (File f : files) {
+            if (!f.getName().equals(keepName)) {
+                Files.deleteIfExists(f.toPath());
+            }
+        }
+    }
+
+    private Path segmentPath(long gen) {
+        return dir.resolve("journal-" + gen + ".log");
+    }
+
+    private Path snapshotPath() {
+        return dir.resolve("snapshot.bin");
+    }
+
+    // --- Snapshot format ---------------------------------------------------------------
+    // magic, version, generation, turf count, turfs (with latitude and longitude from
+    // version 2, owner from version 3), dictionary size, dictionary, row count, then per row: turf code (int), cost paise (long), booked at (long),
+    // cancelled (byte); from version 4, rule count and the recurring booking rules.
+
+    private static void writeSnapshot(Path path, long gen, List<TurfOwnerDashboard.Turf> turfs,
+                                      BookingColumnStore.Columns bookings, List<RecurringBooking> rules) throws IOException {
+        int rows = bookings.size;
+        int dictionary = bookings.dictionary.length;
+        List<byte[]> strings = new ArrayList<>();
+        long size = 4 + 4 + 8 + 4 + 4 + 4 + (long) rows * (4 + 8 + 8 + 1);
+        for (TurfOwnerDashboard.Turf turf : turfs) {
+            size += Double.BYTES * 3;
+            for (String s : new String[] {
+                    turf.id, turf.name, turf.location, turf.category, turf.operatingHours, turf.owner}) {
+                byte[] b = utf8(s);
+                strings.add(b);
+                size += Short.BYTES + b.length;
+            }
+        }
+        for (int code = 0; code < dictionary; code++) {
+            byte[] b = utf8(bookings.dictionary[code]);
+            strings.add(b);
+            size += Short.BYTES + b.length;
+        }
+        size += Integer.BYTES;
+        for (RecurringBooking rule : rules) {
+            byte[] turfId = utf8(rule.turfId);
+            byte[] customer = utf8(rule.customer);
+            strings.add(turfId);
+            strings.add(customer);
+            size += ruleSize(turfId, customer, rule);
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(path.toFile(), "rw");
+             FileChannel channel = file.getChannel()) {
+            file.setLength(0);
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            out.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putLong(gen);
+            int s = 0;
+            out.putInt(turfs.size());
+            for (TurfOwnerDashboard.Turf turf : turfs) {
+                putString(out, strings.get(s++));
+                putString(out, strings.get(s++));
+                putString(out, strings.get(s++));
+                out.putDouble(turf.hourlyRate);
+                putString(out, strings.get(s++));
+                putString(out, strings.get(s++));
+                out.putDouble(turf.latitude).putDouble(turf.longitude);
+                putString(out, strings.get(s++));
+            }
+            out.putInt(dictionary);
+            for (int code = 0; code < dictionary; code++) {
+                putString(out, strings.get(s++));
+            }
+            out.putInt(rows);
+            for (int row = 0; row < rows; row++) {
+                out.putInt(bookings.turfCodes[row]).putLong(bookings.costPaise[row]).putLong(bookings.bookedAt[row]);
+                out.put(bookings.isLive(row) ? (byte) 0 : (byte) 1);
+            }
+            out.putInt(rules.size());
+            for (RecurringBooking rule : rules) {
+                putRule(out, strings.get(s++), strings.get(s++), rule);
+            }
+            out.force();
+        }
+    }
+
+    private static long readSnapshotGeneration(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading
+            }
+            header.flip();
+            if (header.remaining() < 16 || header.getInt() != SNAPSHOT_MAGIC
+                    || !isReadableVersion(header.getInt())) {
+                throw new IOException("Unrecognized booking snapshot " + path);
+            }
+            return header.getLong();
+        }
+    }
+
+    private static boolean isReadableVersion(int version) {
+        return version >= 1 && version <= SNAPSHOT_VERSION;
+    }
+
+    private static void replaySnapshot(Path path, Replayer replayer) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int version = in.getInt(4);
+            in.position(16);
+            int turfCount = in.getInt();
+            for (int i = 0; i < turfCount; i++) {
+                String id = getString(in);
+                String name = getString(in);
+                String location = getString(in);
+                double rate = in.getDouble();
+                String category = getString(in);
+                String hours = getString(in);
+                double lat = version >= 2 ? in.getDouble() : Double.NaN;
+                double lon = version >= 2 ? in.getDouble() : Double.NaN;
+                String owner = version >= 3 ? getString(in) : "";
+                replayer.turfAdded(new TurfOwnerDashboard.Turf(id, name, location, rate, category, hours,
+                        lat, lon, owner));
+            }
+            String[] dictionary = new String[in.getInt()];
+            for (int code = 0; code < dictionary.length; code++) {
+                dictionary[code] = getString(in);
+            }
+            int rows = in.getInt();
+            for (int row = 0; row < rows; row++) {
+                int code = in.getInt();
+                long cost = in.getLong();
+                long bookedAt = in.getLong();
+                replayer.bookingAdded(dictionary[code], cost, bookedAt);
+                if (in.get() != 0) {
+                    replayer.bookingCancelled(row);
+                }
+            }
+            int ruleCount = version >= 4 ? in.getInt() : 0;
+            for (int i = 0; i < ruleCount; i++) {
+                replayer.recurringAdded(getRule(in));
+            }
+        }
+    }
+
+    // --- Encoding helpers ----------------------------------------------------------------
+
+    // Rule: id, turf ID, customer, weekday, start slot, slot count, first and last day
+    // (epoch days as ints), cost paise, exception count, exception days.
+    private static int ruleSize(byte[] turfId, byte[] customer, RecurringBooking rule) {
+        return Long.BYTES + Short.BYTES + turfId.length + Short.BYTES + customer.length + 3
+                + Integer.BYTES * 2 + Long.BYTES + Integer.BYTES + Integer.BYTES * rule.exceptions.length;
+    }
+
+    private static void putRule(ByteBuffer out, byte[] turfId, byte[] customer, RecurringBooking rule) {
+        out.putLong(rule.id);
+        putString(out, turfId);
+        putString(out, customer);
+        out.put((byte) rule.dayOfWeek.getValue());
+        out.put((byte) rule.startSlot);
+        out.put((byte) rule.slotCount);
+        out.putInt((int) rule.firstDay).putInt((int) rule.lastDay);
+        out.putLong(rule.costPaise);
+        out.putInt(rule.exceptions.length);
+        for (long day : rule.exceptions) {
+            out.putInt((int) day);
+        }
+    }
+
+    private static RecurringBooking getRule(ByteBuffer in) {
+        long id = in.getLong();
+        String turfId = getString(in);
+        String customer = getString(in);
+        DayOfWeek dayOfWeek = DayOfWeek.of(in.get());
+        int startSlot = in.get();
+        int slotCount = in.get();
+        long firstDay = in.getInt();
+        long lastDay = in.getInt();
+        long costPaise = in.getLong();
+        long[] exceptions = new long[in.getInt()];
+        for (int i = 0; i < exceptions.length; i++) {
+            exceptions[i] = in.getInt();
+        }
+        return new RecurringBooking(id, turfId, customer, dayOfWeek, startSlot, slotCount, firstDay, lastDay,
+                exceptions, costPaise);
+    }
+
+    private static byte[] utf8(String s) {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        if (b.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Value too long for the booking journal");
+        }
+        return b;
+    }
+
+    private static void putString(ByteBuffer out, byte[] b) {
+        out.putShort((short) b.length);
+        out.put(b);
+    }
+
+    private static String getString(ByteBuffer in) {
+        int length = in.getShort();
+        byte[] b = new byte[length];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** Turf IDs repeat on every booking; decode each distinct one once. */
+    private static String getInternedString(ByteBuffer in, Map<String, String> seen) {
+        String s = getString(in);
+        String previous = seen.putIfAbsent(s, s);
+        return previous == null ? s : previous;
+    }
+}
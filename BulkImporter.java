@@ -0,0 +1,421 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk import of users or turfs from CSV, for onboarding a whole franchise at once.
+ *
+ * The file is streamed one record at a time and valid rows are inserted through one
+ * prepared statement in JDBC batches of {@code turf.import.batchSize} rows, committing
+ * every {@code turf.import.commitEvery} rows. A row that fails validation or whose
+ * insert fails (duplicate username, constraint violation, ...) is written to the
+ * reject file with its line number and reason; the rest of the batch still goes in.
+ *
+ * Usage: {@code java BulkImporter users|turfs <file.csv> [rejects.csv]}
+ *
+ * User files need {@code username,email,password} columns and may have {@code role};
+ * plaintext passwords are hashed (in parallel, one batch at a time), values that are
+ * already {@link PasswordHasher} hashes are stored as they are. Turf files need
+ * {@code name,address,price_per_hour,category} and may have {@code operating_hours}
+ * and {@code image_path}.
+ */
+class BulkImporter {
+
+    static final class Result {
+        public final long read;
+        public final long imported;
+        public final long rejected;
+        public final long elapsedMillis;
+
+        Result(long read, long imported, long rejected, long elapsedMillis) {
+            this.read = read;
+            this.imported = imported;
+            this.rejected = rejected;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(elapsedMillis, 1) / 1000.0;
+            return String.format("%d rows read, %d imported, %d rejected in %.1fs (%.0f rows/s)",
+                    read, imported, rejected, seconds, read / seconds);
+        }
+    }
+
+    /** What is being imported: its columns, validation and insert. */
+    abstract static class Kind {
+        final String[] columns;
+        final boolean[] required;
+        final String insertSql;
+
+        Kind(String[] columns, boolean[] required, String insertSql) {
+            this.columns = columns;
+            this.required = required;
+            this.insertSql = insertSql;
+        }
+
+        /** Returns why the row cannot be imported, or null if it is fine. Values are in {@link #columns} order. */
+        abstract String validate(String[] values);
+
+        /** Last chance to transform a batch of valid rows before binding (e.g. hashing). */
+        void prepare(List<Row> batch) throws GeneralSecurityException {
+        }
+
+        abstract void bind(PreparedStatement pst, String[] values) throws SQLException;
+
+        /** Row as written to the reject file; must not leak secrets. */
+        String[] forReject(String[] values) {
+            return values;
+        }
+
+        void afterImport() {
+        }
+    }
+
+    static final class Row {
+        final long line;
+        final String[] values;
+
+        Row(long line, String[] values) {
+            this.line = line;
+            this.values = values;
+        }
+    }
+
+    static final Kind USERS = new Kind(
+            new String[] {"username", "email", "password", "role"},
+            new boolean[] {true, true, true, false},
+            "INSERT INTO users(username, email, password, role) VALUES (?, ?, ?, ?)") {
+
+        private final ExecutorService hashers = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(), r -> {
+                    Thread t = new Thread(r, "import-hasher");
+                    t.setDaemon(true);
+                    return t;
+                });
+
+        @Override
+        String validate(String[] v) {
+            if (v[0].isEmpty() || v[0].length() > 50) {
+                return "username must be 1-50 characters";
+            }
+            if (v[1].indexOf('@') <= 0 || v[1].indexOf('@') == v[1].length() - 1) {
+                return "invalid email";
+            }
+            if (v[2].isEmpty()) {
+                return "password is empty";
+            }
+            if (v[3].isEmpty()) {
+                v[3] = "User";
+            } else if (!v[3].equals("User") && !v[3].equals("Turf Owner")) {
+                return "role must be User or Turf Owner";
+            }
+            return null;
+        }
+
+        @Override
+        void prepare(List<Row> batch) throws GeneralSecurityException {
+            int iterations = PasswordHasher.shared().iterations();
+            List<Future<String>> hashes = new ArrayList<>(batch.size());
+            for (Row row : batch) {
+                String password = row.values[2];
+                if (password.startsWith(PasswordHasher.PREFIX + "$")) {
+                    hashes.add(null);
+                } else {
+                    hashes.add(hashers.submit(() -> PasswordHasher.hashNow(password.toCharArray(), iterations)));
+                }
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                if (hashes.get(i) == null) {
+                    continue;
+                }
+                try {
+                    batch.get(i).values[2] = hashes.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GeneralSecurityException("Interrupted while hashing passwords", e);
+                } catch (ExecutionException e) {
+                    throw new GeneralSecurityException("Password hashing failed", e.getCause());
+                }
+            }
+        }
+
+        @Override
+        void bind(PreparedStatement pst, String[] v) throws SQLException {
+            pst.setString(1, v[0]);
+            pst.setString(2, v[1]);
+            pst.setString(3, v[2]);
+            pst.setString(4, v[3]);
+        }
+
+        @Override
+        String[] forReject(String[] v) {
+            String[] copy = v.clone();
+            copy[2] = "";
+            return copy;
+        }
+    };
+
+    static final Kind TURFS = new Kind(
+            new String[] {"name", "address", "price_per_hour", "category", "operating_hours", "image_path"},
+            new boolean[] {true, true, true, true, false, false},
+            "INSERT INTO turfs(name, address, price_per_hour, category, operating_hours, image_path) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)") {
+
+        @Override
+        String validate(String[] v) {
+            if (v[0].isEmpty()) {
+                return "name is empty";
+            }
+            if (v[1].isEmpty()) {
+                return "address is empty";
+            }
+            try {
+                if (Integer.parseInt(v[2]) <= 0) {
+                    return "price_per_hour must be positive";
+                }
+            } catch (NumberFormatException e) {
+                return "price_per_hour is not a whole number";
+            }
+            if (!Arrays.asList(TurfOwnerDashboard.CATEGORIES).contains(v[3])) {
+                return "unknown category " + v[3];
+            }
+            if (v[4].isEmpty()) {
+                v[4] = TurfOwnerDashboard.DEFAULT_OPERATING_HOURS;
+            }
+            try {
+                SlotAvailability.parseOperatingHours(v[4]);
+            } catch (IllegalArgumentException e) {
+                return e.getMessage();
+            }
+            return null;
+        }
+
+        @Override
+        void bind(PreparedStatement pst, String[] v) throws SQLException {
+            pst.setString(1, v[0]);
+            pst.setString(2, v[1]);
+            pst.setInt(3, Integer.parseInt(v[2]));
+            pst.setString(4, v[3]);
+            pst.setString(5, v[4]);
+            pst.setString(6, v[5].isEmpty() ? null : v[5]);
+        }
+
+        @Override
+        void afterImport() {
+            TurfCatalog.shared().invalidateAll();
+        }
+    };
+
+    private final Kind kind;
+    private final int batchSize;
+    private final int commitEvery;
+
+    BulkImporter(Kind kind, int batchSize, int commitEvery) {
+        this.kind = kind;
+        this.batchSize = Math.max(1, batchSize);
+        this.commitEvery = Math.max(this.batchSize, commitEvery);
+    }
+
+    Result importFile(Path csv, Path rejects) throws IOException, SQLException, GeneralSecurityException {
+        long started = System.currentTimeMillis();
+        long read = 0;
+        long imported = 0;
+        long rejected = 0;
+        long sinceCommit = 0;
+        long committedThroughLine = 0;
+
+        try (CsvReader in = new CsvReader(Files.newBufferedReader(csv, StandardCharsets.UTF_8));
+             Writer rejectOut = Files.newBufferedWriter(rejects, StandardCharsets.UTF_8);
+             Connection conn = DBConnection.getConnection()) {
+            String[] header = in.next();
+            if (header == null) {
+                throw new IOException(csv + " is empty");
+            }
+            int[] columnAt = mapColumns(header);
+            rejectOut.write(CsvReader.format(concat(new String[] {"line", "reason"}, kind.columns)));
+            rejectOut.write('\n');
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement pst = conn.prepareStatement(kind.insertSql)) {
+                List<Row> batch = new ArrayList<>(batchSize);
+                String[] record;
+                while ((record = in.next()) != null) {
+                    read++;
+                    String[] values = new String[kind.columns.length];
+                    for (int i = 0; i < values.length; i++) {
+                        int at = columnAt[i];
+                        values[i] = at >= 0 && at < record.length ? record[at].trim() : "";
+                    }
+                    String problem = missingRequired(values);
+                    if (problem == null) {
+                        problem = kind.validate(values);
+                    }
+                    if (problem != null) {
+                        reject(rejectOut, in.recordLine(), problem, values);
+                        rejected++;
+                        continue;
+                    }
+                    batch.add(new Row(in.recordLine(), values));
+                    if (batch.size() == batchSize) {
+                        int ok = flush(pst, batch, rejectOut);
+                        imported += ok;
+                        rejected += batch.size() - ok;
+                        sinceCommit += batch.size();
+                        batch.clear();
+                        if (sinceCommit >= commitEvery) {
+                            conn.commit();
+                            committedThroughLine = in.recordLine();
+                            sinceCommit = 0;
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    int ok = flush(pst, batch, rejectOut);
+                    imported += ok;
+                    rejected += batch.size() - ok;
+                }
+                conn.commit();
+            } catch (SQLException | IOException | GeneralSecurityException | RuntimeException e) {
+                // Rolled back before autocommit is restored, which would otherwise commit the open batch.
+                try {
+                    conn.rollback();
+                } catch (SQLException rollbackFailed) {
+                    e.addSuppressed(rollbackFailed);
+                }
+                System.err.println("Import aborted; rows up to line " + committedThroughLine + " were committed.");
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        kind.afterImport();
+        return new Result(read, imported, rejected, System.currentTimeMillis() - started);
+    }
+
+    /** Inserts one batch and returns how many rows made it; failed rows go to the reject file. */
+    private int flush(PreparedStatement pst, List<Row> batch, Writer rejectOut)
+            throws SQLException, GeneralSecurityException, IOException {
+        kind.prepare(batch);
+        for (Row row : batch) {
+            kind.bind(pst, row.values);
+            pst.addBatch();
+        }
+        try {
+            pst.executeBatch();
+            return batch.size();
+        } catch (BatchUpdateException e) {
+            pst.clearBatch();
+            // Drivers either keep going after a failed row (marking it EXECUTE_FAILED)
+            // or stop at it; retry every row not known to have gone in, one at a time,
+            // so each failure gets its own reason.
+            int[] counts = e.getUpdateCounts();
+            int ok = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                if (counts != null && i < counts.length && counts[i] != Statement.EXECUTE_FAILED) {
+                    ok++;
+                    continue;
+                }
+                Row row = batch.get(i);
+                try {
+                    kind.bind(pst, row.values);
+                    pst.executeUpdate();
+                    ok++;
+                } catch (SQLIntegrityConstraintViolationException dup) {
+                    reject(rejectOut, row.line, "duplicate or constraint violation: " + dup.getMessage(), row.values);
+                } catch (SQLException rowError) {
+                    if (!isRowLevel(rowError)) {
+                        throw rowError;
+                    }
+                    reject(rejectOut, row.line, rowError.getMessage(), row.values);
+                }
+            }
+            return ok;
+        }
+    }
+
+    private String missingRequired(String[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (kind.required[i] && values[i].isEmpty()) {
+                return kind.columns[i] + " is required";
+            }
+        }
+        return null;
+    }
+
+    private int[] mapColumns(String[] header) throws IOException {
+        Map<String, Integer> positions = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            positions.put(header[i].trim().toLowerCase(), i);
+        }
+        int[] columnAt = new int[kind.columns.length];
+        for (int i = 0; i < columnAt.length; i++) {
+            Integer at = positions.get(kind.columns[i]);
+            if (at == null && kind.required[i]) {
+                throw new IOException("Missing column '" + kind.columns[i] + "' in header");
+            }
+            columnAt[i] = at == null ? -1 : at;
+        }
+        return columnAt;
+    }
+
+    private void reject(Writer out, long line, String reason, String[] values) throws IOException {
+        out.write(CsvReader.format(concat(new String[] {Long.toString(line), reason}, kind.forReject(values))));
+        out.write('\n');
+    }
+
+    /** Data errors (SQLState class 22/23) affect one row; anything else means the connection is in trouble. */
+    private static boolean isRowLevel(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+
+    private static String[] concat(String[] a, String[] b) {
+        String[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        return out;
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || !(args[0].equals("users") || args[0].equals("turfs"))) {
+            System.err.println("Usage: java BulkImporter users|turfs <file.csv> [rejects.csv]");
+            System.exit(2);
+        }
+        Kind kind = args[0].equals("users") ? USERS : TURFS;
+        Path csv = Paths.get(args[1]);
+        Path rejects = Paths.get(args.length > 2 ? args[2] : args[1] + ".rejects.csv");
+        BulkImporter importer = new BulkImporter(kind,
+                Integer.getInteger("turf.import.batchSize", 500),
+                Integer.getInteger("turf.import.commitEvery", 5_000));
+        try {
+            Result result = importer.importFile(csv, rejects);
+            System.out.println(result);
+            if (result.rejected > 0) {
+                System.out.println("Rejected rows written to " + rejects);
+            }
+        } catch (IOException | SQLException | GeneralSecurityException e) {
+            System.err.println("Import failed: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,478 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded JDBC connection pool used behind {@link DBConnection#getConnection()}.
+ *
+ * Callers keep the usual try-with-resources pattern: closing a borrowed connection
+ * returns it to the pool (and closes any statements opened on it) instead of
+ * tearing down the socket.
+ *
+ * Permits bound the number of borrowers; a separate count of physical connections
+ * (idle, borrowed or being opened) keeps the idle top-up from opening more than
+ * {@code maxSize} sockets. Opening a connection counts against the borrow timeout.
+ */
+class ConnectionPool implements AutoCloseable {
+
+    interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    static final class Config {
+        int minIdle = 2;
+        int maxSize = 10;
+        long borrowTimeoutMillis = 5_000;
+        long validationIntervalMillis = 30_000;
+        long idleTimeoutMillis = 10 * 60_000;
+        long leakThresholdMillis = 60_000;
+        long housekeepingIntervalMillis = 15_000;
+
+        static Config fromSystemProperties() {
+            Config c = new Config();
+            c.minIdle = Integer.getInteger("turf.db.pool.min", c.minIdle);
+            c.maxSize = Integer.getInteger("turf.db.pool.max", c.maxSize);
+            c.borrowTimeoutMillis = Long.getLong("turf.db.pool.borrowTimeoutMs", c.borrowTimeoutMillis);
+            c.validationIntervalMillis = Long.getLong("turf.db.pool.validationIntervalMs", c.validationIntervalMillis);
+            c.idleTimeoutMillis = Long.getLong("turf.db.pool.idleTimeoutMs", c.idleTimeoutMillis);
+            c.leakThresholdMillis = Long.getLong("turf.db.pool.leakThresholdMs", c.leakThresholdMillis);
+            if (c.maxSize < 1) c.maxSize = 1;
+            if (c.minIdle > c.maxSize) c.minIdle = c.maxSize;
+            return c;
+        }
+    }
+
+    static final class Stats {
+        public final int active;
+        public final int idle;
+        public final int maxSize;
+        public final long borrowCount;
+        public final long timeoutCount;
+        public final long leakCount;
+        public final long totalWaitNanos;
+        public final long maxWaitNanos;
+
+        Stats(int active, int idle, int maxSize, long borrowCount, long timeoutCount,
+              long leakCount, long totalWaitNanos, long maxWaitNanos) {
+            this.active = active;
+            this.idle = idle;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.timeoutCount = timeoutCount;
+            this.leakCount = leakCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.maxWaitNanos = maxWaitNanos;
+        }
+
+        public double averageWaitMillis() {
+            return borrowCount == 0 ? 0.0 : totalWaitNanos / 1e6 / borrowCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d idle=%d max=%d borrows=%d timeouts=%d leaks=%d avgWait=%.3fms maxWait=%.3fms",
+                    active, idle, maxSize, borrowCount, timeoutCount, leakCount,
+                    averageWaitMillis(), maxWaitNanos / 1e6);
+        }
+    }
+
+    private final ConnectionFactory factory;
+    private final Config config;
+    private final Semaphore permits;
+    private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService housekeeper;
+    private final ExecutorService connector;
+    private final AtomicInteger physicalCount = new AtomicInteger();
+    private volatile boolean closed;
+
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    ConnectionPool(ConnectionFactory factory, Config config) {
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        this.connector = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "db-pool-connector");
+            t.setDaemon(true);
+            return t;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, config.housekeepingIntervalMillis,
+                config.housekeepingIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    Connection borrow() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool has been shut down.");
+        }
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(config.borrowTimeoutMillis);
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(config.borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+        recordWait(System.nanoTime() - start);
+        if (!acquired) {
+            throw borrowTimeout();
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = openOrWait(deadline);
+            }
+            pooled.borrowedAt = System.currentTimeMillis();
+            pooled.borrowSite = new Throwable("Connection borrowed here");
+            pooled.leakReported = false;
+            borrowed.add(pooled);
+            borrowCount.incrementAndGet();
+            return pooled.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a connection if the physical limit allows, otherwise waits for one to go
+     * idle. With a permit held, fewer than {@code maxSize} connections are borrowed by
+     * others, so at the limit one is idle or about to be.
+     */
+    private PooledConnection openOrWait(long deadline) throws SQLException {
+        while (true) {
+            if (reservePhysical()) {
+                return open(deadline);
+            }
+            long remaining = deadline - System.nanoTime();
+            PooledConnection pooled;
+            try {
+                pooled = remaining <= 0 ? null : idle.pollFirst(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(50)),
+                        TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection.", e);
+            }
+            if (pooled != null) {
+                return pooled;
+            }
+            if (System.nanoTime() - deadline >= 0) {
+                throw borrowTimeout();
+            }
+        }
+    }
+
+    /**
+     * Opens a connection for a slot already reserved, giving up at the deadline. A
+     * connection that arrives after the borrower gave up is kept as an idle one.
+     */
+    private PooledConnection open(long deadline) throws SQLException {
+        CompletableFuture<PooledConnection> opening;
+        try {
+            opening = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new PooledConnection(factory.create());
+                } catch (SQLException e) {
+                    throw new CompletionException(e);
+                }
+            }, connector);
+        } catch (RuntimeException e) {
+            physicalCount.decrementAndGet();
+            throw e;
+        }
+        opening.whenComplete((pooled, error) -> {
+            if (error != null) {
+                physicalCount.decrementAndGet();
+            }
+        });
+        try {
+            return opening.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            opening.thenAccept(this::offerIdle);
+            throw borrowTimeout();
+        } catch (InterruptedException e) {
+            opening.thenAccept(this::offerIdle);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new SQLException("Could not open a database connection.", cause);
+        }
+    }
+
+    private SQLException borrowTimeout() {
+        timeoutCount.incrementAndGet();
+        return new SQLTransientConnectionException("Timed out after " + config.borrowTimeoutMillis
+                + " ms waiting for a database connection (" + stats() + ")");
+    }
+
+    private boolean reservePhysical() {
+        int n;
+        do {
+            n = physicalCount.get();
+            if (n >= config.maxSize) {
+                return false;
+            }
+        } while (!physicalCount.compareAndSet(n, n + 1));
+        return true;
+    }
+
+    private void offerIdle(PooledConnection pooled) {
+        if (closed) {
+            pooled.closePhysical();
+            return;
+        }
+        pooled.returnedAt = System.currentTimeMillis();
+        idle.offerLast(pooled);
+    }
+
+    Stats stats() {
+        return new Stats(borrowed.size(), idle.size(), config.maxSize, borrowCount.get(),
+                timeoutCount.get(), leakCount.get(), totalWaitNanos.get(), maxWaitNanos.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        connector.shutdown();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            pooled.closePhysical();
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            long idleFor = System.currentTimeMillis() - pooled.returnedAt;
+            if (idleFor < config.validationIntervalMillis || pooled.isValid()) {
+                return pooled;
+            }
+            pooled.closePhysical();
+        }
+        return null;
+    }
+
+    private void giveBack(PooledConnection pooled) {
+        if (!borrowed.remove(pooled)) {
+            return;
+        }
+        boolean reusable = !closed && pooled.reset();
+        if (reusable) {
+            pooled.returnedAt = System.currentTimeMillis();
+            // LIFO so the most recently used (warm) connection is handed out next.
+            idle.offerFirst(pooled);
+        } else {
+            pooled.closePhysical();
+        }
+        permits.release();
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        long max;
+        while (nanos > (max = maxWaitNanos.get()) && !maxWaitNanos.compareAndSet(max, nanos)) {
+            // retry
+        }
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+
+            for (PooledConnection pooled : borrowed) {
+                if (!pooled.leakReported && now - pooled.borrowedAt > config.leakThresholdMillis) {
+                    pooled.leakReported = true;
+                    leakCount.incrementAndGet();
+                    System.err.println("WARNING: Possible connection leak, borrowed " + (now - pooled.borrowedAt)
+                            + " ms ago and not returned.");
+                    pooled.borrowSite.printStackTrace();
+                }
+            }
+
+            List<PooledConnection> checked = new ArrayList<>();
+            PooledConnection pooled;
+            while ((pooled = idle.pollLast()) != null) {
+                boolean surplus = idle.size() + checked.size() >= config.minIdle;
+                if (surplus && now - pooled.returnedAt > config.idleTimeoutMillis) {
+                    pooled.closePhysical();
+                } else if (now - pooled.returnedAt > config.validationIntervalMillis && !pooled.isValid()) {
+                    pooled.closePhysical();
+                } else {
+                    checked.add(pooled);
+                }
+            }
+            for (PooledConnection c : checked) {
+                idle.offerFirst(c);
+            }
+
+            // Counted against maxSize with the borrowed ones, so a busy pool is not overfilled.
+            while (!closed && idle.size() < config.minIdle && reservePhysical()) {
+                PooledConnection fresh;
+                try {
+                    fresh = new PooledConnection(factory.create());
+                } catch (SQLException | RuntimeException e) {
+                    physicalCount.decrementAndGet();
+                    throw e;
+                }
+                offerIdle(fresh);
+            }
+        } catch (SQLException e) {
+            System.err.println("Connection pool could not top up idle connections: " + e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private final class PooledConnection {
+        final Connection physical;
+        private final AtomicBoolean open = new AtomicBoolean(true);
+        volatile long borrowedAt;
+        volatile long returnedAt = System.currentTimeMillis();
+        volatile Throwable borrowSite;
+        volatile boolean leakReported;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Handle(this));
+        }
+
+        boolean isValid() {
+            try {
+                return physical.isValid(2);
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        boolean reset() {
+            try {
+                if (physical.isClosed()) {
+                    return false;
+                }
+                if (!physical.getAutoCommit()) {
+                    physical.rollback();
+                    physical.setAutoCommit(true);
+                }
+                return true;
+            } catch (SQLException e) {
+                return false;
+            }
+        }
+
+        void closePhysical() {
+            if (!open.compareAndSet(true, false)) {
+                return;
+            }
+            physicalCount.decrementAndGet();
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * One handle per borrow, so a second close() or use after close cannot touch a
+     * connection that has already been handed to someone else.
+     */
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private final List<Statement> statements = new ArrayList<>();
+
+        Handle(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (released.compareAndSet(false, true)) {
+                        closeStatements();
+                        giveBack(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return released.get() || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (released.get()) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            try {
+                Object result = method.invoke(pooled.physical, args);
+                if (result instanceof Statement) {
+                    synchronized (statements) {
+                        statements.add((Statement) result);
+                    }
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        private void closeStatements() {
+            synchronized (statements) {
+                for (Statement st : statements) {
+                    try {
+                        st.close();
+                    } catch (SQLException ignored) {
+                    }
+                }
+                statements.clear();
+            }
+        }
+    }
+}
@@ -0,0 +1,203 @@
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Login and signup against the {@code users} table with hashed passwords.
+ *
+ * Signup stores a {@link PasswordHasher} hash. Login verifies against whatever is
+ * stored and, when it is legacy plaintext or a hash below the current cost,
+ * transparently re-hashes and writes the stronger value back. Once a password has
+ * been verified in a session, {@link #reauthenticate} checks it with a keyed SHA-256
+ * digest instead of running PBKDF2 again. Every attempt first passes the
+ * {@link LoginThrottle}, so rejected and unknown-user attempts never reach MySQL.
+ */
+class CredentialService {
+
+    private static final int QUERY_TIMEOUT_SECONDS = 10;
+
+    private static final Metrics.Timer LOGIN_TIMER = Metrics.timer("auth.login");
+    private static final Metrics.Timer LOGIN_QUERY_TIMER = Metrics.timer("auth.loginQuery");
+    private static final Metrics.Timer SIGNUP_TIMER = Metrics.timer("auth.signup");
+    private static final Metrics.Timer SIGNUP_QUERY_TIMER = Metrics.timer("auth.signupQuery");
+    private static final Metrics.Counter LOGIN_REJECTED = Metrics.counter("auth.loginRejected");
+    private static final Metrics.Counter LOGIN_THROTTLED = Metrics.counter("auth.loginThrottled");
+
+    private static final String LOCAL_SOURCE = localSource();
+
+    private static final CredentialService SHARED =
+            new CredentialService(PasswordHasher.shared(), LoginThrottle.shared(), DBConnection::getConnection);
+
+    static CredentialService shared() {
+        return SHARED;
+    }
+
+    private final PasswordHasher hasher;
+    private final LoginThrottle throttle;
+    private final ConnectionPool.ConnectionFactory connections;
+
+    CredentialService(PasswordHasher hasher, LoginThrottle throttle, ConnectionPool.ConnectionFactory connections) {
+        this.hasher = hasher;
+        this.throttle = throttle;
+        this.connections = connections;
+    }
+
+    /** Login from this machine; see {@link #authenticate(String, char[], String)}. */
+    String authenticate(String username, char[] password)
+            throws SQLException, GeneralSecurityException, LoginThrottle.ThrottledException {
+        return authenticate(username, password, LOCAL_SOURCE);
+    }
+
+    /**
+     * Returns the user's role when the credentials match, otherwise null.
+     *
+     * @param source where the attempt comes from (host name or client address), for throttling
+     * @throws LoginThrottle.ThrottledException when the user or source is over its attempt rate
+     */
+    String authenticate(String username, char[] password, String source)
+            throws SQLException, GeneralSecurityException, LoginThrottle.ThrottledException {
+        long start = LOGIN_TIMER.start();
+        try {
+            String role = checkCredentials(username, password, source);
+            if (role == null) {
+                LOGIN_REJECTED.increment();
+            }
+            return role;
+        } catch (LoginThrottle.ThrottledException e) {
+            LOGIN_THROTTLED.increment();
+            throw e;
+        } finally {
+            LOGIN_TIMER.stop(start);
+        }
+    }
+
+    private String checkCredentials(String username, char[] password, String source)
+            throws SQLException, GeneralSecurityException, LoginThrottle.ThrottledException {
+        if (!throttle.admit(username, source)) {
+            return null;
+        }
+        String stored;
+        String role;
+        long queryStart = LOGIN_QUERY_TIMER.start();
+        try (Connection conn = connections.create()) {
+            String query = "SELECT password, role FROM users WHERE username=?";
+            PreparedStatement pst = conn.prepareStatement(query);
+            pst.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+            pst.setString(1, username);
+            ResultSet rs = pst.executeQuery();
+            if (!rs.next()) {
+                throttle.recordUnknownUser(username);
+                return null;
+            }
+            stored = rs.getString("password");
+            role = rs.getString("role");
+        } finally {
+            LOGIN_QUERY_TIMER.stop(queryStart);
+        }
+
+        if (!hasher.verify(password, stored)) {
+            return null;
+        }
+        throttle.recordSuccess(username);
+        if (hasher.needsUpgrade(stored)) {
+            upgradeHash(username, stored, password);
+        }
+        return role;
+    }
+
+    void register(String username, String email, char[] password, String role)
+            throws SQLException, GeneralSecurityException {
+        long start = SIGNUP_TIMER.start();
+        try {
+            String hash = hasher.hash(password);
+            long queryStart = SIGNUP_QUERY_TIMER.start();
+            try (Connection conn = connections.create()) {
+                String query = "INSERT INTO users(username, email, password, role) VALUES (?, ?, ?, ?)";
+                PreparedStatement pst = conn.prepareStatement(query);
+                pst.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+                pst.setString(1, username);
+                pst.setString(2, email);
+                pst.setString(3, hash);
+                pst.setString(4, role);
+                pst.executeUpdate();
+            } finally {
+                SIGNUP_QUERY_TIMER.stop(queryStart);
+            }
+        } finally {
+            SIGNUP_TIMER.stop(start);
+        }
+        throttle.forgetUnknownUser(username);
+    }
+
+    LoginThrottle.Stats throttleStats() {
+        return throttle.stats();
+    }
+
+    /** Remembers that {@code password} was verified for this session. */
+    void rememberVerified(SessionStore.Session session, char[] password) {
+        session.verifiedCredential = fingerprint(session, password);
+    }
+
+    /**
+     * Re-checks the password of an already logged-in user (e.g. before confirming a
+     * payment). Answers from the session's fingerprint when it matches; otherwise
+     * falls back to a full {@link #authenticate}.
+     */
+    boolean reauthenticate(SessionStore.Session session, char[] password)
+            throws SQLException, GeneralSecurityException, LoginThrottle.ThrottledException {
+        byte[] remembered = session.verifiedCredential;
+        if (remembered != null && MessageDigest.isEqual(remembered, fingerprint(session, password))) {
+            return true;
+        }
+        if (authenticate(session.username, password) == null) {
+            return false;
+        }
+        rememberVerified(session, password);
+        return true;
+    }
+
+    private void upgradeHash(String username, String previous, char[] password) {
+        try {
+            String upgraded = hasher.hash(password);
+            try (Connection conn = connections.create()) {
+                // Only replace the value we verified, in case the password changed meanwhile.
+                String query = "UPDATE users SET password=? WHERE username=? AND password=?";
+                PreparedStatement pst = conn.prepareStatement(query);
+                pst.setQueryTimeout(QUERY_TIMEOUT_SECONDS);
+                pst.setString(1, upgraded);
+                pst.setString(2, username);
+                pst.setString(3, previous);
+                pst.executeUpdate();
+            }
+        } catch (SQLException | GeneralSecurityException | RuntimeException e) {
+            // The login itself succeeded; the upgrade is retried on the next login.
+            System.err.println("Could not upgrade password hash for " + username + ": " + e.getMessage());
+        }
+    }
+
+    private static String localSource() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "localhost";
+        }
+    }
+
+    private static byte[] fingerprint(SessionStore.Session session, char[] password) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(session.credentialKey, "HmacSHA256"));
+            return mac.doFinal(new String(password).getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/** Entry point for database access; connections come from a shared {@link ConnectionPool}. */
+class DBConnection {
+    private static final String DB_URL = "jdbc:mysql://localhost:3306/turf_booking_db";
+    private static final String DB_USER = "root";
+    private static final String DB_PASS = "password";
+
+    private static final Metrics.Timer GET_CONNECTION = Metrics.timer("db.getConnection");
+
+    private static volatile ConnectionPool pool;
+
+    public static Connection getConnection() throws SQLException {
+        long start = GET_CONNECTION.start();
+        try {
+            return pool().borrow();
+        } finally {
+            GET_CONNECTION.stop(start);
+        }
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        ConnectionPool current = pool;
+        return current == null ? null : current.stats();
+    }
+
+    private static ConnectionPool pool() throws SQLException {
+        ConnectionPool current = pool;
+        if (current != null) {
+            return current;
+        }
+        synchronized (DBConnection.class) {
+            if (pool == null) {
+                try {
+                    Class.forName("com.mysql.cj.jdbc.Driver");
+                } catch (ClassNotFoundException e) {
+                    System.err.println("FATAL ERROR: MySQL JDBC Driver not found. Check your classpath!");
+                    throw new SQLException("MySQL JDBC Driver not found. Make sure your JDBC JAR is in the classpath.", e);
+                }
+                ConnectionPool created = new ConnectionPool(
+                        () -> DriverManager.getConnection(DB_URL, DB_USER, DB_PASS),
+                        ConnectionPool.Config.fromSystemProperties());
+                Runtime.getRuntime().addShutdownHook(new Thread(created::close, "db-pool-shutdown"));
+                pool = created;
+            }
+            return pool;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.text.JTextComponent;
+
+/**
+ * Search-as-you-type for a text field: once typing pauses for {@code turf.search.debounceMs}
+ * (150 ms) the query runs on a background thread, and its results reach the EDT only if
+ * no newer query has been issued meanwhile. Clearing the field reports an empty query
+ * straight away.
+ */
+class DebouncedSearch<T> {
+
+    private static final ExecutorService SEARCHER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "turf-search");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Metrics.Timer QUERY_TIMER = Metrics.timer("search.query");
+
+    private final JTextComponent field;
+    private final Function<String, List<T>> search;
+    private final BiConsumer<String, List<T>> onResults;
+    private final Timer debounce;
+    private int generation;
+
+    /**
+     * @param search runs off the EDT
+     * @param onResults receives the query and its results on the EDT; the query is empty
+     *        (with no results) when the field has been cleared
+     */
+    DebouncedSearch(JTextComponent field, Function<String, List<T>> search, BiConsumer<String, List<T>> onResults) {
+        this.field = field;
+        this.search = search;
+        this.onResults = onResults;
+        this.debounce = new Timer(Integer.getInteger("turf.search.debounceMs", 150), e -> runQuery());
+        this.debounce.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override public void insertUpdate(DocumentEvent e) { textChanged(); }
+            @Override public void removeUpdate(DocumentEvent e) { textChanged(); }
+            @Override public void changedUpdate(DocumentEvent e) { }
+        });
+    }
+
+    private void textChanged() {
+        debounce.restart();
+        // setText() and paste-over clear the field before inserting, so look once the edit is done.
+        SwingUtilities.invokeLater(() -> {
+            if (field.getText().trim().isEmpty() && debounce.isRunning()) {
+                debounce.stop();
+                generation++;
+                onResults.accept("", Collections.emptyList());
+            }
+        });
+    }
+
+    private void runQuery() {
+        String query = field.getText().trim();
+        int issued = ++generation;
+        SEARCHER.execute(() -> {
+            List<T> results;
+            long start = QUERY_TIMER.start();
+            try {
+                results = search.apply(query);
+            } catch (RuntimeException e) {
+                System.err.println("Search for '" + query + "' failed: " + e.getMessage());
+                e.printStackTrace();
+                results = Collections.emptyList();
+            } finally {
+                QUERY_TIMER.stop(start);
+            }
+            List<T> found = results;
+            SwingUtilities.invokeLater(() -> {
+                if (issued == generation) {
+                    onResults.accept(query, found);
+                }
+            });
+        });
+    }
+}
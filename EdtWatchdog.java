@@ -0,0 +1,236 @@
+import java.awt.AWTEvent;
+import java.awt.EventQueue;
+import java.awt.Toolkit;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opt-in detector for event dispatch thread stalls ({@code -Dturf.edt.watchdog=true}).
+ *
+ * A pushed {@link EventQueue} notes when each event starts dispatching. A daemon
+ * thread checks every {@code turf.edt.sampleMs} (10 ms); once the current event has
+ * run longer than {@code turf.edt.stallMs} (200 ms) it samples the EDT's stack until the
+ * event returns. Each stall is appended to {@code edt-stalls.log} with its duration,
+ * event and hottest frame, and all samples are aggregated into {@code edt-stalls.folded}
+ * (one {@code frame;frame;... count} line per stack, rooted at the event type), which
+ * flamegraph.pl and speedscope read directly. Reports go to {@code turf.edt.reportDir}
+ * (~/.turfhub/stalls).
+ *
+ * Time an event spends inside a nested event loop (a modal dialog) is not a stall: the
+ * EDT is idle there, and the events the nested loop dispatches are timed on their own.
+ */
+class EdtWatchdog {
+
+    private static boolean installed;
+
+    /** Installs the watchdog once per process if {@code turf.edt.watchdog} is set. */
+    static synchronized void installIfEnabled() {
+        if (installed || !Boolean.getBoolean("turf.edt.watchdog")) {
+            return;
+        }
+        Path dir = Paths.get(System.getProperty("turf.edt.reportDir",
+                System.getProperty("user.home") + File.separator + ".turfhub" + File.separator + "stalls"));
+        EdtWatchdog watchdog = new EdtWatchdog(Long.getLong("turf.edt.stallMs", 200),
+                Long.getLong("turf.edt.sampleMs", 10), dir);
+        watchdog.start();
+        installed = true;
+    }
+
+    /** One event being dispatched; samples are only touched by the monitor thread. */
+    private static final class Dispatch {
+        final AWTEvent event;
+        final Thread thread;
+        final long startNanos;
+        final long startMillis;
+        volatile boolean nested;
+        volatile long durationNanos;
+        final Map<String, Integer> samples = new HashMap<>();
+
+        Dispatch(AWTEvent event, Thread thread) {
+            this.event = event;
+            this.thread = thread;
+            this.startNanos = System.nanoTime();
+            this.startMillis = System.currentTimeMillis();
+        }
+
+        int sampleCount() {
+            int n = 0;
+            for (int c : samples.values()) {
+                n += c;
+            }
+            return n;
+        }
+    }
+
+    private final class MonitoredQueue extends EventQueue {
+        @Override
+        protected void dispatchEvent(AWTEvent event) {
+            Dispatch outer = current;
+            if (outer != null) {
+                outer.nested = true;
+            }
+            Dispatch dispatch = new Dispatch(event, Thread.currentThread());
+            current = dispatch;
+            try {
+                super.dispatchEvent(event);
+            } finally {
+                current = outer;
+                long took = System.nanoTime() - dispatch.startNanos;
+                if (took >= stallNanos) {
+                    dispatch.durationNanos = took;
+                    finished.add(dispatch);
+                }
+            }
+        }
+    }
+
+    private static final Metrics.Timer STALL_TIMER = Metrics.timer("ui.edt.stall");
+
+    private final long stallNanos;
+    private final long sampleMillis;
+    private final Path reportDir;
+    private final ConcurrentLinkedQueue<Dispatch> finished = new ConcurrentLinkedQueue<>();
+    private final Map<String, Long> folded = new HashMap<>();
+    private volatile Dispatch current;
+
+    EdtWatchdog(long stallMillis, long sampleMillis, Path reportDir) {
+        this.stallNanos = TimeUnit.MILLISECONDS.toNanos(stallMillis);
+        this.sampleMillis = Math.max(1, sampleMillis);
+        this.reportDir = reportDir;
+    }
+
+    void start() {
+        Toolkit.getDefaultToolkit().getSystemEventQueue().push(new MonitoredQueue());
+        Thread monitor = new Thread(this::monitorLoop, "edt-watchdog");
+        monitor.setDaemon(true);
+        monitor.start();
+    }
+
+    private void monitorLoop() {
+        while (true) {
+            try {
+                Thread.sleep(sampleMillis);
+                Dispatch dispatch = current;
+                if (dispatch != null && System.nanoTime() - dispatch.startNanos >= stallNanos) {
+                    sample(dispatch);
+                }
+                if (!finished.isEmpty()) {
+                    report();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                System.err.println("EDT watchdog error: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void sample(Dispatch dispatch) {
+        StackTraceElement[] stack = dispatch.thread.getStackTrace();
+        if (stack.length == 0 || dispatch != current) {
+            return;
+        }
+        // Frames from the event handler up, root first; stop at our own dispatchEvent.
+        List<String> frames = new ArrayList<>();
+        for (StackTraceElement frame : stack) {
+            if (frame.getClassName().equals(MonitoredQueue.class.getName())) {
+                break;
+            }
+            if (frame.getClassName().equals("java.awt.EventQueue") && frame.getMethodName().equals("getNextEvent")) {
+                return; // waiting in a nested event loop: idle, not stalled
+            }
+            frames.add(frameName(frame));
+        }
+        StringBuilder line = new StringBuilder(describe(dispatch.event));
+        for (int i = frames.size() - 1; i >= 0; i--) {
+            line.append(';').append(frames.get(i));
+        }
+        dispatch.samples.merge(line.toString(), 1, Integer::sum);
+    }
+
+    private void report() {
+        StringBuilder log = new StringBuilder();
+        Dispatch dispatch;
+        while ((dispatch = finished.poll()) != null) {
+            int sampleCount = dispatch.sampleCount();
+            if (dispatch.nested && sampleCount == 0) {
+                continue; // the time went to a modal dialog's nested loop
+            }
+            STALL_TIMER.record(dispatch.durationNanos);
+            String hottest = "-";
+            int hottestCount = 0;
+            for (Map.Entry<String, Integer> e : dispatch.samples.entrySet()) {
+                folded.merge(e.getKey(), (long) e.getValue(), Long::sum);
+                if (e.getValue() > hottestCount) {
+                    hottestCount = e.getValue();
+                    hottest = e.getKey().substring(e.getKey().lastIndexOf(';') + 1);
+                }
+            }
+            log.append(Instant.ofEpochMilli(dispatch.startMillis))
+                    .append(' ').append(TimeUnit.NANOSECONDS.toMillis(dispatch.durationNanos)).append(" ms ")
+                    .append(describe(dispatch.event))
+                    .append(" samples=").append(sampleCount)
+                    .append(" top=").append(hottest).append('\n');
+        }
+        if (log.length() == 0) {
+            return;
+        }
+        System.err.print("EDT stall: " + log);
+        try {
+            Files.createDirectories(reportDir);
+            try (Writer w = Files.newBufferedWriter(reportDir.resolve("edt-stalls.log"), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                w.write(log.toString());
+            }
+            writeFolded();
+        } catch (IOException e) {
+            System.err.println("Could not write EDT stall report to " + reportDir + ": " + e.getMessage());
+        }
+    }
+
+    /** Rewrites the aggregate folded-stack file; counts are samples of {@code sampleMillis} each. */
+    private void writeFolded() throws IOException {
+        Path target = reportDir.resolve("edt-stalls.folded");
+        Path tmp = reportDir.resolve("edt-stalls.folded.tmp");
+        try (Writer w = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> e : folded.entrySet()) {
+                w.write(e.getKey() + " " + e.getValue() + "\n");
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** {@code Class.method}, with per-run lambda class suffixes dropped so runs aggregate. */
+    private static String frameName(StackTraceElement frame) {
+        String className = frame.getClassName();
+        int lambda = className.indexOf("$$Lambda$");
+        if (lambda >= 0) {
+            className = className.substring(0, lambda) + "$$Lambda";
+        }
+        return className + "." + frame.getMethodName();
+    }
+
+    private static String describe(AWTEvent event) {
+        Object source = event.getSource();
+        String name = event.getClass().getSimpleName();
+        if (source != null) {
+            name += "@" + source.getClass().getSimpleName();
+        }
+        return name.isEmpty() ? event.getClass().getName() : name.replace(' ', '_');
+    }
+}
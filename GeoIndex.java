@@ -0,0 +1,357 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory spatial index of points keyed by a caller-chosen ID, answering "k nearest"
+ * and "within radius" queries with optional category and maximum-price filters.
+ *
+ * Points are bucketed into a grid of {@code cellDegrees} square cells held in a hash map,
+ * so only occupied cells cost memory and an update touches a single cell. A nearest
+ * query visits rings of cells around the query point and stops once no cell further out
+ * can beat the k-th best distance; a radius query visits the cells of the bounding box.
+ * When a ring or box would span more cells than are occupied (sparse data, huge radius),
+ * the occupied cells are scanned instead. Distances are great-circle kilometres.
+ *
+ * Thread-safe; updates and queries are serialized on the index.
+ */
+class GeoIndex<T> {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    /** One query result. */
+    static final class Hit<T> {
+        final T value;
+        final double distanceKm;
+
+        Hit(T value, double distanceKm) {
+            this.value = value;
+            this.distanceKm = distanceKm;
+        }
+    }
+
+    private static final class Entry<T> {
+        final String key;
+        final T value;
+        final double lat;
+        final double lon;
+        final String category;
+        final double price;
+        final long cell;
+
+        Entry(String key, T value, double lat, double lon, String category, double price, long cell) {
+            this.key = key;
+            this.value = value;
+            this.lat = lat;
+            this.lon = lon;
+            this.category = category;
+            this.price = price;
+            this.cell = cell;
+        }
+
+        boolean matches(String wantedCategory, double maxPrice) {
+            return (wantedCategory == null || wantedCategory.equals(category)) && price <= maxPrice;
+        }
+    }
+
+    private static final Comparator<Hit<?>> NEAREST_FIRST = Comparator.comparingDouble(h -> h.distanceKm);
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Map<Long, List<Entry<T>>> cells = new HashMap<>();
+    private final Map<String, Entry<T>> byKey = new HashMap<>();
+
+    GeoIndex() {
+        this(Double.parseDouble(System.getProperty("turf.geo.cellDegrees", "0.05")));
+    }
+
+    GeoIndex(double cellDegrees) {
+        if (!(cellDegrees > 0 && cellDegrees <= 90)) {
+            throw new IllegalArgumentException("Cell size must be in (0, 90] degrees: " + cellDegrees);
+        }
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /** Adds or replaces the point under {@code key}; a null category matches only unfiltered queries. */
+    synchronized void put(String key, T value, double lat, double lon, String category, double price) {
+        if (!validCoordinates(lat, lon)) {
+            throw new IllegalArgumentException("Invalid coordinates " + lat + "," + lon);
+        }
+        removeLocked(key);
+        long cell = cellKey(row(lat), column(lon));
+        Entry<T> entry = new Entry<>(key, value, lat, lon, category, price, cell);
+        cells.computeIfAbsent(cell, c -> new ArrayList<>()).add(entry);
+        byKey.put(key, entry);
+    }
+
+    synchronized boolean remove(String key) {
+        return removeLocked(key);
+    }
+
+    synchronized int size() {
+        return byKey.size();
+    }
+
+    /**
+     * The {@code k} nearest points to ({@code lat}, {@code lon}), nearest first, in
+     * {@code category} (any if null) and priced at most {@code maxPrice}.
+     */
+    synchronized List<Hit<T>> nearest(double lat, double lon, int k, String category, double maxPrice) {
+        if (k <= 0 || byKey.isEmpty()) {
+            return Collections.emptyList();
+        }
+        // Max-heap on distance holding the best k so far.
+        PriorityQueue<Hit<T>> best = new PriorityQueue<>(k + 1, NEAREST_FIRST.reversed());
+        int row = row(lat);
+        int column = column(lon);
+        for (int ring = 0; ; ring++) {
+            // Past the point where the rings so far cost more than a scan, scan the rest.
+            if ((long) (2 * ring + 1) * (2 * ring + 1) > cells.size()) {
+                scanOccupied(lat, lon, k, category, maxPrice, best, ring);
+                break;
+            }
+            for (long cell : ringCells(row, column, ring)) {
+                List<Entry<T>> entries = cells.get(cell);
+                if (entries != null) {
+                    offerAll(entries, lat, lon, k, category, maxPrice, best);
+                }
+            }
+            if (best.size() == k && outsideBlockKm(lat, lon, row, column, ring) > best.peek().distanceKm) {
+                break;
+            }
+            if (ring >= rows && ring >= columns / 2) {
+                break; // the whole globe has been covered
+            }
+        }
+        List<Hit<T>> result = new ArrayList<>(best);
+        result.sort(NEAREST_FIRST);
+        return result;
+    }
+
+    /**
+     * Every point within {@code radiusKm} of ({@code lat}, {@code lon}), nearest first,
+     * filtered as in {@link #nearest}; at most {@code limit} results.
+     */
+    synchronized List<Hit<T>> within(double lat, double lon, double radiusKm, String category, double maxPrice,
+                                     int limit) {
+        List<Hit<T>> result = new ArrayList<>();
+        if (limit <= 0 || radiusKm < 0 || byKey.isEmpty()) {
+            return result;
+        }
+        double radiusDegrees = Math.toDegrees(radiusKm / EARTH_RADIUS_KM);
+        int minRow = row(Math.max(-90, lat - radiusDegrees));
+        int maxRow = row(Math.min(90, lat + radiusDegrees));
+        // Widest longitude span is at the box edge nearest a pole.
+        double edgeLat = Math.min(89.9999, Math.abs(lat) + radiusDegrees);
+        double lonSpan = radiusDegrees / Math.cos(Math.toRadians(edgeLat));
+        int columnReach = lonSpan >= 180 ? columns : (int) Math.ceil(lonSpan / cellDegrees) + 1;
+        int spanColumns = Math.min(columns, 2 * columnReach + 1);
+        long boxCells = (long) (maxRow - minRow + 1) * spanColumns;
+
+        if (boxCells > cells.size()) {
+            for (List<Entry<T>> entries : cells.values()) {
+                collectWithin(entries, lat, lon, radiusKm, category, maxPrice, result);
+            }
+        } else {
+            int center = column(lon);
+            for (int r = minRow; r <= maxRow; r++) {
+                for (int i = 0; i < spanColumns; i++) {
+                    int c = spanColumns == columns ? i : wrapColumn(center - columnReach + i);
+                    List<Entry<T>> entries = cells.get(cellKey(r, c));
+                    if (entries != null) {
+                        collectWithin(entries, lat, lon, radiusKm, category, maxPrice, result);
+                    }
+                }
+            }
+        }
+        result.sort(NEAREST_FIRST);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /** Great-circle distance in kilometres (haversine). */
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    static boolean validCoordinates(double lat, double lon) {
+        return lat >= -90 && lat <= 90 && lon >= -180 && lon <= 180;
+    }
+
+    private boolean removeLocked(String key) {
+        Entry<T> old = byKey.remove(key);
+        if (old == null) {
+            return false;
+        }
+        List<Entry<T>> entries = cells.get(old.cell);
+        entries.remove(old);
+        if (entries.isEmpty()) {
+            cells.remove(old.cell);
+        }
+        return true;
+    }
+
+    private void offerAll(List<Entry<T>> entries, double lat, double lon, int k, String category, double maxPrice,
+                          PriorityQueue<Hit<T>> best) {
+        for (Entry<T> e : entries) {
+            if (!e.matches(category, maxPrice)) {
+                continue;
+            }
+            double d = distanceKm(lat, lon, e.lat, e.lon);
+            if (best.size() < k) {
+                best.add(new Hit<>(e.value, d));
+            } else if (d < best.peek().distanceKm) {
+                best.poll();
+                best.add(new Hit<>(e.value, d));
+            }
+        }
+    }
+
+    private void collectWithin(List<Entry<T>> entries, double lat, double lon, double radiusKm, String category,
+                               double maxPrice, List<Hit<T>> result) {
+        for (Entry<T> e : entries) {
+            if (e.matches(category, maxPrice)) {
+                double d = distanceKm(lat, lon, e.lat, e.lon);
+                if (d <= radiusKm) {
+                    result.add(new Hit<>(e.value, d));
+                }
+            }
+        }
+    }
+
+    /** Finishes a nearest query over the occupied cells not yet visited, closest cells first. */
+    private void scanOccupied(double lat, double lon, int k, String category, double maxPrice,
+                              PriorityQueue<Hit<T>> best, int visitedRings) {
+        int row = row(lat);
+        int column = column(lon);
+        List<long[]> pending = new ArrayList<>();
+        for (long cell : cells.keySet()) {
+            int r = (int) (cell >> 32);
+            int c = (int) cell;
+            int ringOf = Math.max(Math.abs(r - row), Math.min(Math.abs(c - column), columns - Math.abs(c - column)));
+            if (ringOf >= visitedRings) {
+                pending.add(new long[] {cell, Double.doubleToLongBits(cellLowerBoundKm(lat, lon, r, c))});
+            }
+        }
+        pending.sort(Comparator.comparingDouble(p -> Double.longBitsToDouble(p[1])));
+        for (long[] p : pending) {
+            if (best.size() == k && Double.longBitsToDouble(p[1]) > best.peek().distanceKm) {
+                break;
+            }
+            offerAll(cells.get(p[0]), lat, lon, k, category, maxPrice, best);
+        }
+    }
+
+    /** Distinct cells at Chebyshev distance {@code ring} from the centre cell, clipped at the poles. */
+    private List<Long> ringCells(int row, int column, int ring) {
+        List<Long> out = new ArrayList<>();
+        if (ring == 0) {
+            out.add(cellKey(row, column));
+            return out;
+        }
+        boolean fullWidth = 2 * ring + 1 >= columns;
+        for (int dr = -ring; dr <= ring; dr++) {
+            int r = row + dr;
+            if (r < 0 || r >= rows) {
+                continue;
+            }
+            if (Math.abs(dr) == ring) {
+                for (int i = 0; i < Math.min(columns, 2 * ring + 1); i++) {
+                    out.add(cellKey(r, fullWidth ? i : wrapColumn(column - ring + i)));
+                }
+            } else if (2 * ring - 1 < columns) {
+                // Once the rings wrap round the globe the two sides may be one column.
+                int west = wrapColumn(column - ring);
+                int east = wrapColumn(column + ring);
+                out.add(cellKey(r, west));
+                if (east != west) {
+                    out.add(cellKey(r, east));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Lower bound on the distance from the query point to anything outside the block of
+     * cells within {@code ring} of its own: the nearest of the block's four edges.
+     */
+    private double outsideBlockKm(double lat, double lon, int row, int column, int ring) {
+        double south = (row - ring) * cellDegrees - 90;
+        double north = (row + ring + 1) * cellDegrees - 90;
+        double west = (column - ring) * cellDegrees - 180;
+        double east = (column + ring + 1) * cellDegrees - 180;
+        double bound = Double.POSITIVE_INFINITY;
+        if (south > -90) {
+            bound = Math.min(bound, lat - south);
+        }
+        if (north < 90) {
+            bound = Math.min(bound, north - lat);
+        }
+        if (2 * ring + 1 < columns) {
+            bound = Math.min(bound, meridianDegrees(lat, lon - west));
+            bound = Math.min(bound, meridianDegrees(lat, east - lon));
+        }
+        return Math.toRadians(bound) * EARTH_RADIUS_KM;
+    }
+
+    /** Lower bound on the distance from the query point to any point of cell ({@code r}, {@code c}). */
+    private double cellLowerBoundKm(double lat, double lon, int r, int c) {
+        double south = r * cellDegrees - 90;
+        double north = south + cellDegrees;
+        double latGap = lat < south ? south - lat : lat > north ? lat - north : 0;
+        double west = c * cellDegrees - 180;
+        double east = west + cellDegrees;
+        double lonGap = 0;
+        if (lon < west || lon > east) {
+            double cellToEast = normalizeDegrees(west - lon);
+            double cellToWest = normalizeDegrees(lon - east);
+            lonGap = Math.min(cellToEast, cellToWest);
+        }
+        return Math.toRadians(Math.max(latGap, meridianDegrees(lat, lonGap))) * EARTH_RADIUS_KM;
+    }
+
+    /**
+     * Angular distance from latitude {@code lat} to a meridian {@code lonGap} degrees
+     * away; a lower bound for any point beyond that meridian while the gap is under 90.
+     */
+    private static double meridianDegrees(double lat, double lonGap) {
+        if (lonGap <= 0 || lonGap >= 90) {
+            return 0;
+        }
+        double s = Math.sin(Math.toRadians(lonGap)) * Math.cos(Math.toRadians(lat));
+        return Math.toDegrees(Math.asin(Math.min(1, s)));
+    }
+
+    /** {@code degrees} eastwards folded into [0, 360). */
+    private static double normalizeDegrees(double degrees) {
+        double d = degrees % 360;
+        return d < 0 ? d + 360 : d;
+    }
+
+    private int row(double lat) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((lat + 90) / cellDegrees)));
+    }
+
+    private int column(double lon) {
+        return wrapColumn((int) Math.floor((lon + 180) / cellDegrees));
+    }
+
+    private int wrapColumn(int column) {
+        return Math.floorMod(column, columns);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | (column & 0xffffffffL);
+    }
+}
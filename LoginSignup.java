@@ -1,5 +1,12 @@
 import java.awt.*;
+import java.awt.event.KeyEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.sql.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
@@ -10,6 +17,9 @@ public class LoginSignup extends JFrame {
     private JComboBox<String> roleBox;
     private JLabel emailLabel, roleLabel;
     private boolean isLoginMode = true;
+    private AuthExecutor.Request pendingRequest;
+
+    private static final long AUTH_TIMEOUT_MS = Long.getLong("turf.auth.timeoutMs", 15_000);
 
     public LoginSignup() {
         setTitle("Turf Booking - Login / Signup");
@@ -115,6 +125,16 @@ public class LoginSignup extends JFrame {
         loginBtn.addActionListener(e -> loginUser());
         signupBtn.addActionListener(e -> signupUser());
 
+        // Escape or closing the window abandons a request that is still waiting on the database.
+        getRootPane().registerKeyboardAction(e -> cancelPendingRequest(),
+                KeyStroke.getKeyStroke(KeyEvent.VK_ESCAPE, 0), JComponent.WHEN_IN_FOCUSED_WINDOW);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancelPendingRequest();
+            }
+        });
+
         setVisible(true);
     }
 
@@ -138,22 +158,34 @@ public class LoginSignup extends JFrame {
             return;
         }
 
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "SELECT * FROM users WHERE username=? AND password=?";
-            PreparedStatement pst = conn.prepareStatement(query);
-            pst.setString(1, username);
-            pst.setString(2, password);
-            ResultSet rs = pst.executeQuery();
-
-            if (rs.next()) {
-                JOptionPane.showMessageDialog(this, "Login Successful! Welcome " + username);
-                dispose();
-            } else {
-                JOptionPane.showMessageDialog(this, "Invalid credentials!");
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "A database error occurred during login.");
-            ex.printStackTrace();
+        setBusy(true);
+        pendingRequest = AuthExecutor.shared().submit("login:" + username, AUTH_TIMEOUT_MS,
+                () -> RemoteTurfClient.isEnabled()
+                        ? RemoteTurfClient.shared().login(username, password.toCharArray())
+                        : CredentialService.shared().authenticate(username, password.toCharArray()),
+                role -> {
+                    setBusy(false);
+                    if (role != null) {
+                        SessionStore.Session session = SessionManager.login(username, role);
+                        CredentialService.shared().rememberVerified(session, password.toCharArray());
+                        JOptionPane.showMessageDialog(this, "Login Successful! Welcome " + username);
+                        dispose();
+                        openHome(username, role);
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Invalid credentials!");
+                    }
+                },
+                error -> {
+                    setBusy(false);
+                    showRequestError(error, "A database error occurred during login.");
+                });
+    }
+
+    private void openHome(String username, String role) {
+        if ("Turf Owner".equals(role)) {
+            new TurfOwnerDashboard(username).setVisible(true);
+        } else {
+            new TurfHub();
         }
     }
 
@@ -168,47 +200,77 @@ public class LoginSignup extends JFrame {
             return;
         }
 
-        try (Connection conn = DBConnection.getConnection()) {
-            String query = "INSERT INTO users(username, email, password, role) VALUES (?, ?, ?, ?)";
-            PreparedStatement pst = conn.prepareStatement(query);
-            pst.setString(1, username);
-            pst.setString(2, email);
-            pst.setString(3, password);
-            pst.setString(4, role);
-            pst.executeUpdate();
-
-            JOptionPane.showMessageDialog(this, "Signup Successful! You can now login.");
-            toggleMode();
-            usernameField.setText("");
-            emailField.setText("");
-            passwordField.setText("");
-            
-        } catch (SQLIntegrityConstraintViolationException e) {
-            JOptionPane.showMessageDialog(this, "Username already exists!");
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "A database error occurred during signup.");
-            ex.printStackTrace();
+        setBusy(true);
+        pendingRequest = AuthExecutor.shared().submit("signup:" + username, AUTH_TIMEOUT_MS,
+                () -> {
+                    if (RemoteTurfClient.isEnabled()) {
+                        RemoteTurfClient.shared().signup(username, email, password.toCharArray(), role);
+                    } else {
+                        CredentialService.shared().register(username, email, password.toCharArray(), role);
+                    }
+                    return Boolean.TRUE;
+                },
+                ok -> {
+                    setBusy(false);
+                    JOptionPane.showMessageDialog(this, "Signup Successful! You can now login.");
+                    toggleMode();
+                    usernameField.setText("");
+                    emailField.setText("");
+                    passwordField.setText("");
+                },
+                error -> {
+                    setBusy(false);
+                    if (error instanceof SQLIntegrityConstraintViolationException) {
+                        JOptionPane.showMessageDialog(this, "Username already exists!");
+                    } else {
+                        showRequestError(error, "A database error occurred during signup.");
+                    }
+                });
+    }
+
+    private void setBusy(boolean busy) {
+        loginBtn.setEnabled(!busy);
+        signupBtn.setEnabled(!busy);
+        switchBtn.setEnabled(!busy);
+        setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : Cursor.getDefaultCursor());
+        if (!busy) {
+            pendingRequest = null;
         }
     }
 
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> new LoginSignup());
+    private void cancelPendingRequest() {
+        if (pendingRequest != null && !pendingRequest.isDone()) {
+            pendingRequest.cancel();
+        }
     }
-}
 
-// Ensure your non-public DBConnection class is present below this public class in the same file.
-class DBConnection {
-    private static final String DB_URL = "jdbc:mysql://localhost:3306/turf_booking_db";
-    private static final String DB_USER = "root";
-    private static final String DB_PASS = "password";
-
-    public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-        } catch (ClassNotFoundException e) {
-            System.err.println("FATAL ERROR: MySQL JDBC Driver not found. Check your classpath!");
-            throw new SQLException("MySQL JDBC Driver not found. Make sure your JDBC JAR is in the classpath.", e);
+    private void showRequestError(Throwable error, String dbMessage) {
+        if (error instanceof CancellationException) {
+            return;
         }
-        return DriverManager.getConnection(DB_URL, DB_USER, DB_PASS);
+        if (error instanceof TimeoutException) {
+            JOptionPane.showMessageDialog(this, "The server is taking too long to respond. Please try again.");
+            return;
+        }
+        if (error instanceof RejectedExecutionException) {
+            JOptionPane.showMessageDialog(this, error.getMessage());
+            return;
+        }
+        if (error instanceof IOException) {
+            JOptionPane.showMessageDialog(this, "Could not reach the booking server: " + error.getMessage());
+            return;
+        }
+        if (error instanceof LoginThrottle.ThrottledException) {
+            long seconds = Math.max(1, (((LoginThrottle.ThrottledException) error).retryAfterMillis() + 999) / 1000);
+            JOptionPane.showMessageDialog(this, error.getMessage() + " Please try again in " + seconds + " seconds.");
+            return;
+        }
+        JOptionPane.showMessageDialog(this, dbMessage);
+        error.printStackTrace();
+    }
+
+    public static void main(String[] args) {
+        EdtWatchdog.installIfEnabled();
+        SwingUtilities.invokeLater(() -> new LoginSignup());
     }
 }
@@ -0,0 +1,227 @@
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Admission control in front of the login query.
+ *
+ * Every attempt must take a token from both a per-username and a per-source bucket;
+ * usernames recently found not to exist are answered from a short-lived negative
+ * cache. That cache is keyed on the exact string that was looked up, so a miss for
+ * "ALICE" or "alice " never locks out "alice". Either way a rejected attempt costs no database round trip and no password
+ * hash, so the load on {@code users} stays bounded by the refill rates no matter how
+ * fast the login screen (or a credential-stuffing script) submits.
+ */
+class LoginThrottle {
+
+    static final class ThrottledException extends Exception {
+        private final long retryAfterMillis;
+
+        ThrottledException(String message, long retryAfterMillis) {
+            super(message);
+            this.retryAfterMillis = retryAfterMillis;
+        }
+
+        long retryAfterMillis() {
+            return retryAfterMillis;
+        }
+    }
+
+    static final class Stats {
+        public final long forwarded;
+        public final long rejectedByUser;
+        public final long rejectedBySource;
+        public final long negativeCacheHits;
+
+        Stats(long forwarded, long rejectedByUser, long rejectedBySource, long negativeCacheHits) {
+            this.forwarded = forwarded;
+            this.rejectedByUser = rejectedByUser;
+            this.rejectedBySource = rejectedBySource;
+            this.negativeCacheHits = negativeCacheHits;
+        }
+
+        public long rejected() {
+            return rejectedByUser + rejectedBySource + negativeCacheHits;
+        }
+
+        @Override
+        public String toString() {
+            return "forwarded=" + forwarded + " rejected=" + rejected() + " (user=" + rejectedByUser
+                    + " source=" + rejectedBySource + " unknownUser=" + negativeCacheHits + ")";
+        }
+    }
+
+    private static final class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucket(double capacity, double refillPerSecond, long now) {
+            this.capacity = capacity;
+            this.refillPerNano = refillPerSecond / 1e9;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        /** Takes a token, or returns how many nanos until one is available. */
+        synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / refillPerNano);
+        }
+
+        synchronized void giveBack(long now) {
+            refill(now);
+            tokens = Math.min(capacity, tokens + 1);
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+
+    private static final LoginThrottle SHARED = new LoginThrottle(
+            Integer.getInteger("turf.login.userBurst", 5),
+            Double.parseDouble(System.getProperty("turf.login.userPerMinute", "6")) / 60.0,
+            Integer.getInteger("turf.login.sourceBurst", 20),
+            Double.parseDouble(System.getProperty("turf.login.sourcePerSecond", "2")),
+            Long.getLong("turf.login.unknownUserTtlMs", 60_000),
+            Integer.getInteger("turf.login.maxTracked", 100_000));
+
+    static LoginThrottle shared() {
+        return SHARED;
+    }
+
+    private final int userBurst;
+    private final double userPerSecond;
+    private final int sourceBurst;
+    private final double sourcePerSecond;
+    private final long unknownUserTtlNanos;
+    private final int maxTracked;
+
+    private final Map<String, TokenBucket> userBuckets = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> sourceBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Long> unknownUsers = new ConcurrentHashMap<>();
+
+    private final AtomicLong forwarded = new AtomicLong();
+    private final AtomicLong rejectedByUser = new AtomicLong();
+    private final AtomicLong rejectedBySource = new AtomicLong();
+    private final AtomicLong negativeCacheHits = new AtomicLong();
+
+    LoginThrottle(int userBurst, double userPerSecond, int sourceBurst, double sourcePerSecond,
+                  long unknownUserTtlMillis, int maxTracked) {
+        this.userBurst = userBurst;
+        this.userPerSecond = userPerSecond;
+        this.sourceBurst = sourceBurst;
+        this.sourcePerSecond = sourcePerSecond;
+        this.unknownUserTtlNanos = unknownUserTtlMillis * 1_000_000L;
+        this.maxTracked = maxTracked;
+    }
+
+    /**
+     * Admits one login attempt or throws. Returns normally when the caller should go
+     * on to the database; an unknown-user hit is reported as a plain false.
+     *
+     * @return false when the username is known not to exist (treat as invalid credentials)
+     */
+    boolean admit(String username, String source) throws ThrottledException {
+        long now = System.nanoTime();
+        String user = normalize(username);
+        String queried = exact(username);
+
+        Long unknownUntil = unknownUsers.get(queried);
+        if (unknownUntil != null) {
+            if (unknownUntil - now > 0) {
+                negativeCacheHits.incrementAndGet();
+                return false;
+            }
+            unknownUsers.remove(queried, unknownUntil);
+        }
+
+        TokenBucket sourceBucket = bucket(sourceBuckets, source, sourceBurst, sourcePerSecond, now);
+        long wait = sourceBucket.tryTake(now);
+        if (wait > 0) {
+            rejectedBySource.incrementAndGet();
+            throw new ThrottledException("Too many login attempts from this device.", wait / 1_000_000L);
+        }
+        TokenBucket userBucket = bucket(userBuckets, user, userBurst, userPerSecond, now);
+        wait = userBucket.tryTake(now);
+        if (wait > 0) {
+            sourceBucket.giveBack(now);
+            rejectedByUser.incrementAndGet();
+            throw new ThrottledException("Too many login attempts for this account.", wait / 1_000_000L);
+        }
+        forwarded.incrementAndGet();
+        return true;
+    }
+
+    /** The database found no user for exactly this username. */
+    void recordUnknownUser(String username) {
+        if (unknownUsers.size() >= maxTracked) {
+            purgeExpiredUnknown(System.nanoTime());
+        }
+        if (unknownUsers.size() < maxTracked) {
+            unknownUsers.put(exact(username), System.nanoTime() + unknownUserTtlNanos);
+        }
+    }
+
+    /** A login succeeded: the account's failed attempts no longer count against it. */
+    void recordSuccess(String username) {
+        userBuckets.remove(normalize(username));
+    }
+
+    /**
+     * The username now exists (e.g. just signed up). Spellings differing in case or
+     * spacing are forgotten too, as the database's collation may match them.
+     */
+    void forgetUnknownUser(String username) {
+        String user = normalize(username);
+        unknownUsers.keySet().removeIf(queried -> normalize(queried).equals(user));
+    }
+
+    Stats stats() {
+        return new Stats(forwarded.get(), rejectedByUser.get(), rejectedBySource.get(), negativeCacheHits.get());
+    }
+
+    private TokenBucket bucket(Map<String, TokenBucket> buckets, String key, int burst, double perSecond, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxTracked) {
+            // A full bucket behaves exactly like a new one, so dropping it loses nothing.
+            buckets.values().removeIf(b -> b.isFull(now));
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(burst, perSecond, now));
+    }
+
+    private void purgeExpiredUnknown(long now) {
+        Iterator<Map.Entry<String, Long>> it = unknownUsers.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getValue() - now <= 0) {
+                it.remove();
+            }
+        }
+    }
+
+    /** Key for the per-account bucket, so case and spacing variants share one budget. */
+    private static String normalize(String username) {
+        return username == null ? "" : username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String exact(String username) {
+        return username == null ? "" : username;
+    }
+}
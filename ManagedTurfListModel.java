@@ -0,0 +1,75 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.swing.AbstractListModel;
+
+/**
+ * The turfs an owner manages, in registration order, as an observable list model.
+ *
+ * Every change fires a {@link javax.swing.event.ListDataEvent} naming just the rows it
+ * touched, so views patch those rows instead of rebuilding the whole list. Like other
+ * Swing models it is only used on the EDT.
+ */
+class ManagedTurfListModel extends AbstractListModel<TurfOwnerDashboard.Turf> {
+
+    private final List<TurfOwnerDashboard.Turf> turfs = new ArrayList<>();
+
+    @Override
+    public int getSize() {
+        return turfs.size();
+    }
+
+    @Override
+    public TurfOwnerDashboard.Turf getElementAt(int index) {
+        return turfs.get(index);
+    }
+
+    void add(TurfOwnerDashboard.Turf turf) {
+        if (indexOf(turf.id) >= 0) {
+            throw new IllegalArgumentException("Turf " + turf.id + " is already managed");
+        }
+        turfs.add(turf);
+        fireIntervalAdded(this, turfs.size() - 1, turfs.size() - 1);
+    }
+
+    /** Replaces the turf with the same ID; returns false if there is none. */
+    boolean update(TurfOwnerDashboard.Turf turf) {
+        int index = indexOf(turf.id);
+        if (index < 0) {
+            return false;
+        }
+        turfs.set(index, turf);
+        fireContentsChanged(this, index, index);
+        return true;
+    }
+
+    /** Removes and returns the turf with this ID, or null if there is none. */
+    TurfOwnerDashboard.Turf remove(String turfId) {
+        int index = indexOf(turfId);
+        if (index < 0) {
+            return null;
+        }
+        TurfOwnerDashboard.Turf removed = turfs.remove(index);
+        fireIntervalRemoved(this, index, index);
+        return removed;
+    }
+
+    TurfOwnerDashboard.Turf find(String turfId) {
+        int index = indexOf(turfId);
+        return index < 0 ? null : turfs.get(index);
+    }
+
+    int indexOf(String turfId) {
+        for (int i = 0; i < turfs.size(); i++) {
+            if (turfs.get(i).id.equals(turfId)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Read-only view of the current turfs. */
+    List<TurfOwnerDashboard.Turf> asList() {
+        return Collections.unmodifiableList(turfs);
+    }
+}
@@ -0,0 +1,354 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Process-wide latency timers and counters for DB, auth and UI operations.
+ *
+ * Timers keep a log-linear histogram (about 3% relative error, 1 ns to ~18 min) in
+ * lock-free counters, so recording from any thread costs a couple of atomic adds.
+ * Each timer and counter is published over JMX under {@code turfhub:type=...}, and a
+ * daemon thread appends per-interval p50/p99/p999 lines to a log file.
+ *
+ * With {@code -Dturf.metrics.enabled=false} timers neither read the clock nor record,
+ * and nothing is registered or exported.
+ *
+ * Typical use:
+ * <pre>
+ *   long start = TIMER.start();
+ *   try { ... } finally { TIMER.stop(start); }
+ * </pre>
+ */
+class Metrics {
+
+    static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("turf.metrics.enabled", "true"));
+
+    private static final Map<String, Timer> TIMERS = new ConcurrentHashMap<>();
+    private static final Map<String, Counter> COUNTERS = new ConcurrentHashMap<>();
+    private static final boolean JMX = ENABLED && Boolean.parseBoolean(System.getProperty("turf.metrics.jmx", "true"));
+
+    static {
+        if (ENABLED) {
+            startExporter();
+        }
+    }
+
+    private Metrics() {
+    }
+
+    static Timer timer(String name) {
+        return TIMERS.computeIfAbsent(name, n -> {
+            Timer timer = new Timer(n);
+            register("Timer", n, timer);
+            return timer;
+        });
+    }
+
+    static Counter counter(String name) {
+        return COUNTERS.computeIfAbsent(name, n -> {
+            Counter counter = new Counter();
+            register("Counter", n, counter);
+            return counter;
+        });
+    }
+
+    /** Cumulative summary of every timer and counter, one per line, sorted by name. */
+    static String report() {
+        StringBuilder out = new StringBuilder();
+        for (Map.Entry<String, Timer> e : new TreeMap<>(TIMERS).entrySet()) {
+            out.append(e.getKey()).append(' ').append(e.getValue().snapshot()).append('\n');
+        }
+        for (Map.Entry<String, Counter> e : new TreeMap<>(COUNTERS).entrySet()) {
+            out.append(e.getKey()).append(" count=").append(e.getValue().get()).append('\n');
+        }
+        return out.toString();
+    }
+
+    // --- Timer -------------------------------------------------------------------------
+
+    public interface TimerMXBean {
+        long getCount();
+        double getMeanMillis();
+        double getP50Millis();
+        double getP99Millis();
+        double getP999Millis();
+        double getMaxMillis();
+    }
+
+    static final class Timer implements TimerMXBean {
+        final String name;
+        private final AtomicLongArray buckets = new AtomicLongArray(Histogram.BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        Timer(String name) {
+            this.name = name;
+        }
+
+        /** Start token for {@link #stop}; 0 when metrics are disabled. */
+        long start() {
+            return ENABLED ? System.nanoTime() : 0L;
+        }
+
+        void stop(long start) {
+            if (start != 0L) {
+                record(System.nanoTime() - start);
+            }
+        }
+
+        void record(long nanos) {
+            if (!ENABLED) {
+                return;
+            }
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            buckets.incrementAndGet(Histogram.indexOf(nanos));
+            count.increment();
+            totalNanos.add(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        Histogram snapshot() {
+            long[] counts = new long[Histogram.BUCKETS];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+            }
+            return new Histogram(counts, totalNanos.sum(), maxNanos.get());
+        }
+
+        @Override public long getCount() { return count.sum(); }
+        @Override public double getMeanMillis() { return snapshot().mean() / 1e6; }
+        @Override public double getP50Millis() { return snapshot().percentile(0.50) / 1e6; }
+        @Override public double getP99Millis() { return snapshot().percentile(0.99) / 1e6; }
+        @Override public double getP999Millis() { return snapshot().percentile(0.999) / 1e6; }
+        @Override public double getMaxMillis() { return maxNanos.get() / 1e6; }
+    }
+
+    // --- Counter -----------------------------------------------------------------------
+
+    public interface CounterMXBean {
+        long getCount();
+    }
+
+    static final class Counter implements CounterMXBean {
+        private final LongAdder value = new LongAdder();
+
+        void increment() {
+            if (ENABLED) {
+                value.increment();
+            }
+        }
+
+        void add(long n) {
+            if (ENABLED) {
+                value.add(n);
+            }
+        }
+
+        long get() {
+            return value.sum();
+        }
+
+        @Override public long getCount() { return value.sum(); }
+    }
+
+    // --- Histogram ---------------------------------------------------------------------
+
+    /**
+     * Immutable histogram snapshot. Values below 64 ns get exact buckets; above that each
+     * power of two is split into 32 linear sub-buckets.
+     */
+    static final class Histogram {
+        private static final int SUB_BITS = 5;
+        private static final int SUB_COUNT = 1 << SUB_BITS;
+        private static final int MAX_EXPONENT = 40;
+        static final int BUCKETS = (MAX_EXPONENT - SUB_BITS + 1) * SUB_COUNT + SUB_COUNT;
+
+        final long[] counts;
+        final long count;
+        final long totalNanos;
+        final long maxNanos;
+
+        Histogram(long[] counts, long totalNanos, long maxNanos) {
+            this.counts = counts;
+            long n = 0;
+            for (long c : counts) {
+                n += c;
+            }
+            this.count = n;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        static int indexOf(long value) {
+            if (value < 2 * SUB_COUNT) {
+                return (int) value;
+            }
+            int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+            int shift = exponent - SUB_BITS;
+            long top = Math.min(value >>> shift, 2 * SUB_COUNT - 1);
+            return shift * SUB_COUNT + (int) top;
+        }
+
+        /** Largest value that falls into bucket {@code index}. */
+        static long highestValueOf(int index) {
+            if (index < 2 * SUB_COUNT) {
+                return index;
+            }
+            int shift = index / SUB_COUNT - 1;
+            long top = index % SUB_COUNT + SUB_COUNT;
+            return ((top + 1) << shift) - 1;
+        }
+
+        /** Counts recorded since {@code earlier}, a snapshot of the same timer. */
+        Histogram since(Histogram earlier) {
+            long[] delta = new long[counts.length];
+            for (int i = 0; i < delta.length; i++) {
+                delta[i] = counts[i] - earlier.counts[i];
+            }
+            // The maximum is not windowed; report the highest populated bucket instead.
+            long max = 0;
+            for (int i = delta.length - 1; i >= 0; i--) {
+                if (delta[i] > 0) {
+                    max = Math.min(highestValueOf(i), maxNanos);
+                    break;
+                }
+            }
+            return new Histogram(delta, totalNanos - earlier.totalNanos, max);
+        }
+
+        double mean() {
+            return count == 0 ? 0.0 : (double) totalNanos / count;
+        }
+
+        /** Value at quantile {@code q} (0..1) in nanoseconds, within the bucket resolution. */
+        long percentile(double q) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(q * count));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(highestValueOf(i), maxNanos);
+                }
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.3fms p50=%.3fms p99=%.3fms p999=%.3fms max=%.3fms",
+                    count, mean() / 1e6, percentile(0.50) / 1e6, percentile(0.99) / 1e6,
+                    percentile(0.999) / 1e6, maxNanos / 1e6);
+        }
+    }
+
+    // --- Publishing --------------------------------------------------------------------
+
+    private static void register(String type, String name, Object bean) {
+        if (!JMX) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(bean, new ObjectName("turfhub:type=" + type + ",name=" + ObjectName.quote(name)));
+        } catch (JMException | RuntimeException e) {
+            System.err.println("Could not register metric " + name + " with JMX: " + e.getMessage());
+        }
+    }
+
+    private static void startExporter() {
+        long intervalSeconds = Long.getLong("turf.metrics.exportSeconds", 60);
+        if (intervalSeconds <= 0) {
+            return;
+        }
+        String target = System.getProperty("turf.metrics.file",
+                System.getProperty("user.home") + File.separator + ".turfhub" + File.separator + "metrics.log");
+        Exporter exporter = new Exporter(target);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-exporter");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(exporter::export, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(exporter::export, "metrics-final-export"));
+    }
+
+    /** Appends the activity of each timer since the previous export; "stderr" logs to System.err. */
+    private static final class Exporter {
+        private final String target;
+        private final Map<String, Histogram> previous = new ConcurrentHashMap<>();
+        private final Map<String, Long> previousCounts = new ConcurrentHashMap<>();
+
+        Exporter(String target) {
+            this.target = target;
+        }
+
+        synchronized void export() {
+            StringBuilder out = new StringBuilder();
+            String now = Instant.now().toString();
+            for (Map.Entry<String, Timer> e : new TreeMap<>(TIMERS).entrySet()) {
+                Histogram current = e.getValue().snapshot();
+                Histogram last = previous.put(e.getKey(), current);
+                Histogram interval = last == null ? current : current.since(last);
+                if (interval.count > 0) {
+                    out.append(now).append(' ').append(e.getKey()).append(' ').append(interval).append('\n');
+                }
+            }
+            for (Map.Entry<String, Counter> e : new TreeMap<>(COUNTERS).entrySet()) {
+                long current = e.getValue().get();
+                Long last = previousCounts.put(e.getKey(), current);
+                long delta = current - (last == null ? 0 : last);
+                if (delta > 0) {
+                    out.append(now).append(' ').append(e.getKey()).append(" count=").append(delta)
+                            .append(" total=").append(current).append('\n');
+                }
+            }
+            if (out.length() == 0) {
+                return;
+            }
+            if ("stderr".equals(target)) {
+                System.err.print(out);
+                return;
+            }
+            try {
+                Path file = Paths.get(target);
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                try (Writer w = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    w.write(out.toString());
+                }
+            } catch (IOException e) {
+                System.err.println("Could not write metrics to " + target + ": " + e.getMessage());
+            }
+        }
+    }
+}
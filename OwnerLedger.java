@@ -0,0 +1,424 @@
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One owner's partition of the console data: their turfs and bookings with the
+ * aggregates, rollups and journal behind them. Partitions are created, loaded and
+ * evicted by {@link OwnerLedgers}; every open dashboard of the owner reads the same
+ * partition and hears about changes through {@link #events()}, so a booking made in
+ * one window or through {@link SlotReservationService} shows up in the others.
+ *
+ * Methods are synchronized on the partition, so owners never contend with each
+ * other; events are published under the lock, in sequence order. The journal compacts
+ * itself in the background, taking the lock only to copy the state.
+ */
+class OwnerLedger {
+
+    /**
+     * Live bookings and income of one turf, as of {@link #sequence}. Every occurrence
+     * of its weekly bookings counts, as each was booked when the rule was made.
+     */
+    static final class Totals {
+        final int bookings;
+        final long incomePaise;
+        final long sequence;
+
+        Totals(int bookings, long incomePaise, long sequence) {
+            this.bookings = bookings;
+            this.incomePaise = incomePaise;
+            this.sequence = sequence;
+        }
+
+        double income() {
+            return incomePaise / 100.0;
+        }
+    }
+
+    private final String owner;
+    private final OwnerLedgers ledgers;
+    private BookingJournal journal;
+    private boolean loaded;
+    private final BookingEventBus events = new BookingEventBus();
+    private final Map<String, TurfOwnerDashboard.Turf> turfs = new LinkedHashMap<>();
+    private final BookingColumnStore bookings = new BookingColumnStore();
+    private final BookingAggregateIndex aggregates = new BookingAggregateIndex(bookings);
+    private final RevenueRollups revenueRollups =
+            new RevenueRollups(bookings, RevenueRollups.Rules.fromSystemProperties());
+    private final Map<Long, RecurringBooking> recurring = new LinkedHashMap<>();
+    private final Map<String, List<RecurringBooking>> recurringByTurf = new HashMap<>();
+    private long sequence;
+    // Journal position of the last append; guarded by "this".
+    private long lastAppend = -1;
+
+    OwnerLedger(String owner, OwnerLedgers ledgers) {
+        this.owner = owner;
+        this.ledgers = ledgers;
+    }
+
+    String owner() {
+        return owner;
+    }
+
+    BookingEventBus events() {
+        return events;
+    }
+
+    /**
+     * Opens the partition's journal and restores its turfs and bookings; only the first
+     * call does anything. The shared console's partition seeds the demo data on first run.
+     */
+    synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        for (TurfOwnerDashboard.Turf turf : ledgers.turfsOf(owner)) {
+            turfs.put(turf.id, turf);
+        }
+        journal = ledgers.journalFor(owner);
+        if (journal != null) {
+            BookingJournal opened = journal;
+            opened.compactInBackground(() -> {
+                synchronized (this) {
+                    return opened.state(new ArrayList<>(turfs.values()), bookings.snapshot(),
+                            new ArrayList<>(recurring.values()));
+                }
+            });
+        }
+        if (journal == null || !journal.hasData()) {
+            if (ledgers.seedsDemoData(owner)) {
+                initializeMockData();
+            }
+            return;
+        }
+        try {
+            journal.replay(new BookingJournal.Replayer() {
+                @Override
+                public void turfAdded(TurfOwnerDashboard.Turf turf) {
+                    turfs.put(turf.id, turf);
+                    ledgers.turfLoaded(turf);
+                }
+
+                @Override
+                public void bookingAdded(String turfId, long costPaise, long bookedAt) {
+                    bookings.append(turfId, costPaise, bookedAt);
+                }
+
+                @Override
+                public void bookingCancelled(int row) {
+                    bookings.cancel(row);
+                }
+
+                @Override
+                public void recurringAdded(RecurringBooking rule) {
+                    storeRecurring(rule);
+                    ledgers.noteRecurringId(rule.id);
+                    int catalogId = TurfOwnerDashboard.catalogId(rule.turfId);
+                    if (catalogId >= 0) {
+                        SlotAvailability.shared().restoreRecurring(catalogId, rule);
+                    }
+                }
+
+                @Override
+                public void recurringCancelled(long ruleId) {
+                    RecurringBooking rule = dropRecurring(ruleId);
+                    int catalogId = rule == null ? -1 : TurfOwnerDashboard.catalogId(rule.turfId);
+                    if (catalogId >= 0) {
+                        SlotAvailability.shared().removeRecurring(catalogId, ruleId);
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not fully replay the booking journal of " + describe() + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+        aggregates.rebuild();
+        revenueRollups.recompute();
+    }
+
+    /** Closes the journal once {@link OwnerLedgers} has dropped the partition. */
+    synchronized void unload() {
+        if (journal != null) {
+            journal.close();
+        }
+        journal = null;
+    }
+
+    private String describe() {
+        return owner.isEmpty() ? "the shared console" : "owner " + owner;
+    }
+
+    private void initializeMockData() {
+        registerTurf(new TurfOwnerDashboard.Turf("TA001", "Ground Zero Turf", "City Park", 1500.00, "Football",
+                TurfOwnerDashboard.DEFAULT_OPERATING_HOURS, 9.9894, 76.2875));
+        registerTurf(new TurfOwnerDashboard.Turf("TB002", "Champions Arena", "Main Road", 2000.00, "Football",
+                TurfOwnerDashboard.DEFAULT_OPERATING_HOURS, 10.0261, 76.3125));
+        registerTurf(new TurfOwnerDashboard.Turf("TC003", "Sunset Pitch", "Riverside", 1000.00, "Football",
+                TurfOwnerDashboard.DEFAULT_OPERATING_HOURS, 9.9658, 76.2421));
+
+        addBooking(new TurfOwnerDashboard.Booking("TA001", 1500.00));
+        addBooking(new TurfOwnerDashboard.Booking("TA001", 750.00));
+        addBooking(new TurfOwnerDashboard.Booking("TB002", 800.00));
+        addBooking(new TurfOwnerDashboard.Booking("TA001", 2250.00));
+        addBooking(new TurfOwnerDashboard.Booking("TC003", 1000.00));
+        addBooking(new TurfOwnerDashboard.Booking("TB002", 600.00));
+    }
+
+    // --- Turfs ----------------------------------------------------------------------------
+
+    synchronized List<TurfOwnerDashboard.Turf> turfs() {
+        return new ArrayList<>(turfs.values());
+    }
+
+    synchronized TurfOwnerDashboard.Turf turf(String turfId) {
+        return turfs.get(turfId);
+    }
+
+    /** Creates a turf under the next console ID and lists it in the catalog. */
+    synchronized TurfOwnerDashboard.Turf addTurf(String name, String location, double rate, String category,
+                                                 String hours, double latitude, double longitude) {
+        TurfOwnerDashboard.Turf turf = new TurfOwnerDashboard.Turf("T" + ledgers.nextTurfId(), name, location, rate,
+                category, hours, latitude, longitude, owner);
+        registerTurf(turf);
+        ledgers.turfAdded(turf);
+        return turf;
+    }
+
+    private void registerTurf(TurfOwnerDashboard.Turf turf) {
+        turfs.put(turf.id, turf);
+        if (journal != null) {
+            journal.turfAdded(turf);
+        }
+        events.publish(new BookingEventBus.Event(BookingEventBus.Type.TURF_ADDED, ++sequence, turf.id, turf, 0, 0));
+    }
+
+    // --- Bookings -------------------------------------------------------------------------
+
+    /** Records a booking and returns its row number, which serves as the booking ID. */
+    synchronized int addBooking(TurfOwnerDashboard.Booking booking) {
+        int row = bookings.append(booking);
+        long paise = BookingAggregateIndex.toPaise(booking.totalCost);
+        aggregates.onBookingAdded(booking);
+        revenueRollups.onBookingAdded(row, booking.turfId, paise, booking.bookedAt);
+        if (journal != null) {
+            lastAppend = journal.bookingAdded(booking.turfId, paise, booking.bookedAt);
+        }
+        publishTotals(BookingEventBus.Type.BOOKING_CREATED, booking.turfId);
+        return row;
+    }
+
+    synchronized boolean cancelBooking(int bookingRow) {
+        TurfOwnerDashboard.Booking booking = bookings.get(bookingRow);
+        if (booking == null || !bookings.cancel(bookingRow)) {
+            return false;
+        }
+        aggregates.onBookingCancelled(booking);
+        revenueRollups.onBookingCancelled(bookingRow, booking.turfId,
+                BookingAggregateIndex.toPaise(booking.totalCost), booking.bookedAt);
+        if (journal != null) {
+            journal.bookingCancelled(bookingRow);
+        }
+        publishTotals(BookingEventBus.Type.BOOKING_CANCELLED, booking.turfId);
+        return true;
+    }
+
+    /**
+     * Records a confirmed reservation and returns once it is on disk, so the customer is
+     * not told it is confirmed before it would survive a power loss.
+     */
+    void onReservationConfirmed(String turfId, SlotReservationService.Reservation reservation) {
+        BookingJournal written;
+        long position;
+        synchronized (this) {
+            if (!turfs.containsKey(turfId)) {
+                return;
+            }
+            addBooking(new TurfOwnerDashboard.Booking(turfId, reservation.totalCost, reservation.confirmedAt));
+            written = journal;
+            position = lastAppend;
+        }
+        if (written != null) {
+            try {
+                // Outside the lock, so other writers keep appending into the same flush.
+                written.awaitDurable(position);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void publishTotals(BookingEventBus.Type type, String turfId) {
+        Totals totals = totals(turfId);
+        events.publish(new BookingEventBus.Event(type, ++sequence, turfId, null, totals.bookings, totals.incomePaise));
+    }
+
+    // --- Weekly bookings --------------------------------------------------------------------
+
+    /**
+     * Books {@code slotCount} slots from {@code startSlot} on every {@code dayOfWeek} from
+     * {@code from} to {@code until}, skipping {@code except}, as one rule.
+     *
+     * @throws IllegalArgumentException if the turf is unknown, the slots fall outside its
+     *                                  operating hours or no occurrence is left
+     * @throws IllegalStateException    if an occurrence clashes with another weekly
+     *                                  booking or an already booked slot
+     */
+    synchronized RecurringBooking addRecurring(String turfId, String customer, DayOfWeek dayOfWeek,
+                                               int startSlot, int slotCount, LocalDate from, LocalDate until,
+                                               Collection<LocalDate> except, long costPaise) {
+        TurfOwnerDashboard.Turf turf = turfs.get(turfId);
+        if (turf == null) {
+            throw new IllegalArgumentException("Unknown turf " + turfId);
+        }
+        RecurringBooking rule = RecurringBooking.weekly(ledgers.nextRecurringId(), turfId, customer, dayOfWeek,
+                startSlot, slotCount, from, until, except, costPaise);
+        long[] open = SlotAvailability.parseOperatingHours(turf.operatingHours);
+        if ((SlotAvailability.rangeMask(startSlot, slotCount, 0) & ~open[0]) != 0
+                || (SlotAvailability.rangeMask(startSlot, slotCount, 1) & ~open[1]) != 0) {
+            throw new IllegalArgumentException(turf.name + " is only open " + turf.operatingHours + ".");
+        }
+        for (RecurringBooking other : recurringByTurf.getOrDefault(turfId, Collections.emptyList())) {
+            long day = rule.firstCommonDay(other);
+            if (day != Long.MIN_VALUE) {
+                throw new IllegalStateException("Clashes with the weekly booking for " + other.customer
+                        + " on " + LocalDate.ofEpochDay(day) + ".");
+            }
+        }
+        int catalogId = TurfOwnerDashboard.catalogId(turfId);
+        if (catalogId >= 0) {
+            LocalDate taken = SlotAvailability.shared().addRecurring(catalogId, rule);
+            if (taken != null) {
+                throw new IllegalStateException("Those slots are already booked on " + taken + ".");
+            }
+        }
+        storeRecurring(rule);
+        if (journal != null) {
+            journal.recurringAdded(rule);
+        }
+        ledgers.recurringAdded(owner, rule);
+        publishTotals(BookingEventBus.Type.BOOKING_CREATED, turfId);
+        return rule;
+    }
+
+    /** Cancels a weekly booking with all its occurrences; false if there is no such rule. */
+    synchronized boolean cancelRecurring(long ruleId) {
+        RecurringBooking rule = dropRecurring(ruleId);
+        if (rule == null) {
+            return false;
+        }
+        int catalogId = TurfOwnerDashboard.catalogId(rule.turfId);
+        if (catalogId >= 0) {
+            SlotAvailability.shared().removeRecurring(catalogId, ruleId);
+        }
+        if (journal != null) {
+            journal.recurringCancelled(ruleId);
+        }
+        ledgers.recurringCancelled(owner, ruleId);
+        publishTotals(BookingEventBus.Type.BOOKING_CANCELLED, rule.turfId);
+        return true;
+    }
+
+    synchronized List<RecurringBooking> recurring(String turfId) {
+        return new ArrayList<>(recurringByTurf.getOrDefault(turfId, Collections.emptyList()));
+    }
+
+    private void storeRecurring(RecurringBooking rule) {
+        recurring.put(rule.id, rule);
+        recurringByTurf.computeIfAbsent(rule.turfId, id -> new ArrayList<>()).add(rule);
+    }
+
+    private RecurringBooking dropRecurring(long ruleId) {
+        RecurringBooking rule = recurring.remove(ruleId);
+        if (rule != null) {
+            recurringByTurf.get(rule.turfId).remove(rule);
+        }
+        return rule;
+    }
+
+    // --- Reads ----------------------------------------------------------------------------
+
+    synchronized Totals totals(String turfId) {
+        BookingAggregateIndex.TurfAggregate stats = aggregates.get(turfId);
+        int count = stats.count;
+        long paise = stats.incomePaise;
+        for (RecurringBooking rule : recurringByTurf.getOrDefault(turfId, Collections.emptyList())) {
+            int occurrences = rule.totalOccurrences();
+            count += occurrences;
+            paise += occurrences * rule.costPaise;
+        }
+        return new Totals(count, paise, sequence);
+    }
+
+    /** The last {@code buckets} buckets of the given size, ending with the current one. */
+    synchronized List<RevenueRollups.Point> revenueSeries(String turfId, RevenueRollups.Granularity granularity,
+                                                          int buckets) {
+        long now = System.currentTimeMillis();
+        long start = now;
+        for (int i = 1; i < buckets; i++) {
+            start = revenueRollups.bucketStart(granularity, revenueRollups.bucketStart(granularity, start) - 1);
+        }
+        List<RevenueRollups.Point> points =
+                revenueRollups.series(turfId, granularity, revenueRollups.bucketStart(granularity, start), now + 1);
+        List<RecurringBooking> rules = recurringByTurf.getOrDefault(turfId, Collections.emptyList());
+        if (rules.isEmpty()) {
+            return points;
+        }
+        // Weekly bookings count in the bucket where each session starts, counted per bucket.
+        ZoneId zone = revenueRollups.rules().zone;
+        List<RevenueRollups.Point> out = new ArrayList<>(points.size());
+        for (RevenueRollups.Point p : points) {
+            int count = p.bookings;
+            long paise = p.revenuePaise;
+            for (RecurringBooking rule : rules) {
+                LocalTime at = SlotAvailability.slotToTime(rule.startSlot);
+                int occurrences = rule.occurrencesBetween(firstDayStartingAtOrAfter(p.startMillis, at, zone),
+                        firstDayStartingAtOrAfter(p.endMillis, at, zone));
+                count += occurrences;
+                paise += occurrences * rule.costPaise;
+            }
+            out.add(new RevenueRollups.Point(p.startMillis, p.endMillis, count, paise));
+        }
+        return out;
+    }
+
+    /** The first epoch day whose {@code at} in {@code zone} is not before {@code millis}. */
+    private static long firstDayStartingAtOrAfter(long millis, LocalTime at, ZoneId zone) {
+        LocalDateTime local = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+        long day = local.toLocalDate().toEpochDay();
+        return local.toLocalTime().isAfter(at) ? day + 1 : day;
+    }
+
+    /** Re-checks the incremental aggregates against the raw bookings, rebuilding on drift. */
+    synchronized List<String> verifyAggregates() {
+        return aggregates.verifyAndRepair();
+    }
+
+    /** Per-turf booking count and income, in the order the turfs were added. */
+    synchronized List<Object> aggregatesJson() {
+        List<Object> out = new ArrayList<>(turfs.size());
+        for (TurfOwnerDashboard.Turf turf : turfs.values()) {
+            Totals totals = totals(turf.id);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("turfId", turf.id);
+            row.put("name", turf.name);
+            row.put("category", turf.category);
+            row.put("bookings", totals.bookings);
+            row.put("income", totals.income());
+            row.put("weeklyBookings", recurringByTurf.getOrDefault(turf.id, Collections.emptyList()).size());
+            out.add(row);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,347 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * The owner console's data, partitioned by owner. Each {@link OwnerLedger} holds one
+ * owner's turfs and bookings with its own lock, aggregates and journal, so an owner's
+ * console only reads and writes its own shard and owners never contend.
+ *
+ * Partitions are loaded on first {@link #acquire} and pinned until {@link #release};
+ * beyond {@code turf.ledger.maxResident} the least recently used unpinned ones are
+ * evicted and reload from their journal when next needed. A small directory journal
+ * maps every owner turf to its owner, so confirmations can be routed and the turfs
+ * listed in the catalog without loading the partitions.
+ *
+ * The shared console (no owner, as in the standalone dashboard) keeps using the
+ * original journal and is always resident.
+ */
+class OwnerLedgers {
+
+    private static final Metrics.Counter LOADS = Metrics.counter("ledger.partitionLoads");
+    private static final Metrics.Counter EVICTIONS = Metrics.counter("ledger.partitionEvictions");
+
+    private static OwnerLedgers shared;
+
+    /**
+     * Partitions under {@link BookingJournal#directory()}, kept in memory only when the
+     * journal is disabled. Follows reservation confirmations for the whole process.
+     */
+    static synchronized OwnerLedgers shared() {
+        if (shared == null) {
+            BookingJournal legacy = BookingJournal.shared();
+            OwnerLedgers ledgers = new OwnerLedgers(legacy, legacy == null ? null : BookingJournal.directory(), true);
+            SlotReservationService.shared().addConfirmationListener(ledgers::onReservationConfirmed);
+            shared = ledgers;
+        }
+        return shared;
+    }
+
+    private static final class Resident {
+        final OwnerLedger ledger;
+        int pins;
+
+        Resident(OwnerLedger ledger) {
+            this.ledger = ledger;
+        }
+    }
+
+    private final BookingJournal legacyJournal;
+    private final Path partitionDir;
+    private final boolean seedDemoData;
+    private final int maxResident = Math.max(1, Integer.getInteger("turf.ledger.maxResident", 64));
+    private final long regionSize = Integer.getInteger("turf.ledger.regionMb", 4) * 1024L * 1024L;
+    private final BookingJournal directory;
+    // Access-ordered for eviction; guarded by "this".
+    private final Map<String, Resident> resident = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, String> turfOwners = new ConcurrentHashMap<>();
+    private final Map<String, List<TurfOwnerDashboard.Turf>> turfsByOwner = new ConcurrentHashMap<>();
+    private final AtomicInteger nextTurfId = new AtomicInteger(1004);
+    private final AtomicLong nextRecurringId = new AtomicLong(1);
+    // Weekly bookings of owner turfs, so slots stay blocked while their partition is not loaded.
+    private final Map<Long, RecurringBooking> directoryRules = new ConcurrentHashMap<>();
+
+    /**
+     * @param legacyJournal journal of the shared console, or null
+     * @param dir           where the directory and per-owner journals go, or null to keep
+     *                      owner partitions in memory (and never evict them)
+     * @param seedDemoData  whether an empty shared console starts with the demo turfs
+     */
+    OwnerLedgers(BookingJournal legacyJournal, Path dir, boolean seedDemoData) {
+        this.legacyJournal = legacyJournal;
+        this.partitionDir = dir == null ? null : dir.resolve("owners");
+        this.seedDemoData = seedDemoData;
+        this.directory = openDirectory();
+        loadDirectory();
+        if (directory != null) {
+            directory.compactInBackground(() -> {
+                synchronized (directory) {
+                    return directory.state(allDirectoryTurfs(), new BookingColumnStore().snapshot(),
+                            new ArrayList<>(directoryRules.values()));
+                }
+            });
+        }
+        // The shared console is loaded up front, as before partitioning, and never evicted.
+        acquire("");
+    }
+
+    private BookingJournal openDirectory() {
+        if (partitionDir == null) {
+            return null;
+        }
+        try {
+            BookingJournal journal = BookingJournal.open(partitionDir.resolve("directory"), regionSize);
+            Runtime.getRuntime().addShutdownHook(new Thread(this::closeAll, "ledger-shutdown"));
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Owner directory unavailable, owner turfs will not be saved: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void loadDirectory() {
+        if (directory == null || !directory.hasData()) {
+            return;
+        }
+        try {
+            directory.replay(new BookingJournal.Replayer() {
+                @Override
+                public void turfAdded(TurfOwnerDashboard.Turf turf) {
+                    route(turf);
+                }
+
+                @Override
+                public void bookingAdded(String turfId, long costPaise, long bookedAt) {
+                }
+
+                @Override
+                public void bookingCancelled(int row) {
+                }
+
+                @Override
+                public void recurringAdded(RecurringBooking rule) {
+                    directoryRules.put(rule.id, rule);
+                    noteRecurringId(rule.id);
+                    int catalogId = TurfOwnerDashboard.catalogId(rule.turfId);
+                    if (catalogId >= 0) {
+                        SlotAvailability.shared().restoreRecurring(catalogId, rule);
+                    }
+                }
+
+                @Override
+                public void recurringCancelled(long ruleId) {
+                    RecurringBooking rule = directoryRules.remove(ruleId);
+                    int catalogId = rule == null ? -1 : TurfOwnerDashboard.catalogId(rule.turfId);
+                    if (catalogId >= 0) {
+                        SlotAvailability.shared().removeRecurring(catalogId, ruleId);
+                    }
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not fully replay the owner directory: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // --- Partitions -----------------------------------------------------------------------
+
+    /** The owner's partition, loaded if needed and pinned until {@link #release}. */
+    OwnerLedger acquire(String owner) {
+        String key = owner == null ? "" : owner;
+        Resident entry;
+        synchronized (this) {
+            entry = resident.get(key);
+            if (entry == null) {
+                entry = new Resident(new OwnerLedger(key, this));
+                resident.put(key, entry);
+            }
+            entry.pins++;
+        }
+        // Loading replays a journal; it holds only the partition's own lock.
+        entry.ledger.load();
+        evictIdle();
+        return entry.ledger;
+    }
+
+    synchronized void release(OwnerLedger ledger) {
+        Resident entry = resident.get(ledger.owner());
+        if (entry != null && entry.ledger == ledger && entry.pins > 0) {
+            entry.pins--;
+        }
+    }
+
+    synchronized int residentCount() {
+        return resident.size();
+    }
+
+    private synchronized void evictIdle() {
+        if (partitionDir == null || resident.size() <= maxResident) {
+            return;
+        }
+        for (Iterator<Resident> it = resident.values().iterator(); it.hasNext() && resident.size() > maxResident; ) {
+            Resident entry = it.next();
+            if (entry.pins == 0 && !entry.ledger.owner().isEmpty()) {
+                it.remove();
+                // Under the registry lock so a reload cannot open the journal before it is closed.
+                entry.ledger.unload();
+                EVICTIONS.increment();
+            }
+        }
+    }
+
+    private synchronized void closeAll() {
+        for (Resident entry : resident.values()) {
+            if (!entry.ledger.owner().isEmpty()) {
+                entry.ledger.unload();
+            }
+        }
+        if (directory != null) {
+            directory.close();
+        }
+    }
+
+    /** Routes a confirmed reservation to the partition of the turf's owner, if it is an owner turf. */
+    void onReservationConfirmed(SlotReservationService.Reservation reservation) {
+        String turfId = "T" + reservation.turf.getId();
+        String owner = turfOwners.get(turfId);
+        if (owner == null) {
+            return;
+        }
+        OwnerLedger ledger = acquire(owner);
+        try {
+            ledger.onReservationConfirmed(turfId, reservation);
+        } finally {
+            release(ledger);
+        }
+    }
+
+    // --- Called by partitions ---------------------------------------------------------------
+
+    /** Turfs the directory knows for the owner; the shared console's are in its own journal. */
+    List<TurfOwnerDashboard.Turf> turfsOf(String owner) {
+        List<TurfOwnerDashboard.Turf> turfs = turfsByOwner.get(owner);
+        return turfs == null ? Collections.emptyList() : new ArrayList<>(turfs);
+    }
+
+    /** Opens the partition's journal; null when partitions are kept in memory. */
+    BookingJournal journalFor(String owner) {
+        if (owner.isEmpty()) {
+            return legacyJournal;
+        }
+        if (partitionDir == null) {
+            return null;
+        }
+        LOADS.increment();
+        try {
+            return BookingJournal.open(partitionDir.resolve(directoryName(owner)), regionSize);
+        } catch (IOException e) {
+            System.err.println("Journal of owner " + owner + " unavailable, changes will not be saved: "
+                    + e.getMessage());
+            return null;
+        }
+    }
+
+    boolean seedsDemoData(String owner) {
+        return seedDemoData && owner.isEmpty();
+    }
+
+    int nextTurfId() {
+        return nextTurfId.getAndIncrement();
+    }
+
+    long nextRecurringId() {
+        return nextRecurringId.getAndIncrement();
+    }
+
+    /** Keeps new weekly booking IDs above one replayed from a journal. */
+    void noteRecurringId(long id) {
+        nextRecurringId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /** A turf replayed from a partition's journal. */
+    void turfLoaded(TurfOwnerDashboard.Turf turf) {
+        if (!turfOwners.containsKey(turf.id)) {
+            route(turf);
+        }
+    }
+
+    /** A turf just created in a partition: recorded in the directory and listed in the catalog. */
+    void turfAdded(TurfOwnerDashboard.Turf turf) {
+        if (directory != null && !turf.owner.isEmpty()) {
+            // Together under the directory's lock, so a compaction sees both or neither.
+            synchronized (directory) {
+                route(turf);
+                directory.turfAdded(turf);
+            }
+        } else {
+            route(turf);
+        }
+    }
+
+    /** A weekly booking made in an owner's partition, recorded so its slots survive eviction. */
+    void recurringAdded(String owner, RecurringBooking rule) {
+        if (directory != null && !owner.isEmpty()) {
+            synchronized (directory) {
+                directoryRules.put(rule.id, rule);
+                directory.recurringAdded(rule);
+            }
+        }
+    }
+
+    void recurringCancelled(String owner, long ruleId) {
+        if (directory != null && !owner.isEmpty()) {
+            synchronized (directory) {
+                if (directoryRules.remove(ruleId) != null) {
+                    directory.recurringCancelled(ruleId);
+                }
+            }
+        }
+    }
+
+    private List<TurfOwnerDashboard.Turf> allDirectoryTurfs() {
+        List<TurfOwnerDashboard.Turf> all = new ArrayList<>();
+        for (List<TurfOwnerDashboard.Turf> turfs : turfsByOwner.values()) {
+            all.addAll(turfs);
+        }
+        return all;
+    }
+
+    /**
+     * Remembers the turf's owner and lists it in TurfHub under its numeric ID. Listing
+     * invalidates only that category's cached page and updates the indexes in place.
+     */
+    private void route(TurfOwnerDashboard.Turf turf) {
+        turfOwners.put(turf.id, turf.owner);
+        if (!turf.owner.isEmpty()) {
+            turfsByOwner.computeIfAbsent(turf.owner, o -> new CopyOnWriteArrayList<>()).add(turf);
+        }
+        TurfModel listing = TurfOwnerDashboard.catalogEntry(turf);
+        if (listing != null) {
+            nextTurfId.accumulateAndGet(listing.getId() + 1, Math::max);
+            TurfCatalog.listTurf(listing);
+        }
+    }
+
+    /** Directory of the owner's journal: the name made file-system safe, plus a checksum to keep look-alikes apart. */
+    static String directoryName(String owner) {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < owner.length() && out.length() < 32; i++) {
+            char c = owner.charAt(i);
+            out.append(Character.isLetterOrDigit(c) && c < 128 ? c : '_');
+        }
+        CRC32 crc = new CRC32();
+        crc.update(owner.getBytes(StandardCharsets.UTF_8));
+        return out.append('-').append(Long.toHexString(crc.getValue())).toString();
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import javax.swing.AbstractListModel;
+import javax.swing.SwingUtilities;
+
+/**
+ * List model that pulls turfs from a {@link PageLoader} one page at a time as the
+ * list scrolls toward the end of what has been loaded.
+ *
+ * Pages are fetched on a single background thread and appended on the EDT, so the
+ * list only ever lays out the rows in view while the model grows behind it.
+ */
+class PagedTurfListModel extends AbstractListModel<TurfModel> {
+
+    interface PageLoader {
+        /** Returns up to {@code limit} turfs starting at {@code offset}; fewer means no more. */
+        List<TurfModel> load(String category, int offset, int limit) throws Exception;
+    }
+
+    private static final ExecutorService LOADER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "turf-page-loader");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final PageLoader loader;
+    private final String category;
+    private final int pageSize;
+    private final List<TurfModel> rows = new ArrayList<>();
+    private final Consumer<List<TurfModel>> onPageLoaded;
+    private boolean loading;
+    private boolean exhausted;
+    private int generation;
+
+    PagedTurfListModel(PageLoader loader, String category, int pageSize, Consumer<List<TurfModel>> onPageLoaded) {
+        this.loader = loader;
+        this.category = category;
+        this.pageSize = pageSize;
+        this.onPageLoaded = onPageLoaded;
+    }
+
+    @Override
+    public int getSize() {
+        return rows.size();
+    }
+
+    @Override
+    public TurfModel getElementAt(int index) {
+        return rows.get(index);
+    }
+
+    boolean isExhausted() {
+        return exhausted;
+    }
+
+    boolean isLoading() {
+        return loading;
+    }
+
+    /** Requests the next page if {@code index} is within one page of the loaded end. EDT only. */
+    void ensureLoaded(int index) {
+        if (loading || exhausted || index < rows.size() - pageSize) {
+            return;
+        }
+        loading = true;
+        int offset = rows.size();
+        int requestGeneration = generation;
+        LOADER.execute(() -> {
+            List<TurfModel> page;
+            try {
+                page = loader.load(category, offset, pageSize);
+            } catch (Exception e) {
+                e.printStackTrace();
+                page = null;
+            }
+            List<TurfModel> result = page;
+            SwingUtilities.invokeLater(() -> appendPage(requestGeneration, offset, result));
+        });
+    }
+
+    /** Drops every loaded row and starts again from the first page. EDT only. */
+    void reload() {
+        generation++;
+        int oldSize = rows.size();
+        rows.clear();
+        loading = false;
+        exhausted = false;
+        if (oldSize > 0) {
+            fireIntervalRemoved(this, 0, oldSize - 1);
+        }
+        ensureLoaded(0);
+    }
+
+    /** Repaints the row showing {@code turf}, e.g. after its availability changed. EDT only. */
+    void rowChanged(TurfModel turf) {
+        int index = rows.indexOf(turf);
+        if (index >= 0) {
+            fireContentsChanged(this, index, index);
+        }
+    }
+
+    private void appendPage(int requestGeneration, int offset, List<TurfModel> page) {
+        if (requestGeneration != generation) {
+            return;
+        }
+        loading = false;
+        if (page == null) {
+            return;
+        }
+        if (page.size() < pageSize) {
+            exhausted = true;
+        }
+        if (page.isEmpty() || offset != rows.size()) {
+            onPageLoaded.accept(page);
+            return;
+        }
+        rows.addAll(page);
+        fireIntervalAdded(this, offset, rows.size() - 1);
+        onPageLoaded.accept(page);
+    }
+}
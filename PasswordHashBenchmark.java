@@ -0,0 +1,67 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures password verifications (i.e. logins) per second per core at several
+ * PBKDF2 iteration counts, to pick {@code turf.auth.pbkdf2Iterations} for the
+ * hardware the login path runs on.
+ *
+ * Usage: {@code java PasswordHashBenchmark [seconds] [iterations...]}
+ */
+class PasswordHashBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 3;
+        List<Integer> costs = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            costs.add(Integer.parseInt(args[i]));
+        }
+        if (costs.isEmpty()) {
+            costs.add(10_000);
+            costs.add(100_000);
+            costs.add(210_000);
+            costs.add(600_000);
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        char[] password = "correct horse battery staple".toCharArray();
+
+        System.out.printf("%-12s %16s %16s %14s%n", "iterations", "logins/s/core", "logins/s (all)", "ms/login");
+        for (int iterations : costs) {
+            String stored = PasswordHasher.hashNow(password, iterations);
+            PasswordHasher.verifyNow(password, stored); // warm up
+
+            double single = run(1, seconds, password, stored);
+            double all = run(cores, seconds, password, stored);
+            System.out.printf("%-12d %16.1f %16.1f %14.2f%n", iterations, single, all, 1000.0 / single);
+        }
+        System.out.println("cores=" + cores);
+    }
+
+    private static double run(int threads, double seconds, char[] password, String stored) throws InterruptedException {
+        AtomicLong done = new AtomicLong();
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        if (!PasswordHasher.verifyNow(password, stored)) {
+                            throw new IllegalStateException("verification failed");
+                        }
+                        done.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        long start = System.nanoTime();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return done.get() / ((System.nanoTime() - start) / 1e9);
+    }
+}
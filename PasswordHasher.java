@@ -0,0 +1,147 @@
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Salted PBKDF2-HMAC-SHA256 password hashing with a tunable iteration count.
+ *
+ * Stored form: {@code pbkdf2-sha256$<iterations>$<salt>$<hash>} (Base64). Hashing
+ * runs on a dedicated pool sized to the CPU count with a bounded queue, so a login
+ * burst queues up (and eventually gets rejected) instead of starving the rest of the
+ * application of CPU. Values without the prefix are legacy plaintext passwords.
+ */
+class PasswordHasher {
+
+    static final String PREFIX = "pbkdf2-sha256";
+
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static final PasswordHasher SHARED = new PasswordHasher(
+            Integer.getInteger("turf.auth.pbkdf2Iterations", 210_000),
+            Integer.getInteger("turf.auth.hashThreads", Runtime.getRuntime().availableProcessors()),
+            Integer.getInteger("turf.auth.hashQueue", 64));
+
+    static PasswordHasher shared() {
+        return SHARED;
+    }
+
+    private final int iterations;
+    private final ThreadPoolExecutor workers;
+
+    PasswordHasher(int iterations, int threads, int queueCapacity) {
+        this.iterations = iterations;
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "password-hasher-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    int iterations() {
+        return iterations;
+    }
+
+    /** Hashes on the worker pool at the current cost; blocks the caller until done. */
+    String hash(char[] password) throws GeneralSecurityException {
+        return await(submit(() -> hashNow(password, iterations)));
+    }
+
+    /** Verifies on the worker pool; legacy plaintext values are compared in constant time. */
+    boolean verify(char[] password, String stored) throws GeneralSecurityException {
+        if (stored == null) {
+            return false;
+        }
+        if (!stored.startsWith(PREFIX + "$")) {
+            return MessageDigest.isEqual(new String(password).getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+        return await(submit(() -> verifyNow(password, stored)));
+    }
+
+    /** True for plaintext values and hashes made with fewer iterations than the current cost. */
+    boolean needsUpgrade(String stored) {
+        if (stored == null || !stored.startsWith(PREFIX + "$")) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        try {
+            return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+        } catch (NumberFormatException e) {
+            return true;
+        }
+    }
+
+    static String hashNow(char[] password, int iterations) throws GeneralSecurityException {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        byte[] hash = pbkdf2(password, salt, iterations);
+        Base64.Encoder b64 = Base64.getEncoder().withoutPadding();
+        return PREFIX + "$" + iterations + "$" + b64.encodeToString(salt) + "$" + b64.encodeToString(hash);
+    }
+
+    static boolean verifyNow(char[] password, String stored) throws GeneralSecurityException {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        int storedIterations;
+        try {
+            storedIterations = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        Base64.Decoder b64 = Base64.getDecoder();
+        byte[] salt = b64.decode(parts[2]);
+        byte[] expected = b64.decode(parts[3]);
+        return MessageDigest.isEqual(expected, pbkdf2(password, salt, storedIterations));
+    }
+
+    private static byte[] pbkdf2(char[] password, byte[] salt, int iterations) throws GeneralSecurityException {
+        PBEKeySpec spec = new PBEKeySpec(password, salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256").generateSecret(spec).getEncoded();
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private <T> Future<T> submit(Callable<T> task) {
+        try {
+            return workers.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new RejectedExecutionException("Too many logins in progress. Please try again.", e);
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws GeneralSecurityException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new GeneralSecurityException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof GeneralSecurityException) {
+                throw (GeneralSecurityException) e.getCause();
+            }
+            throw new GeneralSecurityException("Password hashing failed", e.getCause());
+        }
+    }
+}
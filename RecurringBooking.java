@@ -0,0 +1,126 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A weekly booking kept as a rule rather than one row per week, e.g. "every Tuesday
+ * 19:00-21:00 from 1 Oct until 31 Mar, except holidays". Occurrences are counted
+ * arithmetically and checked day by day, never expanded into rows.
+ *
+ * Days are epoch days. {@link #firstDay} and {@link #lastDay} are themselves
+ * occurrences, and {@link #exceptions} holds only skipped occurrence days, sorted, so
+ * counting over a window is two divisions and two binary searches.
+ */
+final class RecurringBooking {
+
+    final long id;
+    /** Console turf ID, as on {@link TurfOwnerDashboard.Turf#id}. */
+    final String turfId;
+    final String customer;
+    final DayOfWeek dayOfWeek;
+    final int startSlot;
+    final int slotCount;
+    final long firstDay;
+    final long lastDay;
+    final long[] exceptions;
+    final long costPaise;
+
+    RecurringBooking(long id, String turfId, String customer, DayOfWeek dayOfWeek, int startSlot, int slotCount,
+                     long firstDay, long lastDay, long[] exceptions, long costPaise) {
+        this.id = id;
+        this.turfId = turfId;
+        this.customer = customer == null ? "" : customer;
+        this.dayOfWeek = dayOfWeek;
+        this.startSlot = startSlot;
+        this.slotCount = slotCount;
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+        this.exceptions = exceptions;
+        this.costPaise = costPaise;
+    }
+
+    /**
+     * A rule for every {@code dayOfWeek} from {@code from} to {@code until} (inclusive),
+     * skipping {@code except}; dates in {@code except} that are not occurrences are ignored.
+     *
+     * @throws IllegalArgumentException if the slots or dates leave no occurrence
+     */
+    static RecurringBooking weekly(long id, String turfId, String customer, DayOfWeek dayOfWeek,
+                                   int startSlot, int slotCount, LocalDate from, LocalDate until,
+                                   Collection<LocalDate> except, long costPaise) {
+        if (startSlot < 0 || slotCount <= 0 || startSlot + slotCount > SlotAvailability.SLOTS_PER_DAY) {
+            throw new IllegalArgumentException("A weekly booking must start and end within one day.");
+        }
+        if (costPaise < 0) {
+            throw new IllegalArgumentException("Cost per session cannot be negative.");
+        }
+        long first = from.toEpochDay() + Math.floorMod(dayOfWeek.getValue() - from.getDayOfWeek().getValue(), 7);
+        long last = until.toEpochDay() - Math.floorMod(until.getDayOfWeek().getValue() - dayOfWeek.getValue(), 7);
+        long[] skipped = except.stream().mapToLong(LocalDate::toEpochDay)
+                .filter(d -> d >= first && d <= last && (d - first) % 7 == 0)
+                .sorted().distinct().toArray();
+        RecurringBooking rule = new RecurringBooking(id, turfId, customer, dayOfWeek, startSlot, slotCount,
+                first, last, skipped, costPaise);
+        if (rule.totalOccurrences() == 0) {
+            throw new IllegalArgumentException("No " + dayOfWeek.toString().toLowerCase()
+                    + " between " + from + " and " + until + " is left to book.");
+        }
+        return rule;
+    }
+
+    boolean occursOn(long epochDay) {
+        return epochDay >= firstDay && epochDay <= lastDay && (epochDay - firstDay) % 7 == 0
+                && Arrays.binarySearch(exceptions, epochDay) < 0;
+    }
+
+    int totalOccurrences() {
+        return occurrencesBetween(firstDay, lastDay + 1);
+    }
+
+    /** Occurrences on days {@code [fromDay, toDay)}. */
+    int occurrencesBetween(long fromDay, long toDay) {
+        long lo = Math.max(fromDay, firstDay);
+        long hi = Math.min(toDay - 1, lastDay);
+        if (lo > hi) {
+            return 0;
+        }
+        // Week indexes of the first and last occurrence inside [lo, hi].
+        long firstWeek = Math.floorDiv(lo - firstDay + 6, 7);
+        long lastWeek = Math.floorDiv(hi - firstDay, 7);
+        long weeks = Math.max(0, lastWeek - firstWeek + 1);
+        return (int) (weeks - (insertionPoint(hi + 1) - insertionPoint(lo)));
+    }
+
+    /** Whether both rules claim overlapping slots on some day neither of them skips. */
+    boolean conflictsWith(RecurringBooking other) {
+        return firstCommonDay(other) != Long.MIN_VALUE;
+    }
+
+    /** The first day both rules claim overlapping slots, or {@code Long.MIN_VALUE}. */
+    long firstCommonDay(RecurringBooking other) {
+        if (dayOfWeek != other.dayOfWeek || !turfId.equals(other.turfId)
+                || startSlot >= other.startSlot + other.slotCount || other.startSlot >= startSlot + slotCount) {
+            return Long.MIN_VALUE;
+        }
+        // Same weekday and aligned first days, so stepping by a week visits both rules' occurrences.
+        for (long day = Math.max(firstDay, other.firstDay); day <= Math.min(lastDay, other.lastDay); day += 7) {
+            if (occursOn(day) && other.occursOn(day)) {
+                return day;
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    String describe() {
+        String day = dayOfWeek.toString().charAt(0) + dayOfWeek.toString().substring(1).toLowerCase();
+        return "Every " + day + " " + new SlotAvailability.SlotRange(startSlot, startSlot + slotCount)
+                + " until " + LocalDate.ofEpochDay(lastDay)
+                + (exceptions.length == 0 ? "" : " (" + exceptions.length + " skipped)");
+    }
+
+    private int insertionPoint(long day) {
+        int i = Arrays.binarySearch(exceptions, day);
+        return i >= 0 ? i : -i - 1;
+    }
+}
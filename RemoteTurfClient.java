@@ -0,0 +1,300 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Client side of {@link TurfServer}, used by the Swing apps when they are started with
+ * {@code -Dturf.remote=http://host:port}. Calls block, so make them off the EDT.
+ *
+ * The token from {@link #login} is kept for later calls. Turf listings carry the
+ * server's free slots for today, which are mirrored into the local
+ * {@link SlotAvailability} so the cards render exactly as in local mode.
+ */
+class RemoteTurfClient {
+
+    private static final Metrics.Timer CALL_TIMER = Metrics.timer("remote.call");
+
+    private static final RemoteTurfClient SHARED = create(System.getProperty("turf.remote"));
+
+    /** The configured client, or null when the apps run against the local database. */
+    static RemoteTurfClient shared() {
+        return SHARED;
+    }
+
+    static boolean isEnabled() {
+        return SHARED != null;
+    }
+
+    private static RemoteTurfClient create(String baseUrl) {
+        if (baseUrl == null || baseUrl.isBlank()) {
+            return null;
+        }
+        return new RemoteTurfClient(baseUrl);
+    }
+
+    /** A non-2xx answer from the server. */
+    static final class RemoteException extends IOException {
+        final int status;
+        final long retryAfterMillis;
+
+        RemoteException(int status, String message, long retryAfterMillis) {
+            super(message);
+            this.status = status;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    /** A hold placed through the server. */
+    static final class RemoteHold {
+        final long id;
+        final String range;
+        final double totalCost;
+        final long expiresInMillis;
+
+        RemoteHold(long id, String range, double totalCost, long expiresInMillis) {
+            this.id = id;
+            this.range = range;
+            this.totalCost = totalCost;
+            this.expiresInMillis = expiresInMillis;
+        }
+    }
+
+    private final String baseUrl;
+    private final HttpClient http;
+    private final Duration timeout;
+    private volatile String token;
+
+    RemoteTurfClient(String baseUrl) {
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.timeout = Duration.ofMillis(Long.getLong("turf.remote.timeoutMs", 10_000));
+        // The JDK server speaks HTTP/1.1 only; skip the h2c upgrade attempt.
+        this.http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(timeout).build();
+    }
+
+    // --- Accounts -----------------------------------------------------------------------
+
+    /**
+     * Logs in and keeps the session token; returns the role, or null for bad credentials.
+     *
+     * @throws LoginThrottle.ThrottledException when the server is rate-limiting this user or client
+     */
+    String login(String username, char[] password) throws IOException, LoginThrottle.ThrottledException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("password", new String(password));
+        try {
+            Map<String, Object> out = call("POST", "/api/login", body);
+            token = Json.string(out, "token");
+            return Json.string(out, "role");
+        } catch (RemoteException e) {
+            if (e.status == 401) {
+                return null;
+            }
+            if (e.status == 429) {
+                throw new LoginThrottle.ThrottledException(e.getMessage(), e.retryAfterMillis);
+            }
+            throw e;
+        }
+    }
+
+    /** @throws SQLIntegrityConstraintViolationException when the username is taken, as locally */
+    void signup(String username, String email, char[] password, String role)
+            throws IOException, SQLIntegrityConstraintViolationException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("username", username);
+        body.put("email", email);
+        body.put("password", new String(password));
+        body.put("role", role);
+        try {
+            call("POST", "/api/signup", body);
+        } catch (RemoteException e) {
+            if (e.status == 409) {
+                throw new SQLIntegrityConstraintViolationException(e.getMessage());
+            }
+            throw e;
+        }
+    }
+
+    /** Token of the current login, or null. */
+    String sessionToken() {
+        return token;
+    }
+
+    void logout() {
+        if (token == null) {
+            return;
+        }
+        try {
+            call("POST", "/api/logout", new LinkedHashMap<>());
+        } catch (IOException e) {
+            System.err.println("Remote logout failed: " + e.getMessage());
+        }
+        token = null;
+    }
+
+    // --- Catalog and booking ---------------------------------------------------------------
+
+    List<TurfModel> page(String category, int offset, int limit) throws IOException {
+        Map<String, Object> out = call("GET", "/api/turfs?category=" + encode(category)
+                + "&offset=" + offset + "&limit=" + limit, null);
+        return turfs(out.get("turfs"));
+    }
+
+    List<TurfModel> search(String query, int limit) throws IOException {
+        return turfs(call("GET", "/api/search?q=" + encode(query) + "&limit=" + limit, null).get("turfs"));
+    }
+
+    List<GeoIndex.Hit<TurfModel>> nearest(double lat, double lon, int k, String category, double maxPrice)
+            throws IOException {
+        String path = "/api/nearby?lat=" + lat + "&lon=" + lon + "&k=" + k
+                + (category == null ? "" : "&category=" + encode(category))
+                + (Double.isInfinite(maxPrice) ? "" : "&maxPrice=" + maxPrice);
+        List<GeoIndex.Hit<TurfModel>> hits = new ArrayList<>();
+        for (Map<String, Object> turf : Json.objects(call("GET", path, null).get("turfs"))) {
+            hits.add(new GeoIndex.Hit<>(turf(turf), Json.decimal(turf, "distanceKm", Double.NaN)));
+        }
+        return hits;
+    }
+
+    /** Holds the first free run of {@code hours} today; null when the turf has none left. */
+    RemoteHold holdFirstFree(int turfId, int hours) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("turfId", String.valueOf(turfId));
+        body.put("hours", hours);
+        try {
+            Map<String, Object> out = call("POST", "/api/holds", body);
+            return new RemoteHold(Json.number(out, "holdId", -1), Json.string(out, "range"),
+                    Json.decimal(out, "totalCost", 0), Json.number(out, "expiresInMs", 0));
+        } catch (RemoteException e) {
+            if (e.status == 409) {
+                return null;
+            }
+            throw e;
+        }
+    }
+
+    /** Confirms a hold; false if it expired first. */
+    boolean confirm(long holdId) throws IOException {
+        try {
+            call("POST", "/api/holds/" + holdId + "/confirm", new LinkedHashMap<>());
+            return true;
+        } catch (RemoteException e) {
+            if (e.status == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    boolean release(long holdId) throws IOException {
+        Object released = call("DELETE", "/api/holds/" + holdId, null).get("released");
+        return Boolean.TRUE.equals(released);
+    }
+
+    /** Per-turf booking count and income for owner turfs; owners only. */
+    List<Map<String, Object>> ownerAggregates() throws IOException {
+        return Json.objects(call("GET", "/api/owner/aggregates", null).get("turfs"));
+    }
+
+    // --- Plumbing -------------------------------------------------------------------------
+
+    private Map<String, Object> call(String method, String path, Map<String, Object> body) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout)
+                .header("Accept", "application/json");
+        String session = token;
+        if (session != null) {
+            request.header("Authorization", "Bearer " + session);
+        }
+        if (body != null) {
+            request.header("Content-Type", "application/json");
+            request.method(method, HttpRequest.BodyPublishers.ofString(Json.write(body), StandardCharsets.UTF_8));
+        } else {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        HttpResponse<String> response;
+        long start = CALL_TIMER.start();
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted calling " + path, e);
+        } finally {
+            CALL_TIMER.stop(start);
+        }
+        Map<String, Object> out;
+        try {
+            out = Json.parseObject(response.body());
+        } catch (IllegalArgumentException e) {
+            throw new RemoteException(response.statusCode(), "Unreadable response from " + path, 0);
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw new RemoteException(response.statusCode(),
+                    String.valueOf(out.getOrDefault("error", "HTTP " + response.statusCode())),
+                    Json.number(out, "retryAfterMs", 0));
+        }
+        return out;
+    }
+
+    private List<TurfModel> turfs(Object list) {
+        List<TurfModel> out = new ArrayList<>();
+        for (Map<String, Object> turf : Json.objects(list)) {
+            out.add(turf(turf));
+        }
+        return out;
+    }
+
+    private static TurfModel turf(Map<String, Object> json) {
+        TurfModel turf = new TurfModel((int) Json.number(json, "id", 0), Json.string(json, "name"),
+                Json.string(json, "address"), (int) Json.number(json, "pricePerHour", 0),
+                Json.string(json, "operatingHours"), Json.string(json, "category"), Json.string(json, "imagePath"),
+                Json.decimal(json, "latitude", Double.NaN), Json.decimal(json, "longitude", Double.NaN));
+        mirrorFreeSlots(turf, json.get("freeToday"));
+        return turf;
+    }
+
+    /**
+     * Mirrors the server's free ranges for today into the local availability: every
+     * open slot outside them is marked booked, including a fully booked day (no
+     * ranges) and the booked slots before the first range and after the last.
+     */
+    @SuppressWarnings("unchecked")
+    private static void mirrorFreeSlots(TurfModel turf, Object freeToday) {
+        if (!(freeToday instanceof List)) {
+            return;
+        }
+        SlotAvailability availability = SlotAvailability.shared();
+        availability.register(turf);
+        LocalDate today = LocalDate.now();
+        availability.release(turf.getId(), today, 0, SlotAvailability.SLOTS_PER_DAY);
+        boolean[] free = new boolean[SlotAvailability.SLOTS_PER_DAY];
+        for (Object range : (List<Object>) freeToday) {
+            List<Object> bounds = (List<Object>) range;
+            int start = Math.max(0, ((Number) bounds.get(0)).intValue());
+            int end = Math.min(free.length, ((Number) bounds.get(1)).intValue());
+            Arrays.fill(free, start, Math.max(start, end), true);
+        }
+        long[] open = SlotAvailability.parseOperatingHours(turf.getOperatingHours());
+        // One slot at a time, so a slot a weekly rule already covers cannot fail its neighbours.
+        for (int s = 0; s < free.length; s++) {
+            if (!free[s] && (open[s >>> 6] & (1L << s)) != 0) {
+                availability.markBooked(turf.getId(), today, s, 1);
+            }
+        }
+    }
+
+    private static String encode(String s) {
+        return URLEncoder.encode(s, StandardCharsets.UTF_8);
+    }
+}
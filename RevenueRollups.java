@@ -0,0 +1,490 @@
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Per-turf revenue rolled up into hourly, daily and monthly buckets.
+ *
+ * Buckets are kept up to date incrementally as bookings are added and cancelled, so
+ * a time-series query is one hash lookup per bucket in its range. When the bucketing rules
+ * change (time zone, hour at which the business day starts) everything is rebuilt
+ * from a snapshot of the booking history with a fork-join pass over row ranges;
+ * booking events that arrive meanwhile are applied to the new buckets before they
+ * replace the old ones.
+ */
+class RevenueRollups {
+
+    enum Granularity { HOUR, DAY, WEEK, MONTH }
+
+    /** How bookings are assigned to buckets. */
+    static final class Rules {
+        public final ZoneId zone;
+        public final int dayStartHour;
+
+        Rules(ZoneId zone, int dayStartHour) {
+            if (dayStartHour < 0 || dayStartHour > 23) {
+                throw new IllegalArgumentException("dayStartHour must be 0-23, got " + dayStartHour);
+            }
+            this.zone = zone;
+            this.dayStartHour = dayStartHour;
+        }
+
+        static Rules fromSystemProperties() {
+            String zone = System.getProperty("turf.rollup.zone");
+            return new Rules(zone == null ? ZoneId.systemDefault() : ZoneId.of(zone),
+                    Integer.getInteger("turf.rollup.dayStartHour", 0));
+        }
+    }
+
+    /** One bucket of a time series. */
+    static final class Point {
+        public final long startMillis;
+        public final long endMillis;
+        public final int bookings;
+        public final long revenuePaise;
+
+        Point(long startMillis, long endMillis, int bookings, long revenuePaise) {
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+            this.bookings = bookings;
+            this.revenuePaise = revenuePaise;
+        }
+
+        public double revenue() {
+            return revenuePaise / 100.0;
+        }
+    }
+
+    private static final int LEAF_ROWS = 32 * 1024;
+    private static final Metrics.Timer REBUILD_TIMER = Metrics.timer("rollups.rebuild");
+
+    /** Buckets per granularity that is actually stored; weeks are summed from days. */
+    private static final class TurfBuckets {
+        final BucketMap hours = new BucketMap(256);
+        final BucketMap days = new BucketMap(64);
+        final BucketMap months = new BucketMap(16);
+
+        void add(long hourKey, long dayKey, long monthKey, long count, long paise) {
+            hours.add(hourKey, count, paise);
+            days.add(dayKey, count, paise);
+            months.add(monthKey, count, paise);
+        }
+    }
+
+    private final BookingColumnStore store;
+    private final Object rebuildLock = new Object();
+    private Rules rules;
+    private Map<String, TurfBuckets> byTurf = new HashMap<>();
+
+    // While a rebuild is running, events are also recorded here to be replayed onto it.
+    private List<long[]> eventsDuringRebuild;
+    private List<String> eventTurfs;
+
+    RevenueRollups(BookingColumnStore store, Rules rules) {
+        this.store = store;
+        this.rules = rules;
+    }
+
+    synchronized Rules rules() {
+        return rules;
+    }
+
+    synchronized void onBookingAdded(int row, String turfId, long paise, long bookedAt) {
+        apply(byTurf, rules, turfId, 1, paise, bookedAt);
+        record(row, turfId, 1, paise, bookedAt);
+    }
+
+    synchronized void onBookingCancelled(int row, String turfId, long paise, long bookedAt) {
+        apply(byTurf, rules, turfId, -1, -paise, bookedAt);
+        record(row, turfId, -1, -paise, bookedAt);
+    }
+
+    /** Switches to new bucketing rules and rebuilds everything under them. */
+    void setRules(Rules newRules) {
+        rebuild(newRules);
+    }
+
+    /** Rebuilds all buckets from the booking history under the current rules. */
+    void recompute() {
+        rebuild(rules());
+    }
+
+    /**
+     * Dense series for {@code turfId} covering {@code [fromMillis, toMillis)}: one point
+     * per bucket, empty buckets included. Weeks start on Monday (at the business day start).
+     */
+    synchronized List<Point> series(String turfId, Granularity granularity, long fromMillis, long toMillis) {
+        TurfBuckets buckets = byTurf.get(turfId);
+        List<Point> points = new ArrayList<>();
+        if (granularity == Granularity.WEEK) {
+            long firstDay = weekStart(dayKey(rules, fromMillis));
+            long lastDay = dayKey(rules, toMillis - 1);
+            for (long week = firstDay; week <= lastDay; week += 7) {
+                long count = 0;
+                long paise = 0;
+                for (long day = week; buckets != null && day < week + 7; day++) {
+                    int slot = buckets.days.find(day);
+                    if (slot >= 0) {
+                        count += buckets.days.counts[slot];
+                        paise += buckets.days.paise[slot];
+                    }
+                }
+                points.add(new Point(dayStartMillis(rules, week), dayStartMillis(rules, week + 7), (int) count, paise));
+            }
+            return points;
+        }
+        long first = key(rules, granularity, fromMillis);
+        long last = key(rules, granularity, toMillis - 1);
+        BucketMap stored = buckets == null ? null : stored(buckets, granularity);
+        for (long k = first; k <= last; k++) {
+            int slot = stored == null ? -1 : stored.find(k);
+            points.add(new Point(startMillis(rules, granularity, k), startMillis(rules, granularity, k + 1),
+                    slot < 0 ? 0 : (int) stored.counts[slot], slot < 0 ? 0 : stored.paise[slot]));
+        }
+        return points;
+    }
+
+    /** Start of the bucket containing {@code millis}. */
+    synchronized long bucketStart(Granularity granularity, long millis) {
+        if (granularity == Granularity.WEEK) {
+            return dayStartMillis(rules, weekStart(dayKey(rules, millis)));
+        }
+        return startMillis(rules, granularity, key(rules, granularity, millis));
+    }
+
+    // --- Rebuild -----------------------------------------------------------------------
+
+    private void rebuild(Rules newRules) {
+        synchronized (rebuildLock) {
+            long start = REBUILD_TIMER.start();
+            try {
+                rebuildLocked(newRules);
+            } finally {
+                REBUILD_TIMER.stop(start);
+            }
+        }
+    }
+
+    private void rebuildLocked(Rules newRules) {
+        BookingColumnStore.Columns columns;
+        synchronized (this) {
+            eventsDuringRebuild = new ArrayList<>();
+            eventTurfs = new ArrayList<>();
+            // Taken after recording starts, so every event is either in the copy or recorded (or both).
+            columns = store.snapshot();
+        }
+        SortedTotals totals;
+        try {
+            totals = ForkJoinPool.commonPool().invoke(new RangeTask(columns, newRules, 0, columns.size));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                eventsDuringRebuild = null;
+                eventTurfs = null;
+            }
+            throw e;
+        }
+        TurfBuckets[] byCode = new TurfBuckets[columns.dictionary.length];
+        for (int i = 0; i < totals.size; i++) {
+            long packed = totals.keys[i];
+            int code = (int) (packed >>> 32);
+            if (byCode[code] == null) {
+                byCode[code] = new TurfBuckets();
+            }
+            long hour = (int) packed;
+            long day = dayKeyFromHour(newRules, hour);
+            byCode[code].add(hour, day, monthKey(day), totals.counts[i], totals.paise[i]);
+        }
+        Map<String, TurfBuckets> rebuilt = new HashMap<>();
+        for (int code = 0; code < byCode.length; code++) {
+            if (byCode[code] != null) {
+                rebuilt.put(columns.dictionary[code], byCode[code]);
+            }
+        }
+
+        synchronized (this) {
+            for (int i = 0; i < eventsDuringRebuild.size(); i++) {
+                long[] e = eventsDuringRebuild.get(i);
+                int row = (int) e[0];
+                boolean add = e[1] > 0;
+                // Skip what the snapshot already reflects: adds of copied rows, cancels of rows copied as cancelled.
+                if (add ? row < columns.size : row < columns.size && !columns.isLive(row)) {
+                    continue;
+                }
+                apply(rebuilt, newRules, eventTurfs.get(i), e[1], e[2], e[3]);
+            }
+            eventsDuringRebuild = null;
+            eventTurfs = null;
+            byTurf = rebuilt;
+            rules = newRules;
+        }
+    }
+
+    private void record(int row, String turfId, long count, long paise, long bookedAt) {
+        if (eventsDuringRebuild != null) {
+            eventsDuringRebuild.add(new long[] {row, count, paise, bookedAt});
+            eventTurfs.add(turfId);
+        }
+    }
+
+    /**
+     * Bookings and paise per bucket key in flat open-addressing arrays, so neither the
+     * rebuild loop nor a query boxes or allocates per bucket. Rebuild leaves key it by
+     * (turf code, hour) packed into one long.
+     */
+    private static final class BucketMap {
+        static final long EMPTY = Long.MIN_VALUE;
+
+        long[] keys;
+        long[] counts;
+        long[] paise;
+        private int size;
+
+        BucketMap(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, expected * 2) - 1) << 1;
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            counts = new long[capacity];
+            paise = new long[capacity];
+        }
+
+        static long pack(int code, long hour) {
+            return ((long) code << 32) | (hour & 0xFFFFFFFFL);
+        }
+
+        /** Slot holding {@code key}, or -1. */
+        int find(long key) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+            return -1;
+        }
+
+        void add(long key, long count, long amount) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    counts[slot] += count;
+                    paise[slot] += amount;
+                    grow();
+                    return;
+                }
+            }
+            counts[slot] += count;
+            paise[slot] += amount;
+        }
+
+        /** The entries as a run sorted by key. */
+        SortedTotals toSorted() {
+            long[] sortedKeys = new long[size];
+            int n = 0;
+            for (long key : keys) {
+                if (key != EMPTY) {
+                    sortedKeys[n++] = key;
+                }
+            }
+            Arrays.sort(sortedKeys);
+            long[] sortedCounts = new long[size];
+            long[] sortedPaise = new long[size];
+            for (int i = 0; i < size; i++) {
+                int slot = find(sortedKeys[i]);
+                sortedCounts[i] = counts[slot];
+                sortedPaise[i] = paise[slot];
+            }
+            return new SortedTotals(sortedKeys, sortedCounts, sortedPaise, size);
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 29) ^ (h >>> 47));
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            long[] oldPaise = paise;
+            keys = new long[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            counts = new long[keys.length];
+            paise = new long[keys.length];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != EMPTY) {
+                    add(oldKeys[slot], oldCounts[slot], oldPaise[slot]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Totals sorted by packed key. Rebuild leaves aggregate into a small hash map and
+     * hand back one of these, so combining leaves is a sequential merge rather than
+     * random access into ever larger tables.
+     */
+    private static final class SortedTotals {
+        final long[] keys;
+        final long[] counts;
+        final long[] paise;
+        final int size;
+
+        SortedTotals(long[] keys, long[] counts, long[] paise, int size) {
+            this.keys = keys;
+            this.counts = counts;
+            this.paise = paise;
+            this.size = size;
+        }
+
+        SortedTotals merge(SortedTotals other) {
+            int capacity = size + other.size;
+            long[] k = new long[capacity];
+            long[] c = new long[capacity];
+            long[] p = new long[capacity];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < other.size) {
+                if (j == other.size || (i < size && keys[i] < other.keys[j])) {
+                    k[n] = keys[i];
+                    c[n] = counts[i];
+                    p[n++] = paise[i++];
+                } else if (i == size || other.keys[j] < keys[i]) {
+                    k[n] = other.keys[j];
+                    c[n] = other.counts[j];
+                    p[n++] = other.paise[j++];
+                } else {
+                    k[n] = keys[i];
+                    c[n] = counts[i] + other.counts[j];
+                    p[n++] = paise[i++] + other.paise[j++];
+                }
+            }
+            return new SortedTotals(k, c, p, n);
+        }
+    }
+
+    private static final class RangeTask extends RecursiveTask<SortedTotals> {
+        private final BookingColumnStore.Columns columns;
+        private final Rules rules;
+        private final int from;
+        private final int to;
+
+        RangeTask(BookingColumnStore.Columns columns, Rules rules, int from, int to) {
+            this.columns = columns;
+            this.rules = rules;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected SortedTotals compute() {
+            if (to - from <= LEAF_ROWS) {
+                BucketMap out = new BucketMap(1024);
+                for (int row = from; row < to; row++) {
+                    if (columns.isLive(row)) {
+                        out.add(BucketMap.pack(columns.turfCodes[row], hourKey(rules, columns.bookedAt[row])),
+                                1, columns.costPaise[row]);
+                    }
+                }
+                return out.toSorted();
+            }
+            int mid = (from + to) >>> 1;
+            RangeTask left = new RangeTask(columns, rules, from, mid);
+            left.fork();
+            SortedTotals right = new RangeTask(columns, rules, mid, to).compute();
+            return left.join().merge(right);
+        }
+    }
+
+    // --- Bucket arithmetic ---------------------------------------------------------------
+    // Hour keys count local hours since the epoch; day keys count business days (local
+    // days shifted by dayStartHour); month keys are year * 12 + month - 1.
+
+    private static void apply(Map<String, TurfBuckets> byTurf, Rules rules, String turfId,
+                              long count, long paise, long bookedAt) {
+        long hour = hourKey(rules, bookedAt);
+        long day = dayKeyFromHour(rules, hour);
+        byTurf.computeIfAbsent(turfId, t -> new TurfBuckets()).add(hour, day, monthKey(day), count, paise);
+    }
+
+    private static BucketMap stored(TurfBuckets buckets, Granularity granularity) {
+        switch (granularity) {
+            case HOUR:
+                return buckets.hours;
+            case DAY:
+                return buckets.days;
+            default:
+                return buckets.months;
+        }
+    }
+
+    private static long key(Rules rules, Granularity granularity, long millis) {
+        long hour = hourKey(rules, millis);
+        switch (granularity) {
+            case HOUR:
+                return hour;
+            case DAY:
+                return dayKeyFromHour(rules, hour);
+            default:
+                return monthKey(dayKeyFromHour(rules, hour));
+        }
+    }
+
+    private static long hourKey(Rules rules, long millis) {
+        int offsetSeconds = rules.zone.getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+        return Math.floorDiv(Math.floorDiv(millis, 1000L) + offsetSeconds, 3600L);
+    }
+
+    private static long dayKeyFromHour(Rules rules, long hourKey) {
+        return Math.floorDiv(hourKey - rules.dayStartHour, 24L);
+    }
+
+    private static long dayKey(Rules rules, long millis) {
+        return dayKeyFromHour(rules, hourKey(rules, millis));
+    }
+
+    private static long monthKey(long dayKey) {
+        LocalDate date = LocalDate.ofEpochDay(dayKey);
+        return date.getYear() * 12L + date.getMonthValue() - 1;
+    }
+
+    private static long weekStart(long dayKey) {
+        return LocalDate.ofEpochDay(dayKey).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toEpochDay();
+    }
+
+    private static long startMillis(Rules rules, Granularity granularity, long key) {
+        switch (granularity) {
+            case HOUR:
+                return LocalDateTime.ofEpochSecond(key * 3600L, 0, ZoneOffset.UTC)
+                        .atZone(rules.zone).toInstant().toEpochMilli();
+            case DAY:
+                return dayStartMillis(rules, key);
+            default:
+                LocalDate firstOfMonth = LocalDate.of((int) Math.floorDiv(key, 12L), (int) Math.floorMod(key, 12L) + 1, 1);
+                return dayStartMillis(rules, firstOfMonth.toEpochDay());
+        }
+    }
+
+    private static long dayStartMillis(Rules rules, long dayKey) {
+        return LocalDate.ofEpochDay(dayKey).atTime(rules.dayStartHour, 0)
+                .atZone(rules.zone).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,43 @@
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The desktop client's login session.
+ *
+ * Sessions live in a shared {@link SessionStore}; this class only remembers the
+ * token of the user logged in to this client, so login and booking checks are a
+ * map lookup and never touch MySQL.
+ */
+class SessionManager {
+
+    private static final SessionStore STORE = new SessionStore(
+            Long.getLong("turf.session.idleMinutes", 30), TimeUnit.MINUTES,
+            Integer.getInteger("turf.session.max", 500_000));
+
+    private static volatile String currentToken;
+
+    static SessionStore store() {
+        return STORE;
+    }
+
+    static SessionStore.Session login(String username, String role) {
+        SessionStore.Session session = STORE.create(username, role);
+        String previous = currentToken;
+        currentToken = session.token;
+        STORE.invalidate(previous);
+        return session;
+    }
+
+    static boolean isLoggedIn() {
+        return STORE.touch(currentToken) != null;
+    }
+
+    /** The current session, or null if nobody is logged in or it has expired. */
+    static SessionStore.Session currentSession() {
+        return STORE.touch(currentToken);
+    }
+
+    static void logout() {
+        STORE.invalidate(currentToken);
+        currentToken = null;
+    }
+}
@@ -0,0 +1,131 @@
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent in-memory session store with sliding idle expiry.
+ *
+ * Lookups are a single map read plus a volatile write to record activity. Expiry is
+ * driven by one {@link HashedTimerWheel}: each session has exactly one pending
+ * timeout, and when it fires the session is only removed if it has really been idle
+ * for the full period; otherwise the timeout is re-armed for the remaining time.
+ * Touching a session therefore never reschedules anything; invalidating one cancels
+ * its timeout.
+ */
+class SessionStore {
+
+    static final class Session {
+        public final String token;
+        public final String username;
+        public final String role;
+        public final long createdAt;
+        volatile long lastAccessNanos;
+        // Per-session key and keyed digest of the last password verified in this
+        // session; see CredentialService.reauthenticate.
+        final byte[] credentialKey = new byte[32];
+        volatile byte[] verifiedCredential;
+        // The pending idle check, cancelled when the session is invalidated.
+        volatile HashedTimerWheel.Timeout expiry;
+
+        Session(String token, String username, String role) {
+            this.token = token;
+            this.username = username;
+            this.role = role;
+            this.createdAt = System.currentTimeMillis();
+            this.lastAccessNanos = System.nanoTime();
+            RANDOM.nextBytes(credentialKey);
+        }
+    }
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final HashedTimerWheel wheel;
+    private final long idleNanos;
+    private final int maxSessions;
+
+    SessionStore(long idleTimeout, TimeUnit unit, int maxSessions) {
+        this.idleNanos = unit.toNanos(idleTimeout);
+        this.maxSessions = maxSessions;
+        this.wheel = new HashedTimerWheel("session-expiry", 1, TimeUnit.SECONDS, 512);
+    }
+
+    /**
+     * Opens a session and returns it; its opaque token is what callers hold on to.
+     *
+     * @throws IllegalStateException when the store is at capacity
+     */
+    Session create(String username, String role) {
+        if (size.incrementAndGet() > maxSessions) {
+            size.decrementAndGet();
+            throw new IllegalStateException("Too many active sessions (" + maxSessions + ")");
+        }
+        Session session = new Session(newToken(), username, role);
+        // Armed before the session is visible, so invalidate always finds a timeout to cancel.
+        session.expiry = wheel.schedule(t -> expireIfIdle(session), idleNanos, TimeUnit.NANOSECONDS);
+        sessions.put(session.token, session);
+        return session;
+    }
+
+    /** Returns the live session for {@code token} and records activity, or null if unknown/expired. */
+    Session touch(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        if (now - session.lastAccessNanos >= idleNanos) {
+            // Past its idle deadline but the wheel has not reached it yet.
+            invalidate(token);
+            return null;
+        }
+        session.lastAccessNanos = now;
+        return session;
+    }
+
+    boolean invalidate(String token) {
+        Session session = token == null ? null : sessions.remove(token);
+        if (session == null) {
+            return false;
+        }
+        size.decrementAndGet();
+        // Lets the wheel drop the dead session now instead of holding it until its deadline.
+        session.expiry.cancel();
+        return true;
+    }
+
+    int size() {
+        return size.get();
+    }
+
+    private void expireIfIdle(Session session) {
+        if (sessions.get(session.token) != session) {
+            return;
+        }
+        long idleFor = System.nanoTime() - session.lastAccessNanos;
+        if (idleFor >= idleNanos) {
+            if (sessions.remove(session.token, session)) {
+                size.decrementAndGet();
+            }
+        } else {
+            session.expiry = wheel.schedule(t -> expireIfIdle(session), idleNanos - idleFor, TimeUnit.NANOSECONDS);
+            if (sessions.get(session.token) != session) {
+                // Invalidated while re-arming; it may have cancelled the timeout that just fired.
+                session.expiry.cancel();
+            }
+        }
+    }
+
+    private static String newToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
@@ -0,0 +1,457 @@
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory slot availability for every turf and day.
+ *
+ * A day is 96 fifteen-minute slots held as a 128-bit mask (two longs). Slots outside
+ * the turf's parsed operating hours are never free, so "what is free" is a couple of
+ * bitwise operations and a scan of at most 96 bits; no database round trip.
+ *
+ * Weekly {@link RecurringBooking} rules are kept as rules, not copied into each day:
+ * their slots are masked out of the days they occur on when a day is read or claimed.
+ */
+class SlotAvailability {
+
+    static final int SLOT_MINUTES = 15;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final SlotAvailability SHARED = new SlotAvailability();
+
+    static SlotAvailability shared() {
+        return SHARED;
+    }
+
+    /** A free interval, {@code [start, end)}. */
+    static final class SlotRange {
+        public final int startSlot;
+        public final int endSlot;
+
+        SlotRange(int startSlot, int endSlot) {
+            this.startSlot = startSlot;
+            this.endSlot = endSlot;
+        }
+
+        public LocalTime start() {
+            return slotToTime(startSlot);
+        }
+
+        public LocalTime end() {
+            return endSlot >= SLOTS_PER_DAY ? LocalTime.MAX : slotToTime(endSlot);
+        }
+
+        public int slotCount() {
+            return endSlot - startSlot;
+        }
+
+        @Override
+        public String toString() {
+            return start() + "-" + (endSlot >= SLOTS_PER_DAY ? "24:00" : end().toString());
+        }
+    }
+
+    /** The first window found by {@link #firstFreeWindow}. */
+    static final class Window {
+        public final TurfModel turf;
+        public final LocalDate day;
+        public final SlotRange range;
+
+        Window(TurfModel turf, LocalDate day, SlotRange range) {
+            this.turf = turf;
+            this.day = day;
+            this.range = range;
+        }
+    }
+
+    /**
+     * Booked slots for one turf on one day.
+     *
+     * Claims are lock-free: each 64-slot word is updated with compare-and-set, and a
+     * claim that spans both words rolls back its first half if the second is taken.
+     * A bit is only ever set by a CAS that saw it clear, so two claims can never own
+     * the same slot.
+     */
+    static final class DaySlots {
+        private final AtomicLongArray booked = new AtomicLongArray(2);
+
+        boolean isFree(int start, int count) {
+            return (booked.get(0) & rangeMask(start, count, 0)) == 0
+                    && (booked.get(1) & rangeMask(start, count, 1)) == 0;
+        }
+
+        boolean tryClaim(int start, int count) {
+            long lo = rangeMask(start, count, 0);
+            long hi = rangeMask(start, count, 1);
+            if (lo != 0 && !casSet(0, lo)) {
+                return false;
+            }
+            if (hi != 0 && !casSet(1, hi)) {
+                if (lo != 0) {
+                    casClear(0, lo);
+                }
+                return false;
+            }
+            return true;
+        }
+
+        void clear(int start, int count) {
+            long lo = rangeMask(start, count, 0);
+            long hi = rangeMask(start, count, 1);
+            if (lo != 0) casClear(0, lo);
+            if (hi != 0) casClear(1, hi);
+        }
+
+        long word(int index) {
+            return booked.get(index);
+        }
+
+        private boolean casSet(int index, long mask) {
+            while (true) {
+                long current = booked.get(index);
+                if ((current & mask) != 0) {
+                    return false;
+                }
+                if (booked.compareAndSet(index, current, current | mask)) {
+                    return true;
+                }
+            }
+        }
+
+        private void casClear(int index, long mask) {
+            while (true) {
+                long current = booked.get(index);
+                if (booked.compareAndSet(index, current, current & ~mask)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class TurfSchedule {
+        final TurfModel turf;
+        final long[] openMask;
+        final Map<LocalDate, DaySlots> days;
+
+        TurfSchedule(TurfModel turf, long[] openMask, Map<LocalDate, DaySlots> days) {
+            this.turf = turf;
+            this.openMask = openMask;
+            this.days = days;
+        }
+    }
+
+    private final Map<Integer, TurfSchedule> schedules = new ConcurrentHashMap<>();
+    private final Map<String, List<TurfSchedule>> byCategory = new ConcurrentHashMap<>();
+    private final Map<Integer, List<RecurringBooking>> recurring = new ConcurrentHashMap<>();
+
+    /**
+     * Registers (or re-registers, e.g. after an hours change) a turf. A re-registered
+     * turf keeps its existing day grids, so concurrent claims always land on the same
+     * {@link DaySlots}.
+     */
+    void register(TurfModel turf) {
+        long[] openMask = parseOperatingHours(turf.getOperatingHours());
+        schedules.compute(turf.getId(), (id, previous) -> {
+            TurfSchedule schedule = new TurfSchedule(turf, openMask,
+                    previous == null ? new ConcurrentHashMap<>() : previous.days);
+            if (previous != null && !previous.turf.getCategory().equals(turf.getCategory())) {
+                List<TurfSchedule> old = byCategory.get(previous.turf.getCategory());
+                synchronized (old) {
+                    old.removeIf(s -> s.turf.getId() == id);
+                }
+            }
+            List<TurfSchedule> list = byCategory.computeIfAbsent(turf.getCategory(),
+                    c -> Collections.synchronizedList(new ArrayList<>()));
+            synchronized (list) {
+                list.removeIf(s -> s.turf.getId() == id);
+                list.add(schedule);
+            }
+            return schedule;
+        });
+    }
+
+    boolean isRegistered(int turfId) {
+        return schedules.containsKey(turfId);
+    }
+
+    /** Marks slots as booked; false if any of them is already taken or outside operating hours. */
+    boolean markBooked(int turfId, LocalDate day, int startSlot, int slotCount) {
+        TurfSchedule schedule = schedule(turfId);
+        if (!isOpen(schedule, startSlot, slotCount) || recurringOverlap(turfId, day, startSlot, slotCount)) {
+            return false;
+        }
+        DaySlots slots = daySlots(schedule, day);
+        if (!slots.tryClaim(startSlot, slotCount)) {
+            return false;
+        }
+        // A rule added meanwhile either saw this claim or is seen here.
+        if (recurringOverlap(turfId, day, startSlot, slotCount)) {
+            slots.clear(startSlot, slotCount);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reserves a weekly rule's slots on every day it occurs. Returns the earliest day
+     * on which they are already booked, by a one-off claim or another weekly rule,
+     * leaving the rule out, or null once it is in place. Other rules are compared as
+     * rules, so a clash is found on days that were never loaded. The rule is published
+     * before the check, as claims are in {@link #markBooked}, so a one-off claim or rule
+     * racing with it cannot also succeed.
+     */
+    LocalDate addRecurring(int turfId, RecurringBooking rule) {
+        restoreRecurring(turfId, rule);
+        LocalDate conflict = null;
+        for (RecurringBooking other : recurring.get(turfId)) {
+            if (other.id != rule.id && rule.conflictsWith(other)) {
+                LocalDate day = LocalDate.ofEpochDay(rule.firstCommonDay(other));
+                if (conflict == null || day.isBefore(conflict)) {
+                    conflict = day;
+                }
+            }
+        }
+        TurfSchedule schedule = schedules.get(turfId);
+        if (schedule != null) {
+            for (Map.Entry<LocalDate, DaySlots> e : schedule.days.entrySet()) {
+                LocalDate day = e.getKey();
+                if (rule.occursOn(day.toEpochDay()) && !e.getValue().isFree(rule.startSlot, rule.slotCount)
+                        && (conflict == null || day.isBefore(conflict))) {
+                    conflict = day;
+                }
+            }
+        }
+        if (conflict != null) {
+            removeRecurring(turfId, rule.id);
+        }
+        return conflict;
+    }
+
+    /** Puts back a rule that was checked when it was made, e.g. on replay. */
+    void restoreRecurring(int turfId, RecurringBooking rule) {
+        List<RecurringBooking> rules = recurring.computeIfAbsent(turfId, id -> new CopyOnWriteArrayList<>());
+        rules.removeIf(r -> r.id == rule.id);
+        rules.add(rule);
+    }
+
+    void removeRecurring(int turfId, long ruleId) {
+        List<RecurringBooking> rules = recurring.get(turfId);
+        if (rules != null) {
+            rules.removeIf(r -> r.id == ruleId);
+        }
+    }
+
+    void release(int turfId, LocalDate day, int startSlot, int slotCount) {
+        DaySlots slots = schedule(turfId).days.get(day);
+        if (slots != null) {
+            slots.clear(startSlot, slotCount);
+        }
+    }
+
+    /** Drops the slot grids of days before {@code day}; they can no longer be booked. */
+    void forgetDaysBefore(LocalDate day) {
+        for (TurfSchedule schedule : schedules.values()) {
+            schedule.days.keySet().removeIf(d -> d.isBefore(day));
+        }
+    }
+
+    /** Free intervals for a turf on a day, skipping slots that start before {@code notBefore}. */
+    List<SlotRange> freeSlots(int turfId, LocalDate day, LocalTime notBefore) {
+        TurfSchedule schedule = schedule(turfId);
+        long lo = freeWord(schedule, day, 0, notBefore);
+        long hi = freeWord(schedule, day, 1, notBefore);
+
+        List<SlotRange> ranges = new ArrayList<>();
+        int runStart = -1;
+        for (int s = 0; s <= SLOTS_PER_DAY; s++) {
+            boolean free = s < SLOTS_PER_DAY && ((s < 64 ? lo : hi) & (1L << s)) != 0;
+            if (free && runStart < 0) {
+                runStart = s;
+            } else if (!free && runStart >= 0) {
+                ranges.add(new SlotRange(runStart, s));
+                runStart = -1;
+            }
+        }
+        return ranges;
+    }
+
+    int freeSlotCount(int turfId, LocalDate day, LocalTime notBefore) {
+        TurfSchedule schedule = schedule(turfId);
+        return Long.bitCount(freeWord(schedule, day, 0, notBefore))
+                + Long.bitCount(freeWord(schedule, day, 1, notBefore));
+    }
+
+    /** First free window of {@code slotCount} consecutive slots on this turf and day, or null. */
+    SlotRange firstFreeRun(int turfId, LocalDate day, int slotCount, LocalTime notBefore) {
+        TurfSchedule schedule = schedule(turfId);
+        return firstRun(freeWord(schedule, day, 0, notBefore), freeWord(schedule, day, 1, notBefore), slotCount);
+    }
+
+    /**
+     * Earliest window of {@code hours} free hours on {@code day} across every turf in
+     * {@code category}; ties go to the cheaper turf. Null when nothing fits.
+     */
+    Window firstFreeWindow(String category, LocalDate day, int hours, LocalTime notBefore) {
+        List<TurfSchedule> list = byCategory.get(category);
+        if (list == null) {
+            return null;
+        }
+        int slotCount = hours * 60 / SLOT_MINUTES;
+        Window best = null;
+        synchronized (list) {
+            for (TurfSchedule schedule : list) {
+                SlotRange run = firstRun(freeWord(schedule, day, 0, notBefore),
+                        freeWord(schedule, day, 1, notBefore), slotCount);
+                if (run == null) {
+                    continue;
+                }
+                if (best == null || run.startSlot < best.range.startSlot
+                        || (run.startSlot == best.range.startSlot
+                            && schedule.turf.getPricePerHour() < best.turf.getPricePerHour())) {
+                    best = new Window(schedule.turf, day, run);
+                }
+            }
+        }
+        return best;
+    }
+
+    static int timeToSlot(LocalTime time) {
+        return (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    static LocalTime slotToTime(int slot) {
+        int minutes = slot * SLOT_MINUTES;
+        return LocalTime.of(minutes / 60, minutes % 60);
+    }
+
+    /**
+     * Parses {@code "HH:mm-HH:mm"} into an open-slot mask. A closing time of 24:00 or
+     * one at/before the opening time (overnight hours) runs to the end of the day.
+     */
+    static long[] parseOperatingHours(String hours) {
+        String[] parts = hours == null ? new String[0] : hours.trim().split("\\s*-\\s*");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Operating hours must look like 08:00-22:00, got: " + hours);
+        }
+        int open = parseMinutes(parts[0]);
+        int close = parseMinutes(parts[1]);
+        int openSlot = (open + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        int closeSlot = close <= open ? SLOTS_PER_DAY : close / SLOT_MINUTES;
+
+        long[] mask = new long[2];
+        for (int s = openSlot; s < closeSlot; s++) {
+            mask[s >>> 6] |= 1L << s;
+        }
+        return mask;
+    }
+
+    private static int parseMinutes(String hhmm) {
+        String[] hm = hhmm.split(":");
+        try {
+            int h = Integer.parseInt(hm[0]);
+            int m = hm.length > 1 ? Integer.parseInt(hm[1]) : 0;
+            if (h < 0 || h > 24 || m < 0 || m > 59 || (h == 24 && m != 0)) {
+                throw new IllegalArgumentException("Invalid time: " + hhmm);
+            }
+            return h * 60 + m;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid time: " + hhmm, e);
+        }
+    }
+
+    private TurfSchedule schedule(int turfId) {
+        TurfSchedule schedule = schedules.get(turfId);
+        if (schedule == null) {
+            throw new IllegalArgumentException("Turf " + turfId + " is not registered for availability.");
+        }
+        return schedule;
+    }
+
+    private DaySlots daySlots(TurfSchedule schedule, LocalDate day) {
+        return schedule.days.computeIfAbsent(day, d -> new DaySlots());
+    }
+
+    private static boolean isOpen(TurfSchedule schedule, int start, int count) {
+        if (start < 0 || count <= 0 || start + count > SLOTS_PER_DAY) {
+            return false;
+        }
+        for (int s = start; s < start + count; s++) {
+            if ((schedule.openMask[s >>> 6] & (1L << s)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long freeWord(TurfSchedule schedule, LocalDate day, int index, LocalTime notBefore) {
+        DaySlots slots = schedule.days.get(day);
+        long free = schedule.openMask[index] & ~(slots == null ? 0L : slots.word(index))
+                & ~recurringWord(schedule.turf.getId(), day, index);
+        if (notBefore != null) {
+            int first = timeToSlot(notBefore) + (notBefore.getMinute() % SLOT_MINUTES == 0 ? 0 : 1);
+            free &= maskFrom(first, index);
+        }
+        return free;
+    }
+
+    /** Slots of word {@code index} taken by weekly rules occurring on {@code day}. */
+    private long recurringWord(int turfId, LocalDate day, int index) {
+        List<RecurringBooking> rules = recurring.get(turfId);
+        if (rules == null || rules.isEmpty()) {
+            return 0L;
+        }
+        long epochDay = day.toEpochDay();
+        long word = 0L;
+        for (RecurringBooking rule : rules) {
+            if (rule.occursOn(epochDay)) {
+                word |= rangeMask(rule.startSlot, rule.slotCount, index);
+            }
+        }
+        return word;
+    }
+
+    private boolean recurringOverlap(int turfId, LocalDate day, int startSlot, int slotCount) {
+        return (recurringWord(turfId, day, 0) & rangeMask(startSlot, slotCount, 0)) != 0
+                || (recurringWord(turfId, day, 1) & rangeMask(startSlot, slotCount, 1)) != 0;
+    }
+
+    /** Bits of word {@code index} covered by slots {@code [start, start + count)}. */
+    static long rangeMask(int start, int count, int index) {
+        int from = Math.max(start, index * 64);
+        int to = Math.min(start + count, index * 64 + 64);
+        if (from >= to) {
+            return 0L;
+        }
+        int width = to - from;
+        long bits = width == 64 ? -1L : (1L << width) - 1;
+        return bits << (from - index * 64);
+    }
+
+    /** Bits of word {@code index} at or after absolute slot {@code first}. */
+    private static long maskFrom(int first, int index) {
+        int offset = first - index * 64;
+        if (offset <= 0) return -1L;
+        if (offset >= 64) return 0L;
+        return -1L << offset;
+    }
+
+    private static SlotRange firstRun(long lo, long hi, int slotCount) {
+        int run = 0;
+        for (int s = 0; s < SLOTS_PER_DAY; s++) {
+            if (((s < 64 ? lo : hi) & (1L << s)) != 0) {
+                if (++run == slotCount) {
+                    return new SlotRange(s - slotCount + 1, s + 1);
+                }
+            } else {
+                run = 0;
+            }
+        }
+        return null;
+    }
+}
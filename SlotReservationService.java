@@ -0,0 +1,214 @@
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Places, confirms and expires slot reservations on top of {@link SlotAvailability}.
+ *
+ * Claiming slots is a compare-and-set on the day's slot mask, so concurrent "Book
+ * Now" clicks on the same turf never block each other and never double-book: exactly
+ * one of two overlapping claims wins. A claim starts as a hold that lives for a
+ * short TTL; if payment does not confirm it in time, a sweeper thread releases the
+ * slots. Confirm, release and expiry race on removing the hold from the map, so
+ * each hold ends exactly one way.
+ */
+class SlotReservationService {
+
+    static final long DEFAULT_HOLD_TTL_MILLIS = Long.getLong("turf.reservation.holdTtlMs", 5 * 60_000);
+
+    private static final SlotReservationService SHARED =
+            new SlotReservationService(SlotAvailability.shared(), DEFAULT_HOLD_TTL_MILLIS);
+
+    static SlotReservationService shared() {
+        return SHARED;
+    }
+
+    static final class Hold implements Delayed {
+        public final long id;
+        public final TurfModel turf;
+        public final LocalDate day;
+        public final int startSlot;
+        public final int slotCount;
+        public final String holder;
+        public final long expiresAtNanos;
+
+        Hold(long id, TurfModel turf, LocalDate day, int startSlot, int slotCount, String holder, long expiresAtNanos) {
+            this.id = id;
+            this.turf = turf;
+            this.day = day;
+            this.startSlot = startSlot;
+            this.slotCount = slotCount;
+            this.holder = holder;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        public double totalCost() {
+            return turf.getPricePerHour() * slotCount * SlotAvailability.SLOT_MINUTES / 60.0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtNanos, ((Hold) other).expiresAtNanos);
+        }
+    }
+
+    static final class Reservation {
+        public final long id;
+        public final TurfModel turf;
+        public final LocalDate day;
+        public final int startSlot;
+        public final int slotCount;
+        public final String holder;
+        public final double totalCost;
+        public final long confirmedAt;
+
+        Reservation(Hold hold, long confirmedAt) {
+            this.id = hold.id;
+            this.turf = hold.turf;
+            this.day = hold.day;
+            this.startSlot = hold.startSlot;
+            this.slotCount = hold.slotCount;
+            this.holder = hold.holder;
+            this.totalCost = hold.totalCost();
+            this.confirmedAt = confirmedAt;
+        }
+    }
+
+    private final SlotAvailability availability;
+    private final long holdTtlNanos;
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, Hold> holds = new ConcurrentHashMap<>();
+    private final Map<Long, Reservation> confirmed = new ConcurrentHashMap<>();
+    private final DelayQueue<Hold> expiryQueue = new DelayQueue<>();
+    private final List<Consumer<Reservation>> confirmationListeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong expiredCount = new AtomicLong();
+    private final AtomicLong conflictCount = new AtomicLong();
+
+    SlotReservationService(SlotAvailability availability, long holdTtlMillis) {
+        this.availability = availability;
+        this.holdTtlNanos = TimeUnit.MILLISECONDS.toNanos(holdTtlMillis);
+        Thread sweeper = new Thread(this::sweepExpiredHolds, "reservation-expiry");
+        sweeper.setDaemon(true);
+        sweeper.start();
+    }
+
+    /**
+     * Tries to hold {@code slotCount} slots from {@code startSlot}. Returns null when any
+     * of them is already held or booked, or falls outside operating hours.
+     */
+    Hold hold(TurfModel turf, LocalDate day, int startSlot, int slotCount, String holder) {
+        if (!availability.isRegistered(turf.getId())) {
+            availability.register(turf);
+        }
+        if (!availability.markBooked(turf.getId(), day, startSlot, slotCount)) {
+            conflictCount.incrementAndGet();
+            return null;
+        }
+        Hold hold = new Hold(ids.incrementAndGet(), turf, day, startSlot, slotCount, holder,
+                System.nanoTime() + holdTtlNanos);
+        holds.put(hold.id, hold);
+        expiryQueue.add(hold);
+        return hold;
+    }
+
+    /** Turns a live hold into a reservation; null if the hold already expired or was released. */
+    Reservation confirm(long holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold == null) {
+            return null;
+        }
+        Reservation reservation = new Reservation(hold, System.currentTimeMillis());
+        confirmed.put(reservation.id, reservation);
+        for (Consumer<Reservation> listener : confirmationListeners) {
+            listener.accept(reservation);
+        }
+        return reservation;
+    }
+
+    /** Gives up a hold before it expires (e.g. the user closed the payment page). */
+    boolean release(long holdId) {
+        Hold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        availability.release(hold.turf.getId(), hold.day, hold.startSlot, hold.slotCount);
+        return true;
+    }
+
+    boolean cancel(long reservationId) {
+        Reservation reservation = confirmed.remove(reservationId);
+        if (reservation == null) {
+            return false;
+        }
+        availability.release(reservation.turf.getId(), reservation.day, reservation.startSlot, reservation.slotCount);
+        return true;
+    }
+
+    void addConfirmationListener(Consumer<Reservation> listener) {
+        confirmationListeners.add(listener);
+    }
+
+    void removeConfirmationListener(Consumer<Reservation> listener) {
+        confirmationListeners.remove(listener);
+    }
+
+    /** The hold with this ID if it is still live, otherwise null. */
+    Hold activeHold(long holdId) {
+        return holds.get(holdId);
+    }
+
+    int activeHoldCount() {
+        return holds.size();
+    }
+
+    int confirmedCount() {
+        return confirmed.size();
+    }
+
+    long expiredCount() {
+        return expiredCount.get();
+    }
+
+    long conflictCount() {
+        return conflictCount.get();
+    }
+
+    Iterable<Reservation> confirmedReservations() {
+        return confirmed.values();
+    }
+
+    Iterable<Hold> activeHolds() {
+        return holds.values();
+    }
+
+    // Confirmed and released holds stay in the expiry queue until their deadline; the
+    // sweeper's conditional remove skips them, which keeps confirm/release off the
+    // queue's lock.
+    private void sweepExpiredHolds() {
+        while (true) {
+            try {
+                Hold hold = expiryQueue.take();
+                if (holds.remove(hold.id, hold)) {
+                    availability.release(hold.turf.getId(), hold.day, hold.startSlot, hold.slotCount);
+                    expiredCount.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
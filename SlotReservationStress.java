@@ -0,0 +1,181 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hammers {@link SlotReservationService} from many threads and checks that no slot
+ * ever ends up owned by two holds/reservations at once.
+ *
+ * Ownership is checked as it changes, not only at the end: every successful claim
+ * counts itself into a per-slot array and every release counts itself out before
+ * the slots are freed, so a slot held twice fails the run even if both holders
+ * have let go by the time the workers finish. Exits with status 1 on any failure.
+ *
+ * Usage: {@code java SlotReservationStress [threads] [attemptsPerThread] [turfs]}
+ */
+class SlotReservationStress {
+
+    /** Availability that records each slot's owner count at claim and release time. */
+    private static final class CheckedAvailability extends SlotAvailability {
+        private final LocalDate[] days;
+        private final AtomicIntegerArray owners;
+        final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+        CheckedAvailability(int turfCount, LocalDate[] days) {
+            this.days = days;
+            this.owners = new AtomicIntegerArray((turfCount + 1) * days.length * SLOTS_PER_DAY);
+        }
+
+        @Override
+        boolean markBooked(int turfId, LocalDate day, int startSlot, int slotCount) {
+            if (!super.markBooked(turfId, day, startSlot, slotCount)) {
+                return false;
+            }
+            for (int s = startSlot; s < startSlot + slotCount; s++) {
+                if (owners.incrementAndGet(index(turfId, day, s)) != 1) {
+                    fail("slot " + s + " of turf " + turfId + " on " + day + " claimed while already owned");
+                }
+            }
+            return true;
+        }
+
+        @Override
+        void release(int turfId, LocalDate day, int startSlot, int slotCount) {
+            // Counted out before the slots are freed, so the next claimer finds them unowned.
+            for (int s = startSlot; s < startSlot + slotCount; s++) {
+                if (owners.decrementAndGet(index(turfId, day, s)) != 0) {
+                    fail("slot " + s + " of turf " + turfId + " on " + day + " released without a single owner");
+                }
+            }
+            super.release(turfId, day, startSlot, slotCount);
+        }
+
+        void fail(String message) {
+            firstFailure.compareAndSet(null, message);
+        }
+
+        private int index(int turfId, LocalDate day, int slot) {
+            int d = 0;
+            while (!days[d].equals(day)) {
+                d++;
+            }
+            return (turfId * days.length + d) * SLOTS_PER_DAY + slot;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int attemptsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 50_000;
+        int turfCount = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+        LocalDate[] days = { LocalDate.now(), LocalDate.now().plusDays(1) };
+        CheckedAvailability availability = new CheckedAvailability(turfCount, days);
+        SlotReservationService service = new SlotReservationService(availability, 2);
+        List<TurfModel> turfs = new ArrayList<>();
+        for (int i = 0; i < turfCount; i++) {
+            turfs.add(new TurfModel(i + 1, "Stress Turf " + (i + 1), "", 1000, "06:00-24:00", "Football", null));
+        }
+
+        AtomicLong attempts = new AtomicLong();
+        AtomicLong holds = new AtomicLong();
+        AtomicLong confirms = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < attemptsPerThread && availability.firstFailure.get() == null; i++) {
+                    TurfModel turf = turfs.get(random.nextInt(turfs.size()));
+                    LocalDate day = days[random.nextInt(days.length)];
+                    int length = 2 + random.nextInt(7);
+                    int startSlot = 24 + random.nextInt(SlotAvailability.SLOTS_PER_DAY - 24 - length + 1);
+                    attempts.incrementAndGet();
+                    SlotReservationService.Hold hold = service.hold(turf, day, startSlot, length, "stress");
+                    if (hold == null) {
+                        continue;
+                    }
+                    holds.incrementAndGet();
+                    int outcome = random.nextInt(10);
+                    if (outcome < 3) {
+                        if (service.confirm(hold.id) != null) {
+                            confirms.incrementAndGet();
+                        }
+                    } else if (outcome < 8) {
+                        service.release(hold.id);
+                    }
+                    // otherwise abandon the hold and let it expire
+                    if (random.nextInt(5) == 0) {
+                        for (SlotReservationService.Reservation r : service.confirmedReservations()) {
+                            service.cancel(r.id);
+                            break;
+                        }
+                    }
+                }
+            }, "stress-" + t);
+            worker.setUncaughtExceptionHandler((thread, e) -> {
+                availability.fail(thread.getName() + " died: " + e);
+                e.printStackTrace();
+            });
+            workers.add(worker);
+            worker.start();
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        // Let abandoned holds finish expiring so the final state is quiescent.
+        while (availability.firstFailure.get() == null && service.activeHoldCount() > 0) {
+            Thread.sleep(10);
+        }
+
+        int doubleBooked = 0;
+        for (TurfModel turf : turfs) {
+            for (LocalDate day : days) {
+                int[] owners = new int[SlotAvailability.SLOTS_PER_DAY];
+                for (SlotReservationService.Reservation r : service.confirmedReservations()) {
+                    if (r.turf == turf && r.day.equals(day)) {
+                        for (int s = r.startSlot; s < r.startSlot + r.slotCount; s++) owners[s]++;
+                    }
+                }
+                for (SlotReservationService.Hold h : service.activeHolds()) {
+                    if (h.turf == turf && h.day.equals(day)) {
+                        for (int s = h.startSlot; s < h.startSlot + h.slotCount; s++) owners[s]++;
+                    }
+                }
+                boolean[] free = new boolean[SlotAvailability.SLOTS_PER_DAY];
+                for (SlotAvailability.SlotRange range : availability.freeSlots(turf.getId(), day, null)) {
+                    for (int s = range.startSlot; s < range.endSlot; s++) free[s] = true;
+                }
+                for (int s = 0; s < owners.length; s++) {
+                    // Two owners, or an owned slot that the availability mask reports as free.
+                    if (owners[s] > 1 || (owners[s] == 1 && free[s])) {
+                        doubleBooked++;
+                    }
+                }
+            }
+        }
+
+        System.out.printf("threads=%d attempts=%d (%.0f/s) holds=%d confirmed=%d conflicts=%d expired=%d%n",
+                threads, attempts.get(), attempts.get() / seconds, holds.get(), confirms.get(),
+                service.conflictCount(), service.expiredCount());
+        String failure = availability.firstFailure.get();
+        if (failure == null && doubleBooked > 0) {
+            failure = doubleBooked + " slot conflicts in the final state";
+        }
+        System.out.println(failure == null ? "OK: no double-booked slots" : "FAIL: " + failure);
+        System.exit(failure == null ? 0 : 1);
+    }
+}
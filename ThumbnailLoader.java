@@ -0,0 +1,316 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.Icon;
+import javax.swing.ImageIcon;
+import javax.swing.SwingUtilities;
+
+/**
+ * Decodes turf images into card-sized thumbnails off the event thread.
+ *
+ * Callers get a placeholder straight away and a callback on the EDT once the
+ * thumbnail is ready. Decoding subsamples while reading, so a large JPEG is never
+ * fully expanded in memory. Finished thumbnails live in an LRU bounded by pixel
+ * bytes, and optionally as scaled PNGs on disk so the next start skips the decode.
+ * Work for cards that scrolled out of view is cancelled with {@link #retainOnly}.
+ *
+ * Cache keys include the image's modification time. The file is stat'ed again at
+ * most every {@code turf.thumbs.recheckMs}, so an edited image gets a fresh
+ * thumbnail without a stat per paint.
+ */
+class ThumbnailLoader {
+
+    private static final ThumbnailLoader SHARED = new ThumbnailLoader(
+            Long.getLong("turf.thumbs.maxBytes", 16L * 1024 * 1024),
+            Boolean.parseBoolean(System.getProperty("turf.thumbs.diskCache", "true"))
+                    ? new File(System.getProperty("user.home"), ".turfhub/thumbs") : null);
+
+    private static final long KEY_RECHECK_MS = Long.getLong("turf.thumbs.recheckMs", 2_000);
+    private static final int MAX_REMEMBERED_KEYS = 4096;
+
+    static ThumbnailLoader shared() {
+        return SHARED;
+    }
+
+    /** A computed cache key and when its file was last stat'ed. */
+    private static final class KeyCheck {
+        final String key;
+        final long checkedAt;
+
+        KeyCheck(String key, long checkedAt) {
+            this.key = key;
+            this.checkedAt = checkedAt;
+        }
+    }
+
+    private final long maxBytes;
+    private final File diskCacheDir;
+    private final ThreadPoolExecutor decoders;
+    private final Map<String, Future<?>> pending = new ConcurrentHashMap<>();
+    private final Set<String> missing = Collections.synchronizedSet(Collections.newSetFromMap(boundedLru()));
+    private final LinkedHashMap<String, ImageIcon> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, Icon> placeholders = new ConcurrentHashMap<>();
+    // Guarded by itself.
+    private final Map<String, KeyCheck> keys = boundedLru();
+    private long memoryBytes;
+
+    ThumbnailLoader(long maxBytes, File diskCacheDir) {
+        this.maxBytes = maxBytes;
+        this.diskCacheDir = diskCacheDir;
+        AtomicInteger counter = new AtomicInteger();
+        // LIFO queue: the most recently requested (i.e. currently visible) cards decode first.
+        this.decoders = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS, new LinkedBlockingDeque<Runnable>() {
+            @Override
+            public boolean offer(Runnable r) {
+                return offerFirst(r);
+            }
+        }, r -> {
+            Thread t = new Thread(r, "thumbnail-decoder-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(Thread.MIN_PRIORITY);
+            return t;
+        });
+        this.decoders.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Returns the thumbnail if it is in memory; otherwise returns a placeholder and
+     * schedules a decode, calling {@code onReady} on the EDT once it is available.
+     * EDT only.
+     */
+    Icon get(String imagePath, int width, int height, Runnable onReady) {
+        if (imagePath == null || imagePath.isEmpty()) {
+            return placeholder(width, height);
+        }
+        String key = currentKey(imagePath, width, height);
+        synchronized (memory) {
+            ImageIcon icon = memory.get(key);
+            if (icon != null) {
+                return icon;
+            }
+        }
+        if (!missing.contains(key) && !pending.containsKey(key)) {
+            // Registered before it can run, so the task's own cleanup always finds it.
+            FutureTask<Void> task = new FutureTask<>(() -> load(key, imagePath, width, height, onReady), null) {
+                @Override
+                protected void done() {
+                    // Only this task: a cancelled one may finish after a newer one was queued.
+                    pending.remove(key, this);
+                }
+            };
+            pending.put(key, task);
+            decoders.execute(task);
+        }
+        return placeholder(width, height);
+    }
+
+    /** Cancels queued or running decodes whose image is not among {@code visiblePaths}. */
+    void retainOnly(Collection<String> visiblePaths, int width, int height) {
+        Set<String> keep = new HashSet<>();
+        for (String path : visiblePaths) {
+            KeyCheck check;
+            synchronized (keys) {
+                check = path == null ? null : keys.get(path + "|" + width + "x" + height);
+            }
+            if (check != null) {
+                keep.add(check.key);
+            }
+        }
+        for (Map.Entry<String, Future<?>> entry : pending.entrySet()) {
+            if (!keep.contains(entry.getKey()) && entry.getValue().cancel(true)) {
+                pending.remove(entry.getKey(), entry.getValue());
+            }
+        }
+        decoders.purge();
+    }
+
+    private void load(String key, String imagePath, int width, int height, Runnable onReady) {
+        try {
+            BufferedImage thumb = readFromDisk(key);
+            if (thumb == null) {
+                thumb = decodeScaled(new File(imagePath), width, height);
+                if (thumb == null) {
+                    missing.add(key);
+                    SwingUtilities.invokeLater(onReady);
+                    return;
+                }
+                writeToDisk(key, thumb);
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            remember(key, new ImageIcon(thumb), (long) thumb.getWidth() * thumb.getHeight() * 4);
+            SwingUtilities.invokeLater(onReady);
+        } catch (IOException e) {
+            missing.add(key);
+            System.err.println("Could not load turf image " + imagePath + ": " + e.getMessage());
+        }
+    }
+
+    /** The key for the image as it is now, re-stat'ing the file once the memo is stale. */
+    private String currentKey(String imagePath, int width, int height) {
+        String memo = imagePath + "|" + width + "x" + height;
+        long now = System.currentTimeMillis();
+        synchronized (keys) {
+            KeyCheck check = keys.get(memo);
+            if (check != null && now - check.checkedAt < KEY_RECHECK_MS) {
+                return check.key;
+            }
+        }
+        String key = key(imagePath, width, height);
+        synchronized (keys) {
+            keys.put(memo, new KeyCheck(key, now));
+        }
+        return key;
+    }
+
+    private static <V> Map<String, V> boundedLru() {
+        return new LinkedHashMap<String, V>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_REMEMBERED_KEYS;
+            }
+        };
+    }
+
+    private void remember(String key, ImageIcon icon, long bytes) {
+        synchronized (memory) {
+            ImageIcon previous = memory.put(key, icon);
+            if (previous != null) {
+                memoryBytes -= (long) previous.getIconWidth() * previous.getIconHeight() * 4;
+            }
+            memoryBytes += bytes;
+            Iterator<ImageIcon> eldest = memory.values().iterator();
+            while (memoryBytes > maxBytes && memory.size() > 1 && eldest.hasNext()) {
+                ImageIcon evicted = eldest.next();
+                eldest.remove();
+                memoryBytes -= (long) evicted.getIconWidth() * evicted.getIconHeight() * 4;
+            }
+        }
+    }
+
+    /** Reads {@code file} subsampled to roughly the target size, then scales to fit exactly. */
+    static BufferedImage decodeScaled(File file, int width, int height) throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (ImageInputStream in = ImageIO.createImageInputStream(file)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                int step = Math.max(1, Math.min(sourceWidth / (width * 2), sourceHeight / (height * 2)));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return scaleToFill(reader.read(0, param), width, height);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleToFill(BufferedImage source, int width, int height) {
+        double scale = Math.max((double) width / source.getWidth(), (double) height / source.getHeight());
+        int scaledWidth = (int) Math.ceil(source.getWidth() * scale);
+        int scaledHeight = (int) Math.ceil(source.getHeight() * scale);
+        BufferedImage thumb = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = thumb.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(source, (width - scaledWidth) / 2, (height - scaledHeight) / 2, scaledWidth, scaledHeight, null);
+        } finally {
+            g.dispose();
+        }
+        return thumb;
+    }
+
+    private BufferedImage readFromDisk(String key) {
+        if (diskCacheDir == null) {
+            return null;
+        }
+        File cached = new File(diskCacheDir, key + ".png");
+        if (!cached.isFile()) {
+            return null;
+        }
+        try {
+            return ImageIO.read(cached);
+        } catch (IOException e) {
+            cached.delete();
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, BufferedImage thumb) {
+        if (diskCacheDir == null || (!diskCacheDir.isDirectory() && !diskCacheDir.mkdirs())) {
+            return;
+        }
+        File target = new File(diskCacheDir, key + ".png");
+        File temp = new File(diskCacheDir, key + ".tmp");
+        try {
+            if (ImageIO.write(thumb, "png", temp) && !temp.renameTo(target)) {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            temp.delete();
+        }
+    }
+
+    private Icon placeholder(int width, int height) {
+        return placeholders.computeIfAbsent(width + "x" + height, k -> {
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = image.createGraphics();
+            g.setColor(new Color(230, 230, 230));
+            g.fillRect(0, 0, width, height);
+            g.setColor(new Color(200, 200, 200));
+            g.drawRect(0, 0, width - 1, height - 1);
+            g.dispose();
+            return new ImageIcon(image);
+        });
+    }
+
+    /** Source path, size and modification time, hashed so it is safe as a file name. */
+    private static String key(String imagePath, int width, int height) {
+        String raw = new File(imagePath).getAbsolutePath() + "|" + new File(imagePath).lastModified()
+                + "|" + width + "x" + height;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(raw.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 12; i++) {
+                hex.append(String.format("%02x", digest[i]));
+            }
+            return hex.append('-').append(width).append('x').append(height).toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through repository of turfs by category.
+ *
+ * Results are cached per category in a size-bounded LRU with a time-to-live.
+ * Concurrent misses for the same category share one load (single flight), and a
+ * load that races with {@link #invalidate} is returned to its callers but not
+ * cached, so an owner's edit is never hidden behind a stale entry.
+ *
+ * Every category that is loaded is also fed into a {@link TurfSearchIndex} over turf
+ * names and addresses, which {@link #search} answers from, and its turfs that have
+ * coordinates into a {@link GeoIndex} for {@link #nearest} and {@link #within}.
+ */
+class TurfCatalog {
+
+    interface Loader {
+        List<TurfModel> load(String category) throws Exception;
+    }
+
+    static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long loads;
+        public final long loadFailures;
+        public final long evictions;
+        public final int size;
+
+        Stats(long hits, long misses, long loads, long loadFailures, long evictions, int size) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.loadFailures = loadFailures;
+            this.evictions = evictions;
+            this.size = size;
+        }
+
+        @Override
+        public String toString() {
+            return "hits=" + hits + " misses=" + misses + " loads=" + loads + " loadFailures=" + loadFailures
+                    + " evictions=" + evictions + " size=" + size;
+        }
+    }
+
+    private static final class Entry {
+        final List<TurfModel> turfs;
+        final long loadedAt;
+
+        Entry(List<TurfModel> turfs, long loadedAt) {
+            this.turfs = turfs;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private static final TurfCatalog SHARED = new TurfCatalog(
+            "db".equals(System.getProperty("turf.catalog.source")) ? TurfCatalog::loadFromDatabase : TurfCatalog::loadSimulated,
+            Integer.getInteger("turf.catalog.maxCategories", 64),
+            Long.getLong("turf.catalog.ttlMs", 5 * 60_000));
+
+    static TurfCatalog shared() {
+        return SHARED;
+    }
+
+    private final Loader loader;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final LinkedHashMap<String, Entry> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<List<TurfModel>>> inFlight = new ConcurrentHashMap<>();
+    // Bumped by invalidation; guarded by "cache", so a load compares and stores atomically.
+    private final Map<String, Long> versions = new HashMap<>();
+    private final TurfSearchIndex<TurfModel> searchIndex = new TurfSearchIndex<>();
+    private final GeoIndex<TurfModel> geoIndex = new GeoIndex<>();
+    private final Map<String, Set<Integer>> indexedByCategory = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadFailures = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    TurfCatalog(Loader loader, int maxEntries, long ttlMillis) {
+        this.loader = loader;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /** All turfs in {@code category}, loading them on a miss. The list is unmodifiable. */
+    List<TurfModel> byCategory(String category) throws Exception {
+        List<TurfModel> cached = lookup(category);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<List<TurfModel>> mine = new CompletableFuture<>();
+        CompletableFuture<List<TurfModel>> running = inFlight.putIfAbsent(category, mine);
+        if (running != null) {
+            return await(running);
+        }
+
+        long version;
+        synchronized (cache) {
+            version = versions.getOrDefault(category, 0L);
+        }
+        try {
+            loads.incrementAndGet();
+            List<TurfModel> loaded = Collections.unmodifiableList(new ArrayList<>(loader.load(category)));
+            synchronized (cache) {
+                if (versions.getOrDefault(category, 0L) == version) {
+                    store(category, loaded);
+                    indexCategory(category, loaded);
+                }
+            }
+            mine.complete(loaded);
+            return loaded;
+        } catch (Exception e) {
+            loadFailures.incrementAndGet();
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(category, mine);
+        }
+    }
+
+    /** The turf with this ID in any category, loading categories as needed; null if there is none. */
+    TurfModel find(int turfId) {
+        for (String category : TurfOwnerDashboard.CATEGORIES) {
+            try {
+                for (TurfModel turf : byCategory(category)) {
+                    if (turf.getId() == turfId) {
+                        return turf;
+                    }
+                }
+            } catch (Exception e) {
+                System.err.println("Could not load " + category + " turfs: " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /** A page of {@link #byCategory}; empty once {@code offset} is past the end. */
+    List<TurfModel> page(String category, int offset, int limit) throws Exception {
+        List<TurfModel> all = byCategory(category);
+        if (offset >= all.size()) {
+            return Collections.emptyList();
+        }
+        return all.subList(offset, Math.min(all.size(), offset + limit));
+    }
+
+    /**
+     * Best {@code limit} turfs in {@code categories} whose name or address matches
+     * {@code query}, typos allowed. Categories not loaded yet are loaded first, so call
+     * this off the EDT.
+     */
+    List<TurfModel> search(String query, int limit, Collection<String> categories) {
+        ensureLoaded(categories);
+        return searchIndex.search(query, limit, turf -> categories.contains(turf.getCategory()));
+    }
+
+    /**
+     * The {@code k} turfs nearest to ({@code lat}, {@code lon}), nearest first, in
+     * {@code category} (any if null) at no more than {@code maxPrice} per hour. Turfs
+     * without coordinates are never returned. Loads the category first, so call this
+     * off the EDT.
+     */
+    List<GeoIndex.Hit<TurfModel>> nearest(double lat, double lon, int k, String category, double maxPrice) {
+        ensureLoaded(categoriesFor(category));
+        return geoIndex.nearest(lat, lon, k, category, maxPrice);
+    }
+
+    /** Like {@link #nearest}, but every match within {@code radiusKm}, up to {@code limit}. */
+    List<GeoIndex.Hit<TurfModel>> within(double lat, double lon, double radiusKm, String category, double maxPrice,
+                                         int limit) {
+        ensureLoaded(categoriesFor(category));
+        return geoIndex.within(lat, lon, radiusKm, category, maxPrice, limit);
+    }
+
+    private static Collection<String> categoriesFor(String category) {
+        return category == null ? Arrays.asList(TurfOwnerDashboard.CATEGORIES) : Collections.singletonList(category);
+    }
+
+    private void ensureLoaded(Collection<String> categories) {
+        for (String category : categories) {
+            try {
+                byCategory(category);
+            } catch (Exception e) {
+                System.err.println("Could not load " + category + " turfs for search: " + e.getMessage());
+            }
+        }
+    }
+
+    /** Brings the search index in line with a fresh load of {@code category}. */
+    private void indexCategory(String category, List<TurfModel> turfs) {
+        synchronized (indexedByCategory) {
+            Set<Integer> previous = indexedByCategory.getOrDefault(category, Collections.emptySet());
+            Set<Integer> current = new HashSet<>();
+            for (TurfModel turf : turfs) {
+                current.add(turf.getId());
+                putInIndexes(turf);
+            }
+            for (int id : previous) {
+                if (!current.contains(id)) {
+                    searchIndex.remove(String.valueOf(id));
+                    geoIndex.remove(String.valueOf(id));
+                }
+            }
+            indexedByCategory.put(category, current);
+        }
+    }
+
+    /** Adds or replaces one turf in the search and geo indexes without waiting for a reload. */
+    private void indexTurf(TurfModel turf) {
+        synchronized (indexedByCategory) {
+            for (Set<Integer> ids : indexedByCategory.values()) {
+                ids.remove(turf.getId()); // in case it moved category
+            }
+            indexedByCategory.computeIfAbsent(turf.getCategory(), c -> new HashSet<>()).add(turf.getId());
+            putInIndexes(turf);
+        }
+    }
+
+    private void putInIndexes(TurfModel turf) {
+        String key = String.valueOf(turf.getId());
+        searchIndex.put(key, turf, turf.getName(), turf.getAddress());
+        if (turf.hasLocation()) {
+            geoIndex.put(key, turf, turf.getLatitude(), turf.getLongitude(), turf.getCategory(), turf.getPricePerHour());
+        } else {
+            geoIndex.remove(key);
+        }
+    }
+
+    /** Drops the cached turfs of one category, e.g. after an owner adds or edits a turf in it. */
+    void invalidate(String category) {
+        synchronized (cache) {
+            versions.merge(category, 1L, Long::sum);
+            cache.remove(category);
+        }
+    }
+
+    void invalidateAll() {
+        synchronized (cache) {
+            for (String category : cache.keySet()) {
+                versions.merge(category, 1L, Long::sum);
+            }
+            for (String category : inFlight.keySet()) {
+                versions.merge(category, 1L, Long::sum);
+            }
+            cache.clear();
+        }
+    }
+
+    Stats stats() {
+        int size;
+        synchronized (cache) {
+            size = cache.size();
+        }
+        return new Stats(hits.get(), misses.get(), loads.get(), loadFailures.get(), evictions.get(), size);
+    }
+
+    private List<TurfModel> lookup(String category) {
+        synchronized (cache) {
+            Entry entry = cache.get(category);
+            if (entry == null) {
+                return null;
+            }
+            if (System.currentTimeMillis() - entry.loadedAt > ttlMillis) {
+                cache.remove(category);
+                evictions.incrementAndGet();
+                return null;
+            }
+            return entry.turfs;
+        }
+    }
+
+    private void store(String category, List<TurfModel> turfs) {
+        synchronized (cache) {
+            cache.put(category, new Entry(turfs, System.currentTimeMillis()));
+            Iterator<Map.Entry<String, Entry>> eldest = cache.entrySet().iterator();
+            while (cache.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static List<TurfModel> await(CompletableFuture<List<TurfModel>> running) throws Exception {
+        try {
+            return running.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw e;
+        }
+    }
+
+    // --- Sources ------------------------------------------------------------------
+
+    private static final List<TurfModel> OWNER_LISTED = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Adds or replaces a turf listed from the owner console in the simulated source
+     * and invalidates its category.
+     */
+    static void listTurf(TurfModel turf) {
+        synchronized (OWNER_LISTED) {
+            OWNER_LISTED.removeIf(t -> t.getId() == turf.getId());
+            OWNER_LISTED.add(turf);
+        }
+        SHARED.invalidate(turf.getCategory());
+        SHARED.indexTurf(turf);
+    }
+
+    static List<TurfModel> loadSimulated(String category) {
+        List<TurfModel> turfs = new ArrayList<>();
+        if ("Football".equals(category)) {
+            turfs.add(new TurfModel(1, "Football Field A", "123 Street, City", 800, "08:00-22:00", "Football",
+                    "images/football1.jpg", 9.9816, 76.2999));
+            turfs.add(new TurfModel(2, "Soccer Dome", "456 Avenue, Town", 1000, "09:00-23:00", "Football",
+                    "images/football2.jpg", 10.0159, 76.3419));
+            turfs.add(new TurfModel(3, "Kick Off Grounds", "789 Road, Village", 750, "07:00-21:00", "Football",
+                    "images/football3.jpg", 9.9312, 76.2673));
+        }
+        synchronized (OWNER_LISTED) {
+            for (TurfModel turf : OWNER_LISTED) {
+                if (turf.getCategory().equals(category)) {
+                    turfs.add(turf);
+                }
+            }
+        }
+        return turfs;
+    }
+
+    static List<TurfModel> loadFromDatabase(String category) throws Exception {
+        List<TurfModel> turfs = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection()) {
+            // SELECT * so that schemas without the optional latitude/longitude columns still load.
+            String query = "SELECT * FROM turfs WHERE category=? ORDER BY id";
+            PreparedStatement pst = conn.prepareStatement(query);
+            pst.setString(1, category);
+            ResultSet rs = pst.executeQuery();
+            int latColumn = columnIndex(rs.getMetaData(), "latitude");
+            int lonColumn = columnIndex(rs.getMetaData(), "longitude");
+            while (rs.next()) {
+                turfs.add(new TurfModel(rs.getInt("id"), rs.getString("name"), rs.getString("address"),
+                        rs.getInt("price_per_hour"), rs.getString("operating_hours"), rs.getString("category"),
+                        rs.getString("image_path"), optionalDouble(rs, latColumn), optionalDouble(rs, lonColumn)));
+            }
+        }
+        return turfs;
+    }
+
+    private static int columnIndex(ResultSetMetaData meta, String name) throws Exception {
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (meta.getColumnLabel(i).equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static double optionalDouble(ResultSet rs, int column) throws Exception {
+        if (column < 0) {
+            return Double.NaN;
+        }
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+}
@@ -1,16 +1,55 @@
 import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import javax.swing.*; 
 
 public class TurfHub extends JFrame {
 
     private final Color BLUE = new Color(0x123499); 
-    private final Color DARK_TEXT = new Color(50, 50, 50);
-    private final Color WHITE = Color.WHITE;
-    private final Color GRAY_BG = new Color(245, 245, 245);
+    private static final Color DARK_TEXT = new Color(50, 50, 50);
+    private static final Color WHITE = Color.WHITE;
+    private static final Color GRAY_BG = new Color(245, 245, 245);
+
+    private static final int PAGE_SIZE = 50;
+    static final int CARD_HEIGHT = 135;
+    private static final int THUMB_WIDTH = 150;
+    private static final int THUMB_HEIGHT = 104;
+    private static final int SEARCH_RESULTS = 20;
+    private static final int NEARBY_RESULTS = 20;
+
+    // Nearby queries, and in remote mode bookings and logout, run here instead of on the EDT.
+    private static final ExecutorService REQUESTS = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "turf-hub-requests");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private static final Metrics.Timer PAGE_LOAD_TIMER = Metrics.timer("ui.hub.pageLoad");
+    private static final Metrics.Timer PAGE_APPLY_TIMER = Metrics.timer("ui.hub.pageApply");
 
     private JPanel turfDisplayPanel; 
+    private JLabel titleLabel;
+    private JLabel earliestLabel;
+    private JList<TurfModel> turfList;
+    private PagedTurfListModel turfListModel;
+    private final DefaultListModel<TurfModel> searchResults = new DefaultListModel<>();
+    private String currentCategory;
+    private JButton nearbyButton;
+    private String userLocation = System.getProperty("turf.user.location", "");
+    private boolean showingNearby;
+    private final SlotAvailability availability = SlotAvailability.shared();
+    private final SlotReservationService reservations = SlotReservationService.shared();
+    private final ThumbnailLoader thumbnails = ThumbnailLoader.shared();
 
     public TurfHub() { this("Football"); }
 
@@ -21,109 +60,497 @@ public class TurfHub extends JFrame {
         setLocationRelativeTo(null); 
         setLayout(new BorderLayout());
 
-        JScrollPane scrollPane = createHubContent(); 
-        add(scrollPane, BorderLayout.CENTER); 
+        add(createHubContent(), BorderLayout.CENTER); 
         setVisible(true);
         displayTurfsForCategory(category); 
     }
     
-    private JScrollPane createHubContent() {
-        JPanel container = new JPanel(new FlowLayout(FlowLayout.CENTER));
-        container.setBackground(GRAY_BG);
-        
-        turfDisplayPanel = new JPanel(); 
-        turfDisplayPanel.setLayout(new BoxLayout(turfDisplayPanel, BoxLayout.Y_AXIS));
+    private JPanel createHubContent() {
+        turfDisplayPanel = new JPanel(new BorderLayout()); 
         turfDisplayPanel.setBackground(GRAY_BG);
         turfDisplayPanel.setBorder(BorderFactory.createEmptyBorder(10, 15, 15, 15));
-        
-        container.add(turfDisplayPanel); 
-        
-        JScrollPane scrollPane = new JScrollPane(container);
+
+        JPanel header = new JPanel();
+        header.setLayout(new BoxLayout(header, BoxLayout.Y_AXIS));
+        header.setOpaque(false);
+
+        titleLabel = new JLabel();
+        titleLabel.setFont(new Font("Segoe UI", Font.BOLD, 20));
+        titleLabel.setForeground(DARK_TEXT);
+        titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT); 
+        header.add(titleLabel);
+        header.add(Box.createVerticalStrut(6));
+
+        JTextField searchField = new JTextField();
+        searchField.setToolTipText("Search turfs by name or address");
+        searchField.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+        searchField.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
+        searchField.setAlignmentX(Component.LEFT_ALIGNMENT);
+        nearbyButton = new JButton("Turfs near me");
+        nearbyButton.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        nearbyButton.setFocusPainted(false);
+        nearbyButton.addActionListener(e -> toggleNearby());
+        JPanel searchRow = new JPanel(new BorderLayout(8, 0));
+        searchRow.setOpaque(false);
+        searchRow.add(searchField, BorderLayout.CENTER);
+        searchRow.add(nearbyButton, BorderLayout.EAST);
+        searchRow.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
+        searchRow.setAlignmentX(Component.LEFT_ALIGNMENT);
+        header.add(searchRow);
+        header.add(Box.createVerticalStrut(6));
+        new DebouncedSearch<TurfModel>(searchField,
+                this::searchTurfs,
+                this::showSearchResults);
+
+        earliestLabel = new JLabel(" ");
+        earliestLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        earliestLabel.setForeground(DARK_TEXT);
+        earliestLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        header.add(earliestLabel);
+        header.add(Box.createVerticalStrut(10)); 
+        turfDisplayPanel.add(header, BorderLayout.NORTH);
+
+        // One renderer paints every row, and the fixed cell size means the list never
+        // measures rows it is not showing, so cost stays flat however many turfs load.
+        TurfCardRenderer renderer = new TurfCardRenderer(availability, thumbnails);
+        turfList = new JList<>();
+        turfList.setCellRenderer(renderer);
+        turfList.setFixedCellHeight(CARD_HEIGHT);
+        turfList.setFixedCellWidth(750);
+        turfList.setBackground(GRAY_BG);
+        turfList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        turfList.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                TurfModel turf = bookButtonTurfAt(renderer, e.getPoint());
+                if (turf != null) {
+                    handleBookNow(turf);
+                }
+            }
+        });
+        turfList.addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                boolean overButton = bookButtonTurfAt(renderer, e.getPoint()) != null;
+                turfList.setCursor(overButton ? Cursor.getPredefinedCursor(Cursor.HAND_CURSOR) : Cursor.getDefaultCursor());
+            }
+        });
+
+        JScrollPane scrollPane = new JScrollPane(turfList);
         scrollPane.setBorder(null);
-        return scrollPane;
+        scrollPane.getVerticalScrollBar().setUnitIncrement(16);
+        scrollPane.getViewport().addChangeListener(e -> {
+            loadMoreIfNeeded();
+            cancelOffscreenThumbnails();
+        });
+        turfDisplayPanel.add(scrollPane, BorderLayout.CENTER);
+        return turfDisplayPanel;
     }
 
     private void displayTurfsForCategory(String category) {
-        turfDisplayPanel.removeAll(); 
+        currentCategory = category;
+        titleLabel.setText(category + " Turfs");
+        earliestLabel.setText("Loading turfs...");
+        turfListModel = new PagedTurfListModel(this::loadTurfPage, category, PAGE_SIZE, this::onPageLoaded);
+        turfList.setModel(turfListModel);
+        turfListModel.ensureLoaded(0);
+    }
 
-        List<TurfModel> turfs = getSimulatedTurfsByCategory(category + "Turfs");
-        turfs = turfs.subList(0, Math.min(turfs.size(), 3)); 
+    /** Shows ranked matches across all categories, or the category listing again once cleared. */
+    private void showSearchResults(String query, List<TurfModel> results) {
+        if (query.isEmpty()) {
+            showCategoryListing();
+            return;
+        }
+        showingNearby = false;
+        nearbyButton.setText("Turfs near me");
+        registerAvailability(results);
+        searchResults.clear();
+        searchResults.addAll(results);
+        titleLabel.setText("Results for \"" + query + "\"");
+        earliestLabel.setText(results.isEmpty() ? "No turfs match." : results.size() + " best matches");
+        turfList.setModel(searchResults);
+    }
 
-        if (turfs.isEmpty()) {
-            turfDisplayPanel.add(new JLabel("No " + category + " turfs found."));
-        } else {
-            JLabel title = new JLabel(category + " Turfs");
-            title.setFont(new Font("Segoe UI", Font.BOLD, 20));
-            title.setForeground(DARK_TEXT);
-            title.setAlignmentX(Component.LEFT_ALIGNMENT); 
-            turfDisplayPanel.add(title);
-            turfDisplayPanel.add(Box.createVerticalStrut(10)); 
-
-            for (TurfModel turf : turfs) {
-                turfDisplayPanel.add(createTurfCard(
-                    turf.getName(), turf.getAddress(), turf.getOperatingHours(), 
-                    turf.getPricePerHour(), turf.getImagePath() 
-                ));
-                turfDisplayPanel.add(Box.createVerticalStrut(15));
+    private void showCategoryListing() {
+        showingNearby = false;
+        nearbyButton.setText("Turfs near me");
+        titleLabel.setText(currentCategory + " Turfs");
+        turfList.setModel(turfListModel);
+        updateEarliestLabel();
+    }
+
+    /**
+     * Asks for the player's position ("lat, lon", prefilled from {@code turf.user.location})
+     * and an optional price cap, then lists the nearest turfs of the current category.
+     */
+    private void toggleNearby() {
+        if (showingNearby) {
+            showCategoryListing();
+            return;
+        }
+        JTextField locationField = new JTextField(userLocation, 20);
+        JTextField maxPriceField = new JTextField(8);
+        JPanel form = new JPanel(new GridLayout(0, 1, 0, 4));
+        form.add(new JLabel("Your location (latitude, longitude):"));
+        form.add(locationField);
+        form.add(new JLabel("Max price per hour (optional):"));
+        form.add(maxPriceField);
+        if (JOptionPane.showConfirmDialog(this, form, "Turfs near me", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        double lat;
+        double lon;
+        double maxPrice = Double.POSITIVE_INFINITY;
+        try {
+            String[] parts = locationField.getText().split(",");
+            lat = Double.parseDouble(parts[0].trim());
+            lon = Double.parseDouble(parts[1].trim());
+            if (!maxPriceField.getText().trim().isEmpty()) {
+                maxPrice = Double.parseDouble(maxPriceField.getText().trim());
             }
+        } catch (RuntimeException ex) {
+            lat = Double.NaN;
+            lon = Double.NaN;
+        }
+        if (!GeoIndex.validCoordinates(lat, lon)) {
+            JOptionPane.showMessageDialog(this, "Enter your location like 9.97, 76.28 and a numeric price.",
+                    "Input Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
-        turfDisplayPanel.revalidate();
-        turfDisplayPanel.repaint();
+        userLocation = locationField.getText().trim();
+        String category = currentCategory;
+        double qLat = lat;
+        double qLon = lon;
+        double cap = maxPrice;
+        earliestLabel.setText("Finding turfs near you...");
+        REQUESTS.execute(() -> {
+            List<GeoIndex.Hit<TurfModel>> hits;
+            try {
+                hits = RemoteTurfClient.isEnabled()
+                        ? RemoteTurfClient.shared().nearest(qLat, qLon, NEARBY_RESULTS, category, cap)
+                        : TurfCatalog.shared().nearest(qLat, qLon, NEARBY_RESULTS, category, cap);
+            } catch (IOException | RuntimeException e) {
+                System.err.println("Nearby search failed: " + e.getMessage());
+                e.printStackTrace();
+                hits = new ArrayList<>();
+            }
+            List<GeoIndex.Hit<TurfModel>> found = hits;
+            SwingUtilities.invokeLater(() -> showNearby(category, found));
+        });
     }
-    
-    private JPanel createTurfCard(String name, String address, String hours, int price, String imagePath) { 
-        JPanel card = new JPanel(new BorderLayout(0, 0)); 
-        card.setBackground(WHITE);
-        card.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1)); 
-        card.setPreferredSize(new Dimension(750, 120)); 
-
-        JLabel details = new JLabel("<html><b>" + name + "</b><br>" + address + "<br>" + hours + "</html>");
-        details.setFont(new Font("Segoe UI", Font.PLAIN, 12));
-        details.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 0)); 
-        card.add(details, BorderLayout.CENTER);
-
-        JPanel actionPanel = new JPanel(new BorderLayout()); 
-        actionPanel.setBackground(WHITE);
-        actionPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 15)); 
-
-        JLabel priceLabel = new JLabel("Price: ₹" + price + ".00/hour", SwingConstants.RIGHT); 
-        priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        priceLabel.setForeground(DARK_TEXT); 
-        actionPanel.add(priceLabel, BorderLayout.NORTH); 
-        
-        JButton bookButton = new JButton("Book Now");
-        bookButton.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        bookButton.setBackground(DARK_TEXT); 
-        bookButton.setForeground(WHITE);
-        bookButton.setFocusPainted(false);
-        bookButton.addActionListener(e -> handleBookNow()); 
-        actionPanel.add(bookButton, BorderLayout.SOUTH); 
-        
-        card.add(actionPanel, BorderLayout.EAST);
-        return card;
-    }
-
-    private void handleBookNow() {
-        if (!SessionManager.isLoggedIn()) {
+
+    private void showNearby(String category, List<GeoIndex.Hit<TurfModel>> hits) {
+        if (!category.equals(currentCategory)) {
+            return;
+        }
+        List<TurfModel> turfs = new ArrayList<>(hits.size());
+        for (GeoIndex.Hit<TurfModel> hit : hits) {
+            turfs.add(hit.value);
+        }
+        registerAvailability(turfs);
+        searchResults.clear();
+        searchResults.addAll(turfs);
+        showingNearby = true;
+        nearbyButton.setText("Show all");
+        titleLabel.setText("Nearest " + category + " Turfs");
+        earliestLabel.setText(hits.isEmpty() ? "No turfs with a map location match."
+                : String.format("%d turfs, %.1f to %.1f km away", hits.size(), hits.get(0).distanceKm,
+                        hits.get(hits.size() - 1).distanceKm));
+        turfList.setModel(searchResults);
+    }
+
+    private void registerAvailability(List<TurfModel> turfs) {
+        for (TurfModel turf : turfs) {
+            if (!availability.isRegistered(turf.getId())) {
+                availability.register(turf);
+            }
+        }
+    }
+
+    private List<TurfModel> searchTurfs(String query) {
+        if (!RemoteTurfClient.isEnabled()) {
+            return TurfCatalog.shared().search(query, SEARCH_RESULTS, Arrays.asList(TurfOwnerDashboard.CATEGORIES));
+        }
+        try {
+            return RemoteTurfClient.shared().search(query, SEARCH_RESULTS);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<TurfModel> loadTurfPage(String category, int offset, int limit) throws Exception {
+        long start = PAGE_LOAD_TIMER.start();
+        try {
+            return RemoteTurfClient.isEnabled()
+                    ? RemoteTurfClient.shared().page(category, offset, limit)
+                    : TurfCatalog.shared().page(category, offset, limit);
+        } finally {
+            PAGE_LOAD_TIMER.stop(start);
+        }
+    }
+
+    private void onPageLoaded(List<TurfModel> page) {
+        long start = PAGE_APPLY_TIMER.start();
+        try {
+            applyLoadedPage(page);
+        } finally {
+            PAGE_APPLY_TIMER.stop(start);
+        }
+    }
+
+    private void applyLoadedPage(List<TurfModel> page) {
+        registerAvailability(page);
+        if (turfList.getModel() != turfListModel) {
+            return; // search or nearby results are showing
+        }
+        if (turfListModel.getSize() == 0 && turfListModel.isExhausted()) {
+            earliestLabel.setText("No " + currentCategory + " turfs found.");
+            return;
+        }
+        updateEarliestLabel();
+        loadMoreIfNeeded();
+    }
+
+    private void loadMoreIfNeeded() {
+        if (turfListModel == null || turfList.getModel() != turfListModel) {
+            return;
+        }
+        int last = turfList.getLastVisibleIndex();
+        turfListModel.ensureLoaded(last < 0 ? turfListModel.getSize() : last);
+    }
+
+    private void cancelOffscreenThumbnails() {
+        int first = turfList.getFirstVisibleIndex();
+        int last = turfList.getLastVisibleIndex();
+        List<String> visible = new ArrayList<>();
+        for (int i = Math.max(first, 0); i >= 0 && i <= last; i++) {
+            visible.add(turfList.getModel().getElementAt(i).getImagePath());
+        }
+        thumbnails.retainOnly(visible, THUMB_WIDTH, THUMB_HEIGHT);
+    }
+
+    private void updateEarliestLabel() {
+        SlotAvailability.Window earliest = availability.firstFreeWindow(
+                currentCategory, LocalDate.now(), 1, LocalTime.now());
+        earliestLabel.setText(earliest == null
+                ? "No 1-hour slots left today"
+                : "Earliest 1-hour slot today: " + earliest.turf.getName() + " at " + earliest.range.start());
+    }
+
+    private TurfModel bookButtonTurfAt(TurfCardRenderer renderer, Point point) {
+        int index = turfList.locationToIndex(point);
+        if (index < 0) {
+            return null;
+        }
+        Rectangle cell = turfList.getCellBounds(index, index);
+        if (cell == null || !cell.contains(point)) {
+            return null;
+        }
+        TurfModel turf = turfList.getModel().getElementAt(index);
+        Component card = renderer.getListCellRendererComponent(turfList, turf, index, false, false);
+        card.setBounds(0, 0, cell.width, cell.height);
+        layoutTree(card);
+        Component hit = SwingUtilities.getDeepestComponentAt(card, point.x - cell.x, point.y - cell.y);
+        return hit == renderer.bookButton ? turf : null;
+    }
+
+    // validate() is a no-op for components that were never added to a window, so lay
+    // the detached renderer out by hand before hit-testing it.
+    static void layoutTree(Component component) {
+        if (component instanceof Container) {
+            Container container = (Container) component;
+            container.doLayout();
+            for (Component child : container.getComponents()) {
+                layoutTree(child);
+            }
+        }
+    }
+
+    /**
+     * Flyweight card: one set of components, re-filled for each row as it is painted.
+     * The Book Now button is only drawn here; clicks are hit-tested by the list.
+     * Needs no frame, so it can also be driven headless.
+     */
+    static class TurfCardRenderer implements ListCellRenderer<TurfModel> {
+        private final SlotAvailability availability;
+        private final ThumbnailLoader thumbnails;
+        private final JPanel wrapper = new JPanel(new BorderLayout());
+        private final JLabel image = new JLabel();
+        private final JLabel details = new JLabel();
+        private final JLabel priceLabel = new JLabel("", SwingConstants.RIGHT);
+        final JButton bookButton = new JButton("Book Now");
+
+        TurfCardRenderer(SlotAvailability availability, ThumbnailLoader thumbnails) {
+            this.availability = availability;
+            this.thumbnails = thumbnails;
+            JPanel card = new JPanel(new BorderLayout(0, 0)); 
+            card.setBackground(WHITE);
+            card.setBorder(BorderFactory.createLineBorder(Color.LIGHT_GRAY, 1)); 
+
+            image.setBorder(BorderFactory.createEmptyBorder(7, 7, 7, 0));
+            card.add(image, BorderLayout.WEST);
+
+            details.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+            details.setBorder(BorderFactory.createEmptyBorder(10, 15, 10, 0)); 
+            card.add(details, BorderLayout.CENTER);
+
+            JPanel actionPanel = new JPanel(new BorderLayout()); 
+            actionPanel.setBackground(WHITE);
+            actionPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 15)); 
+
+            priceLabel.setFont(new Font("Segoe UI", Font.BOLD, 14));
+            priceLabel.setForeground(DARK_TEXT); 
+            actionPanel.add(priceLabel, BorderLayout.NORTH); 
+
+            bookButton.setFont(new Font("Segoe UI", Font.BOLD, 14));
+            bookButton.setBackground(DARK_TEXT); 
+            bookButton.setForeground(WHITE);
+            bookButton.setFocusPainted(false);
+            actionPanel.add(bookButton, BorderLayout.SOUTH); 
+
+            card.add(actionPanel, BorderLayout.EAST);
+
+            wrapper.setBackground(GRAY_BG);
+            wrapper.setBorder(BorderFactory.createEmptyBorder(0, 0, 15, 0));
+            wrapper.add(card, BorderLayout.CENTER);
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<? extends TurfModel> list, TurfModel turf,
+                                                      int index, boolean isSelected, boolean cellHasFocus) {
+            image.setIcon(thumbnails.get(turf.getImagePath(), THUMB_WIDTH, THUMB_HEIGHT, list::repaint));
+            details.setText("<html><b>" + turf.getName() + "</b><br>" + turf.getAddress() + "<br>"
+                    + turf.getOperatingHours() + "<br>" + describeAvailability(turf) + "</html>");
+            priceLabel.setText("Price: ₹" + turf.getPricePerHour() + ".00/hour");
+            return wrapper;
+        }
+
+        private String describeAvailability(TurfModel turf) {
+            LocalDate today = LocalDate.now();
+            LocalTime now = LocalTime.now();
+            int freeSlots = availability.freeSlotCount(turf.getId(), today, now);
+            if (freeSlots == 0) {
+                return "<font color='#b00020'>Fully booked today</font>";
+            }
+            List<SlotAvailability.SlotRange> ranges = availability.freeSlots(turf.getId(), today, now);
+            double freeHours = freeSlots * SlotAvailability.SLOT_MINUTES / 60.0;
+            return "<font color='#1b7f3b'>" + String.format("%.2f", freeHours).replaceAll("\\.?0+$", "")
+                    + " h free today, next from " + ranges.get(0).start() + "</font>";
+        }
+    }
+
+    private void handleBookNow(TurfModel turf) {
+        SessionStore.Session session = SessionManager.currentSession();
+        if (session == null) {
              JOptionPane.showMessageDialog(this, "Please log in to book a slot.", "Session Expired", JOptionPane.ERROR_MESSAGE);
              new AuthPage();
              this.dispose();
              return;
         }
-        new BookingPage(); 
+        if (RemoteTurfClient.isEnabled()) {
+            holdRemotely(turf);
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        int oneHour = 60 / SlotAvailability.SLOT_MINUTES;
+        SlotAvailability.SlotRange slot = availability.firstFreeRun(turf.getId(), today, oneHour, LocalTime.now());
+        SlotReservationService.Hold hold = slot == null ? null
+                : reservations.hold(turf, today, slot.startSlot, slot.slotCount(), session.username);
+        if (hold == null) {
+            JOptionPane.showMessageDialog(this, turf.getName() + " has no free 1-hour slot left today.",
+                    "Fully Booked", JOptionPane.INFORMATION_MESSAGE);
+            turfListModel.rowChanged(turf);
+            updateEarliestLabel();
+            return;
+        }
+        turfListModel.rowChanged(turf);
+        updateEarliestLabel();
+        if (!askToPay(turf, slot.toString(), hold.totalCost(), SlotReservationService.DEFAULT_HOLD_TTL_MILLIS)) {
+            reservations.release(hold.id);
+        } else if (reservations.confirm(hold.id) != null) {
+            showBooked(turf, slot.toString());
+        } else {
+            showHoldExpired(turf);
+        }
+        turfListModel.rowChanged(turf);
+        updateEarliestLabel();
+    }
+
+    /**
+     * The payment step for a held slot. True when the user pays; false when they back
+     * out, in which case the caller releases the hold straight away rather than letting
+     * it block the slot until it expires.
+     */
+    private boolean askToPay(TurfModel turf, String range, double totalCost, long holdMillis) {
+        Object[] options = {"Pay & Confirm", "Cancel"};
+        return JOptionPane.showOptionDialog(this, "Holding " + turf.getName() + " " + range + " for "
+                        + Math.max(1, holdMillis / 60_000) + " minutes.\nPay ₹" + String.format("%.2f", totalCost)
+                        + " to confirm the booking.", "Slot Held", JOptionPane.DEFAULT_OPTION,
+                JOptionPane.QUESTION_MESSAGE, null, options, options[0]) == 0;
+    }
+
+    private void showBooked(TurfModel turf, String range) {
+        JOptionPane.showMessageDialog(this, turf.getName() + " " + range + " is booked.", "Booking Confirmed",
+                JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    private void showHoldExpired(TurfModel turf) {
+        JOptionPane.showMessageDialog(this, "The hold on " + turf.getName() + " expired before payment. Please book again.",
+                "Hold Expired", JOptionPane.WARNING_MESSAGE);
     }
     
-    private List<TurfModel> getSimulatedTurfsByCategory(String categoryIdentifier) {
-        List<TurfModel> turfs = new ArrayList<>();
-        if ("FootballTurfs".equals(categoryIdentifier)) {
-            turfs.add(new TurfModel(1, "Football Field A", "123 Street, City", 800, "08:00-22:00", "Football", "images/football1.jpg"));
-            turfs.add(new TurfModel(2, "Soccer Dome", "456 Avenue, Town", 1000, "09:00-23:00", "Football", "images/football2.jpg"));
-            turfs.add(new TurfModel(3, "Kick Off Grounds", "789 Road, Village", 750, "07:00-21:00", "Football", "images/football3.jpg"));
-        } 
-        return turfs;
+    /** Remote-mode Book Now: the server places the hold; the answer comes back on the EDT. */
+    private void holdRemotely(TurfModel turf) {
+        REQUESTS.execute(() -> {
+            RemoteTurfClient.RemoteHold hold;
+            try {
+                hold = RemoteTurfClient.shared().holdFirstFree(turf.getId(), 1);
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                        "Could not reach the booking server: " + e.getMessage(), "Booking Failed",
+                        JOptionPane.ERROR_MESSAGE));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (hold == null) {
+                    JOptionPane.showMessageDialog(this, turf.getName() + " has no free 1-hour slot left today.",
+                            "Fully Booked", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                boolean pay = askToPay(turf, hold.range, hold.totalCost, hold.expiresInMillis);
+                REQUESTS.execute(() -> finishRemoteHold(turf, hold, pay));
+            });
+        });
+    }
+
+    /** Confirms or releases a server-side hold off the EDT, reporting the outcome on it. */
+    private void finishRemoteHold(TurfModel turf, RemoteTurfClient.RemoteHold hold, boolean pay) {
+        try {
+            if (!pay) {
+                RemoteTurfClient.shared().release(hold.id);
+                return;
+            }
+            boolean confirmed = RemoteTurfClient.shared().confirm(hold.id);
+            SwingUtilities.invokeLater(() -> {
+                if (confirmed) {
+                    showBooked(turf, hold.range);
+                } else {
+                    showHoldExpired(turf);
+                }
+            });
+        } catch (IOException e) {
+            SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+                    "Could not reach the booking server: " + e.getMessage(), "Booking Failed",
+                    JOptionPane.ERROR_MESSAGE));
+        }
     }
 
     private void handleLogout() {
+        if (RemoteTurfClient.isEnabled()) {
+            REQUESTS.execute(RemoteTurfClient.shared()::logout);
+        }
         SessionManager.logout(); 
         this.dispose(); 
         new AuthPage(); 
@@ -131,6 +558,7 @@ public class TurfHub extends JFrame {
     }
 
     public static void main(String[] args) {
+        EdtWatchdog.installIfEnabled();
         javax.swing.SwingUtilities.invokeLater(() -> new TurfHub("Football"));
     }
 }
@@ -0,0 +1,44 @@
+/**
+ * A bookable turf as shown to players in {@link TurfHub}. Coordinates are NaN when the
+ * turf has not been placed on the map.
+ */
+class TurfModel {
+    private final int id;
+    private final String name;
+    private final String address;
+    private final int pricePerHour;
+    private final String operatingHours;
+    private final String category;
+    private final String imagePath;
+    private final double latitude;
+    private final double longitude;
+
+    public TurfModel(int id, String name, String address, int pricePerHour, String operatingHours,
+                     String category, String imagePath) {
+        this(id, name, address, pricePerHour, operatingHours, category, imagePath, Double.NaN, Double.NaN);
+    }
+
+    public TurfModel(int id, String name, String address, int pricePerHour, String operatingHours,
+                     String category, String imagePath, double latitude, double longitude) {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+        this.pricePerHour = pricePerHour;
+        this.operatingHours = operatingHours;
+        this.category = category;
+        this.imagePath = imagePath;
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    public int getId() { return id; }
+    public String getName() { return name; }
+    public String getAddress() { return address; }
+    public int getPricePerHour() { return pricePerHour; }
+    public String getOperatingHours() { return operatingHours; }
+    public String getCategory() { return category; }
+    public String getImagePath() { return imagePath; }
+    public double getLatitude() { return latitude; }
+    public double getLongitude() { return longitude; }
+    public boolean hasLocation() { return GeoIndex.validCoordinates(latitude, longitude); }
+}
@@ -1,9 +1,20 @@
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 import javax.swing.*;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
 
 public class TurfOwnerDashboard extends JFrame {
 
@@ -14,45 +25,108 @@ public class TurfOwnerDashboard extends JFrame {
     
     private JPanel cardPanel;
     private JPanel detailViewPanel; 
+    private final CardLayout detailCards = new CardLayout();
+    private final Map<String, DetailView> detailViews = new LinkedHashMap<>(16, 0.75f, true);
+    private DetailView shownDetail;
+    private final static int DETAIL_CACHE_SIZE = 16;
+    private final static int SEARCH_RESULTS = 20;
+    private final static int LIVE_REFRESH_MS = Integer.getInteger("turf.dashboard.liveRefreshMs", 250);
+    private final static int LIVE_QUEUE_TURFS = Integer.getInteger("turf.dashboard.liveQueueTurfs", 256);
     
     private final static Color APP_BACKGROUND = new Color(240, 240, 240);
     private final static Color ACCENT_COLOR = Color.BLACK; 
     private final static Color NEUTRAL_BUTTON_COLOR = new Color(220, 220, 220);
     private final static Color TEXT_COLOR_MAIN = new Color(50, 50, 50);
     private final static Color TURF_BOX_BACKGROUND = Color.WHITE;
+
+    final static String[] CATEGORIES = {"Football", "Cricket", "Badminton"};
+    final static String DEFAULT_OPERATING_HOURS = "06:00-23:00";
+
+    private static final Metrics.Timer LANDING_PANEL_TIMER = Metrics.timer("ui.dashboard.landingPanel");
+    private static final Metrics.Timer DETAIL_PANEL_TIMER = Metrics.timer("ui.dashboard.detailPanel");
+    private static final Metrics.Timer REVENUE_PANEL_TIMER = Metrics.timer("ui.dashboard.revenueRefresh");
     
     static class Turf {
         public final String id;
         public final String name;
         public final String location;
         public final double hourlyRate;
+        public final String category;
+        public final String operatingHours;
+        /** NaN when the turf has not been placed on the map. */
+        public final double latitude;
+        public final double longitude;
+        /** Username of the owner whose console created it; empty for the shared console. */
+        public final String owner;
 
         public Turf(String id, String name, String location, double hourlyRate) {
+            this(id, name, location, hourlyRate, "Football", DEFAULT_OPERATING_HOURS);
+        }
+
+        public Turf(String id, String name, String location, double hourlyRate, String category, String operatingHours) {
+            this(id, name, location, hourlyRate, category, operatingHours, Double.NaN, Double.NaN);
+        }
+
+        public Turf(String id, String name, String location, double hourlyRate, String category, String operatingHours,
+                    double latitude, double longitude) {
+            this(id, name, location, hourlyRate, category, operatingHours, latitude, longitude, "");
+        }
+
+        public Turf(String id, String name, String location, double hourlyRate, String category, String operatingHours,
+                    double latitude, double longitude, String owner) {
             this.id = id;
             this.name = name;
             this.location = location;
             this.hourlyRate = hourlyRate;
+            this.category = category;
+            this.operatingHours = operatingHours;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.owner = owner == null ? "" : owner;
         }
     }
 
     static class Booking {
         public final String turfId;
         public final double totalCost;
+        public final long bookedAt;
 
         public Booking(String turfId, double totalCost) {
+            this(turfId, totalCost, System.currentTimeMillis());
+        }
+
+        public Booking(String turfId, double totalCost, long bookedAt) {
             this.turfId = turfId;
             this.totalCost = totalCost;
+            this.bookedAt = bookedAt;
         }
     }
 
-    private final List<Booking> allBookings = new ArrayList<>();
-    private final List<Turf> managedTurfList = new ArrayList<>(); 
-    private int nextTurfId = 1004; 
+    private final OwnerLedger ledger;
+    private final ManagedTurfListModel managedTurfs = new ManagedTurfListModel();
+    private final TurfSearchIndex<Turf> turfSearch = new TurfSearchIndex<>();
+    private final BookingEventBus.Subscription ledgerEvents;
+    /** Applies queued ledger changes at most once per {@link #LIVE_REFRESH_MS}. */
+    private final Timer liveRefresh = new Timer(LIVE_REFRESH_MS, e -> applyLedgerEvents());
+    private long lastLiveRefresh;
 
     public TurfOwnerDashboard() {
+        this("");
+    }
+
+    /** A console over {@code owner}'s turfs and bookings only; empty for the shared console. */
+    public TurfOwnerDashboard(String owner) {
         super("Turf Management Platform");
 
-        initializeMockData();
+        ledger = OwnerLedgers.shared().acquire(owner);
+        managedTurfs.addListDataListener(new SearchIndexUpdater());
+        // Subscribe before the snapshot so nothing added in between is missed.
+        ledgerEvents = ledger.events().subscribe(LIVE_QUEUE_TURFS,
+                () -> SwingUtilities.invokeLater(this::scheduleLiveRefresh));
+        liveRefresh.setRepeats(false);
+        for (Turf turf : ledger.turfs()) {
+            managedTurfs.add(turf);
+        }
         setupFrame();
 
         cardPanel = new JPanel(cardLayout);
@@ -66,48 +140,88 @@ public class TurfOwnerDashboard extends JFrame {
         cardPanel.add(createAddTurfPanel(), ADD_TURF_VIEW);
         
         add(cardPanel, BorderLayout.CENTER);
+
+        managedTurfs.addListDataListener(new DetailCacheUpdater());
     }
 
-    private void initializeMockData() {
-        managedTurfList.add(new Turf("TA001", "Ground Zero Turf", "City Park", 1500.00));
-        managedTurfList.add(new Turf("TB002", "Champions Arena", "Main Road", 2000.00));
-        managedTurfList.add(new Turf("TC003", "Sunset Pitch", "Riverside", 1000.00));
-        
-        allBookings.add(new Booking("TA001", 1500.00));
-        allBookings.add(new Booking("TA001", 750.00));
-        allBookings.add(new Booking("TB002", 800.00));
-        allBookings.add(new Booking("TA001", 2250.00));
-        allBookings.add(new Booking("TC003", 1000.00));
-        allBookings.add(new Booking("TB002", 600.00));
+    @Override
+    public void dispose() {
+        ledgerEvents.close();
+        liveRefresh.stop();
+        OwnerLedgers.shared().release(ledger);
+        super.dispose();
     }
-    
-    private void addTurf(String name, String location, double rate) {
-        String newId = "T" + (nextTurfId++);
-        Turf newTurf = new Turf(newId, name, location, rate);
-        managedTurfList.add(newTurf);
-        
-        cardPanel.add(createLandingPanel(), LANDING_VIEW); 
-        cardLayout.show(cardPanel, LANDING_VIEW);
+
+    /** The catalog listing for a turf created in the owner console, or null for the demo turfs. */
+    static TurfModel catalogEntry(Turf turf) {
+        int id = catalogId(turf.id);
+        if (id < 0) {
+            return null;
+        }
+        return new TurfModel(id, turf.name, turf.location,
+                (int) Math.round(turf.hourlyRate), turf.operatingHours, turf.category, null,
+                turf.latitude, turf.longitude);
     }
 
-    private int calculateBookings(String turfId) {
-        int bookings = 0;
-        for (Booking booking : allBookings) {
-            if (booking.turfId.equals(turfId)) {
-                bookings++;
+    /** Numeric ID the turf has in TurfHub and {@link SlotAvailability}, or -1 if it is not listed. */
+    static int catalogId(String turfId) {
+        return turfId.matches("T\\d+") ? Integer.parseInt(turfId.substring(1)) : -1;
+    }
+
+    private void addTurf(String name, String location, double rate, String category, String hours,
+                         double latitude, double longitude) {
+        // The landing list picks the new row up from the model; other consoles get it
+        // through the ledger's events.
+        managedTurfs.add(ledger.addTurf(name, location, rate, category, hours, latitude, longitude));
+        showLanding();
+    }
+
+    // --- Live updates ---------------------------------------------------------------------
+
+    private void scheduleLiveRefresh() {
+        if (liveRefresh.isRunning()) {
+            return;
+        }
+        long wait = lastLiveRefresh + LIVE_REFRESH_MS - System.currentTimeMillis();
+        liveRefresh.setInitialDelay((int) Math.max(0, Math.min(wait, LIVE_REFRESH_MS)));
+        liveRefresh.restart();
+    }
+
+    /**
+     * Applies the coalesced ledger changes since the last tick: new turfs join the list
+     * and cached detail panels take the totals carried by the events.
+     */
+    private void applyLedgerEvents() {
+        lastLiveRefresh = System.currentTimeMillis();
+        BookingEventBus.Batch batch = ledgerEvents.drain();
+        if (batch.overflowed) {
+            resyncFromLedger();
+            return;
+        }
+        for (BookingEventBus.Event event : batch.events) {
+            if (event.type == BookingEventBus.Type.TURF_ADDED) {
+                if (managedTurfs.find(event.turfId) == null) {
+                    managedTurfs.add(event.turf);
+                }
+                continue;
+            }
+            DetailView view = detailViews.get(event.turfId);
+            if (view != null) {
+                view.apply(event);
             }
         }
-        return bookings;
     }
-    
-    private double calculateIncome(String turfId) {
-        double income = 0.0;
-        for (Booking booking : allBookings) {
-            if (booking.turfId.equals(turfId)) {
-                income += booking.totalCost;
+
+    /** After the event queue overflowed: picks up missed turfs and rereads cached panels. */
+    private void resyncFromLedger() {
+        for (Turf turf : ledger.turfs()) {
+            if (managedTurfs.find(turf.id) == null) {
+                managedTurfs.add(turf);
             }
         }
-        return income; 
+        for (DetailView view : detailViews.values()) {
+            view.update();
+        }
     }
 
     private void setupFrame() {
@@ -117,13 +231,22 @@ public class TurfOwnerDashboard extends JFrame {
     }
     
     private JPanel createEmptyDetailPanel() {
-        JPanel panel = new JPanel(new BorderLayout());
+        JPanel panel = new JPanel(detailCards);
         panel.setBackground(APP_BACKGROUND); 
         panel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         return panel;
     }
 
     private JPanel createLandingPanel() {
+        long start = LANDING_PANEL_TIMER.start();
+        try {
+            return buildLandingPanel();
+        } finally {
+            LANDING_PANEL_TIMER.stop(start);
+        }
+    }
+
+    private JPanel buildLandingPanel() {
         JPanel contentPanel = new JPanel(new BorderLayout());
         contentPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
         contentPanel.setBackground(APP_BACKGROUND); 
@@ -146,20 +269,24 @@ public class TurfOwnerDashboard extends JFrame {
         mainPanel.add(subtitleLabel);
         mainPanel.add(Box.createVerticalStrut(10));
 
-        JPanel turfListPanel = new JPanel();
-        turfListPanel.setLayout(new BoxLayout(turfListPanel, BoxLayout.Y_AXIS));
-        turfListPanel.setBackground(APP_BACKGROUND); 
-        turfListPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        JTextField searchField = new JTextField();
+        searchField.setToolTipText("Search your turfs by name or location");
+        searchField.setFont(new Font("SansSerif", Font.PLAIN, 14));
+        searchField.setMaximumSize(new Dimension(Integer.MAX_VALUE, 30));
+        searchField.setAlignmentX(Component.LEFT_ALIGNMENT);
+        mainPanel.add(searchField);
+        mainPanel.add(Box.createVerticalStrut(10));
 
-        for (Turf turf : managedTurfList) {
-            turfListPanel.add(createTurfButtonBox(turf));
-            turfListPanel.add(Box.createVerticalStrut(10));
-        }
-        if (!managedTurfList.isEmpty()) {
-             turfListPanel.remove(turfListPanel.getComponentCount() - 1);
-        }
-        
+        JPanel turfListPanel = createTurfListPanel();
+        JPanel resultsPanel = new JPanel();
+        resultsPanel.setLayout(new BoxLayout(resultsPanel, BoxLayout.Y_AXIS));
+        resultsPanel.setBackground(APP_BACKGROUND);
+        resultsPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        resultsPanel.setVisible(false);
+        new DebouncedSearch<Turf>(searchField, query -> turfSearch.search(query, SEARCH_RESULTS),
+                (query, results) -> showSearchResults(turfListPanel, resultsPanel, query, results));
         mainPanel.add(turfListPanel);
+        mainPanel.add(resultsPanel);
         mainPanel.add(Box.createVerticalStrut(30));
 
         JButton addButton = new JButton(" Add New Turf ");
@@ -193,10 +320,18 @@ public class TurfOwnerDashboard extends JFrame {
         JTextField nameField = new JTextField(20);
         JTextField locationField = new JTextField(20);
         JTextField rateField = new JTextField(20);
+        JComboBox<String> categoryBox = new JComboBox<>(CATEGORIES);
+        JTextField hoursField = new JTextField(DEFAULT_OPERATING_HOURS, 20);
+        JTextField latitudeField = new JTextField(20);
+        JTextField longitudeField = new JTextField(20);
         
         contentPanel.add(createFormField("Turf Name:", nameField));
         contentPanel.add(createFormField("Location:", locationField));
         contentPanel.add(createFormField("Hourly Rate (Rs.):", rateField));
+        contentPanel.add(createFormField("Category:", categoryBox));
+        contentPanel.add(createFormField("Hours (HH:mm-HH:mm):", hoursField));
+        contentPanel.add(createFormField("Latitude (optional):", latitudeField));
+        contentPanel.add(createFormField("Longitude (optional):", longitudeField));
         
         contentPanel.add(Box.createVerticalStrut(30));
 
@@ -208,17 +343,45 @@ public class TurfOwnerDashboard extends JFrame {
                 String name = nameField.getText().trim();
                 String location = locationField.getText().trim();
                 double rate = Double.parseDouble(rateField.getText().trim());
+                String category = (String) categoryBox.getSelectedItem();
+                String hours = hoursField.getText().trim();
 
                 if (name.isEmpty() || location.isEmpty() || rate <= 0) {
                     JOptionPane.showMessageDialog(this, "Please fill all fields correctly.", "Input Error", JOptionPane.ERROR_MESSAGE);
                     return;
                 }
+                try {
+                    SlotAvailability.parseOperatingHours(hours);
+                } catch (IllegalArgumentException ex) {
+                    JOptionPane.showMessageDialog(this, "Hours must look like 08:00-22:00.", "Input Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                String latText = latitudeField.getText().trim();
+                String lonText = longitudeField.getText().trim();
+                double latitude = Double.NaN;
+                double longitude = Double.NaN;
+                if (!latText.isEmpty() || !lonText.isEmpty()) {
+                    try {
+                        latitude = Double.parseDouble(latText);
+                        longitude = Double.parseDouble(lonText);
+                    } catch (NumberFormatException ex) {
+                        latitude = Double.NaN;
+                    }
+                    if (!GeoIndex.validCoordinates(latitude, longitude)) {
+                        JOptionPane.showMessageDialog(this, "Latitude must be -90 to 90 and longitude -180 to 180, or leave both empty.",
+                                "Input Error", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                }
                 
-                addTurf(name, location, rate);
+                addTurf(name, location, rate, category, hours, latitude, longitude);
                 
                 nameField.setText("");
                 locationField.setText("");
                 rateField.setText("");
+                hoursField.setText(DEFAULT_OPERATING_HOURS);
+                latitudeField.setText("");
+                longitudeField.setText("");
                 
                 JOptionPane.showMessageDialog(this, "Turf '" + name + "' added successfully!", "Success", JOptionPane.INFORMATION_MESSAGE);
             } catch (NumberFormatException ex) {
@@ -226,7 +389,7 @@ public class TurfOwnerDashboard extends JFrame {
             }
         });
 
-        cancelButton.addActionListener(e -> cardLayout.show(cardPanel, LANDING_VIEW));
+        cancelButton.addActionListener(e -> showLanding());
 
         saveButton.setFont(new Font("SansSerif", Font.BOLD, 14));
         saveButton.setBackground(ACCENT_COLOR); 
@@ -250,7 +413,7 @@ public class TurfOwnerDashboard extends JFrame {
         return wrapper;
     }
     
-    private JPanel createFormField(String labelText, JTextField field) {
+    private JPanel createFormField(String labelText, JComponent field) {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setOpaque(false);
         panel.setMaximumSize(new Dimension(Integer.MAX_VALUE, 40)); 
@@ -270,7 +433,128 @@ public class TurfOwnerDashboard extends JFrame {
         return panel;
     }
 
-    private JPanel createTurfButtonBox(Turf turf) {
+    /** One row per managed turf, patched row by row as the model changes. */
+    private JPanel createTurfListPanel() {
+        JPanel turfListPanel = new JPanel();
+        turfListPanel.setLayout(new BoxLayout(turfListPanel, BoxLayout.Y_AXIS));
+        turfListPanel.setBackground(APP_BACKGROUND); 
+        turfListPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        for (int i = 0; i < managedTurfs.getSize(); i++) {
+            turfListPanel.add(new TurfRow(managedTurfs.getElementAt(i), i > 0));
+        }
+        managedTurfs.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                for (int i = e.getIndex0(); i <= e.getIndex1(); i++) {
+                    turfListPanel.add(new TurfRow(managedTurfs.getElementAt(i), i > 0), i);
+                }
+                refreshGap(turfListPanel, e.getIndex1() + 1);
+                turfListPanel.revalidate();
+                turfListPanel.repaint();
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                for (int i = e.getIndex1(); i >= e.getIndex0(); i--) {
+                    turfListPanel.remove(i);
+                }
+                refreshGap(turfListPanel, e.getIndex0());
+                turfListPanel.revalidate();
+                turfListPanel.repaint();
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                for (int i = Math.max(0, e.getIndex0()); i <= e.getIndex1() && i < turfListPanel.getComponentCount(); i++) {
+                    ((TurfRow) turfListPanel.getComponent(i)).setTurf(managedTurfs.getElementAt(i));
+                }
+            }
+        });
+        return turfListPanel;
+    }
+
+    /** Swaps the full turf list for ranked search matches, or back once the query is cleared. */
+    private void showSearchResults(JPanel turfListPanel, JPanel resultsPanel, String query, List<Turf> results) {
+        resultsPanel.removeAll();
+        if (!query.isEmpty()) {
+            for (int i = 0; i < results.size(); i++) {
+                resultsPanel.add(new TurfRow(results.get(i), i > 0));
+            }
+            if (results.isEmpty()) {
+                JLabel none = new JLabel("No turfs match \"" + query + "\".");
+                none.setForeground(TEXT_COLOR_MAIN);
+                resultsPanel.add(none);
+            }
+        }
+        turfListPanel.setVisible(query.isEmpty());
+        resultsPanel.setVisible(!query.isEmpty());
+        resultsPanel.revalidate();
+        resultsPanel.repaint();
+    }
+
+    /** Keeps {@link #turfSearch} in step with the managed turf list. */
+    private final class SearchIndexUpdater implements ListDataListener {
+        private final List<String> indexedIds = new ArrayList<>();
+
+        @Override
+        public void intervalAdded(ListDataEvent e) {
+            for (int i = e.getIndex0(); i <= e.getIndex1(); i++) {
+                Turf turf = managedTurfs.getElementAt(i);
+                indexedIds.add(i, turf.id);
+                turfSearch.put(turf.id, turf, turf.name, turf.location);
+            }
+        }
+
+        @Override
+        public void intervalRemoved(ListDataEvent e) {
+            for (int i = e.getIndex1(); i >= e.getIndex0(); i--) {
+                turfSearch.remove(indexedIds.remove(i));
+            }
+        }
+
+        @Override
+        public void contentsChanged(ListDataEvent e) {
+            for (int i = Math.max(0, e.getIndex0()); i <= e.getIndex1() && i < managedTurfs.getSize(); i++) {
+                Turf turf = managedTurfs.getElementAt(i);
+                turfSearch.put(turf.id, turf, turf.name, turf.location);
+            }
+        }
+    }
+
+    /** The first row sits flush with the subtitle; the rest keep a gap above them. */
+    private static void refreshGap(JPanel turfListPanel, int index) {
+        if (index < turfListPanel.getComponentCount()) {
+            ((TurfRow) turfListPanel.getComponent(index)).setLeadingGap(index > 0);
+        }
+    }
+
+    private final class TurfRow extends JPanel {
+        private Turf turf;
+        private final JLabel turfLabel = new JLabel();
+
+        TurfRow(Turf turf, boolean leadingGap) {
+            super(new BorderLayout());
+            setOpaque(false);
+            setAlignmentX(Component.LEFT_ALIGNMENT);
+            add(createTurfButtonBox(turfLabel, () -> this.turf), BorderLayout.CENTER);
+            setLeadingGap(leadingGap);
+            setTurf(turf);
+        }
+
+        void setTurf(Turf turf) {
+            this.turf = turf;
+            turfLabel.setText(turf.name);
+        }
+
+        void setLeadingGap(boolean leadingGap) {
+            int gap = leadingGap ? 10 : 0;
+            setBorder(BorderFactory.createEmptyBorder(gap, 0, 0, 0));
+            setMaximumSize(new Dimension(Integer.MAX_VALUE, 60 + gap));
+        }
+    }
+
+    private JPanel createTurfButtonBox(JLabel turfLabel, Supplier<Turf> turf) {
         JPanel box = new JPanel(new BorderLayout());
         box.setBackground(TURF_BOX_BACKGROUND); 
         
@@ -279,7 +563,6 @@ public class TurfOwnerDashboard extends JFrame {
             BorderFactory.createEmptyBorder(15, 15, 15, 15)
         ));
         
-        JLabel turfLabel = new JLabel(turf.name);
         turfLabel.setFont(new Font("SansSerif", Font.BOLD, 18));
         turfLabel.setForeground(TEXT_COLOR_MAIN); 
         box.add(turfLabel, BorderLayout.WEST);
@@ -295,7 +578,7 @@ public class TurfOwnerDashboard extends JFrame {
         box.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent e) {
-                showTurfDetails(turf);
+                showTurfDetails(turf.get());
             }
             @Override
             public void mouseEntered(MouseEvent e) {
@@ -311,55 +594,385 @@ public class TurfOwnerDashboard extends JFrame {
     }
     
     private void showTurfDetails(Turf turf) {
-        updateDetailPanelContent(turf);
+        long start = DETAIL_PANEL_TIMER.start();
+        try {
+            DetailView view = detailViews.get(turf.id);
+            if (view == null) {
+                view = new DetailView(turf);
+                detailViewPanel.add(view.panel, turf.id);
+                detailViews.put(turf.id, view);
+                evictDetailViews();
+            }
+            view.update();
+            shownDetail = view;
+            detailCards.show(detailViewPanel, turf.id);
+        } finally {
+            DETAIL_PANEL_TIMER.stop(start);
+        }
         cardLayout.show(cardPanel, DETAIL_VIEW);
     }
-    
-    private void updateDetailPanelContent(Turf turf) {
-        int bookings = calculateBookings(turf.id);
-        double income = calculateIncome(turf.id);
-        
-        detailViewPanel.removeAll();
-        
-        JPanel mainPanel = new JPanel();
-        mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS)); 
-        mainPanel.setOpaque(false);
-        
-        JLabel titleLabel = new JLabel(turf.name + " Performance");
-        titleLabel.setFont(new Font("SansSerif", Font.BOLD, 22));
-        titleLabel.setForeground(ACCENT_COLOR);
-        titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
-        mainPanel.add(titleLabel);
-        mainPanel.add(Box.createVerticalStrut(20)); 
 
-        JPanel metricPanel = new JPanel(new GridLayout(2, 1, 0, 15)); 
-        metricPanel.setOpaque(false);
-        
-        metricPanel.add(createMetricCard("Total Bookings", String.valueOf(bookings), ACCENT_COLOR)); 
-        metricPanel.add(createMetricCard("Total Income", String.format("Rs. %.2f", income), ACCENT_COLOR)); 
+    private void showLanding() {
+        shownDetail = null;
+        cardLayout.show(cardPanel, LANDING_VIEW);
+    }
 
-        mainPanel.add(metricPanel);
-        mainPanel.add(Box.createVerticalStrut(30));
+    /** Keeps the most recently viewed detail panels; the rest are dropped from the card stack. */
+    private void evictDetailViews() {
+        Iterator<Map.Entry<String, DetailView>> it = detailViews.entrySet().iterator();
+        while (detailViews.size() > DETAIL_CACHE_SIZE && it.hasNext()) {
+            DetailView eldest = it.next().getValue();
+            if (eldest == shownDetail) {
+                continue;
+            }
+            detailViewPanel.remove(eldest.panel);
+            it.remove();
+        }
+    }
 
-        JButton backButton = new JButton("← Back to All Turfs");
-        backButton.setFont(new Font("SansSerif", Font.BOLD, 14));
-        backButton.addActionListener(e -> cardLayout.show(cardPanel, LANDING_VIEW));
-        
-        backButton.setBackground(NEUTRAL_BUTTON_COLOR); 
-        backButton.setForeground(TEXT_COLOR_MAIN);
-        backButton.setFocusPainted(false);
-        backButton.setAlignmentX(Component.LEFT_ALIGNMENT);
-        
-        mainPanel.add(backButton);
-        
-        detailViewPanel.add(mainPanel, BorderLayout.NORTH);
-        
-        detailViewPanel.revalidate();
-        detailViewPanel.repaint();
+    /** Keeps cached detail panels in step with edits to and removals from the turf list. */
+    private final class DetailCacheUpdater implements ListDataListener {
+        @Override
+        public void intervalAdded(ListDataEvent e) {
+        }
+
+        @Override
+        public void intervalRemoved(ListDataEvent e) {
+            for (Iterator<DetailView> it = detailViews.values().iterator(); it.hasNext(); ) {
+                DetailView view = it.next();
+                if (managedTurfs.find(view.turf.id) == null) {
+                    detailViewPanel.remove(view.panel);
+                    it.remove();
+                    if (view == shownDetail) {
+                        showLanding();
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void contentsChanged(ListDataEvent e) {
+            for (int i = Math.max(0, e.getIndex0()); i <= e.getIndex1() && i < managedTurfs.getSize(); i++) {
+                Turf turf = managedTurfs.getElementAt(i);
+                DetailView view = detailViews.get(turf.id);
+                if (view != null) {
+                    view.turf = turf;
+                    if (view == shownDetail) {
+                        view.update();
+                    }
+                }
+            }
+        }
     }
 
+    /** Performance panel for one turf, built once and updated in place. */
+    private final class DetailView {
+        Turf turf;
+        final JPanel panel = new JPanel(new BorderLayout());
+        private final JLabel titleLabel = new JLabel();
+        private final JLabel bookingsValue = new JLabel();
+        private final JLabel incomeValue = new JLabel();
+        private Runnable refreshRevenue = () -> { };
+        /** Ledger sequence of the totals on the metric cards. */
+        private long sequence = -1;
+
+        DetailView(Turf turf) {
+            this.turf = turf;
+            panel.setOpaque(false);
+
+            JPanel mainPanel = new JPanel();
+            mainPanel.setLayout(new BoxLayout(mainPanel, BoxLayout.Y_AXIS)); 
+            mainPanel.setOpaque(false);
+            
+            titleLabel.setFont(new Font("SansSerif", Font.BOLD, 22));
+            titleLabel.setForeground(ACCENT_COLOR);
+            titleLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            mainPanel.add(titleLabel);
+            mainPanel.add(Box.createVerticalStrut(20)); 
+
+            JPanel metricPanel = new JPanel(new GridLayout(2, 1, 0, 15)); 
+            metricPanel.setOpaque(false);
+            
+            metricPanel.add(createMetricCard("Total Bookings", bookingsValue, ACCENT_COLOR)); 
+            metricPanel.add(createMetricCard("Total Income", incomeValue, ACCENT_COLOR)); 
+
+            mainPanel.add(metricPanel);
+            mainPanel.add(Box.createVerticalStrut(20));
+            mainPanel.add(createRevenuePanel(this));
+            mainPanel.add(Box.createVerticalStrut(20));
+
+            JButton backButton = new JButton("← Back to All Turfs");
+            backButton.setFont(new Font("SansSerif", Font.BOLD, 14));
+            backButton.addActionListener(e -> showLanding());
+            
+            backButton.setBackground(NEUTRAL_BUTTON_COLOR); 
+            backButton.setForeground(TEXT_COLOR_MAIN);
+            backButton.setFocusPainted(false);
+            JButton weeklyButton = new JButton("Add Weekly Booking");
+            weeklyButton.setFont(new Font("SansSerif", Font.BOLD, 14));
+            weeklyButton.addActionListener(e -> addWeeklyBooking(this.turf));
+            weeklyButton.setBackground(ACCENT_COLOR);
+            weeklyButton.setForeground(Color.WHITE);
+            weeklyButton.setFocusPainted(false);
+            JButton weeklyListButton = new JButton("Weekly Bookings");
+            weeklyListButton.setFont(new Font("SansSerif", Font.BOLD, 14));
+            weeklyListButton.addActionListener(e -> showWeeklyBookings(this.turf));
+            weeklyListButton.setBackground(NEUTRAL_BUTTON_COLOR);
+            weeklyListButton.setForeground(TEXT_COLOR_MAIN);
+            weeklyListButton.setFocusPainted(false);
+
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.LEFT, 10, 0));
+            buttonPanel.setOpaque(false);
+            buttonPanel.setAlignmentX(Component.LEFT_ALIGNMENT);
+            buttonPanel.add(backButton);
+            buttonPanel.add(weeklyButton);
+            buttonPanel.add(weeklyListButton);
+            mainPanel.add(buttonPanel);
+            
+            panel.add(mainPanel, BorderLayout.NORTH);
+        }
+
+        void update() {
+            OwnerLedger.Totals totals = ledger.totals(turf.id);
+            titleLabel.setText(turf.name + " Performance");
+            showTotals(totals.bookings, totals.incomePaise, totals.sequence);
+            refreshRevenue.run();
+        }
+
+        /** Takes the totals carried by a ledger event unless this panel has read newer ones. */
+        void apply(BookingEventBus.Event event) {
+            if (event.sequence <= sequence) {
+                return;
+            }
+            showTotals(event.bookings, event.incomePaise, event.sequence);
+            if (this == shownDetail) {
+                refreshRevenue.run();
+            }
+        }
+
+        private void showTotals(int bookings, long incomePaise, long asOf) {
+            sequence = asOf;
+            bookingsValue.setText(String.valueOf(bookings));
+            incomeValue.setText(String.format("Rs. %.2f", incomePaise / 100.0));
+        }
+    }
+
+
+    /**
+     * Asks for a weekday, times and an end date and books them every week as one rule.
+     * Dates in {@code turf.holidays} (comma-separated, yyyy-MM-dd) are skipped by default.
+     */
+    private void addWeeklyBooking(Turf turf) {
+        JTextField customerField = new JTextField(20);
+        JComboBox<DayOfWeek> dayBox = new JComboBox<>(DayOfWeek.values());
+        dayBox.setSelectedItem(LocalDate.now().getDayOfWeek());
+        JTextField timesField = new JTextField("19:00-21:00", 20);
+        JTextField untilField = new JTextField(LocalDate.now().plusMonths(3).toString(), 20);
+        JTextField costField = new JTextField(20);
+        JTextField skipField = new JTextField(System.getProperty("turf.holidays", ""), 20);
+
+        JPanel form = new JPanel();
+        form.setLayout(new BoxLayout(form, BoxLayout.Y_AXIS));
+        form.add(createFormField("Customer:", customerField));
+        form.add(createFormField("Every:", dayBox));
+        form.add(createFormField("Time (HH:mm-HH:mm):", timesField));
+        form.add(createFormField("Until (yyyy-MM-dd):", untilField));
+        form.add(createFormField("Cost per session (Rs., optional):", costField));
+        form.add(createFormField("Skip dates (yyyy-MM-dd, ...):", skipField));
+
+        if (JOptionPane.showConfirmDialog(this, form, "Weekly Booking at " + turf.name,
+                JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+        try {
+            String[] times = timesField.getText().trim().split("-");
+            if (times.length != 2) {
+                throw new IllegalArgumentException("Time must look like 19:00-21:00.");
+            }
+            int startSlot = slotAt(times[0]);
+            int slotCount = slotAt(times[1]) - startSlot;
+            double hours = slotCount * SlotAvailability.SLOT_MINUTES / 60.0;
+            String costText = costField.getText().trim();
+            double cost = costText.isEmpty() ? turf.hourlyRate * hours : Double.parseDouble(costText);
+            List<LocalDate> skip = new ArrayList<>();
+            for (String date : skipField.getText().split(",")) {
+                if (!date.isBlank()) {
+                    skip.add(LocalDate.parse(date.trim()));
+                }
+            }
+            RecurringBooking rule = ledger.addRecurring(turf.id, customerField.getText().trim(),
+                    (DayOfWeek) dayBox.getSelectedItem(), startSlot, slotCount, LocalDate.now(),
+                    LocalDate.parse(untilField.getText().trim()), skip, Math.round(cost * 100));
+            JOptionPane.showMessageDialog(this, rule.describe() + ": " + rule.totalOccurrences() + " sessions booked.",
+                    "Success", JOptionPane.INFORMATION_MESSAGE);
+        } catch (DateTimeParseException ex) {
+            JOptionPane.showMessageDialog(this, "Times must look like 19:00 and dates like 2025-03-31.",
+                    "Input Error", JOptionPane.ERROR_MESSAGE);
+        } catch (NumberFormatException ex) {
+            JOptionPane.showMessageDialog(this, "Cost must be a valid number.", "Input Error", JOptionPane.ERROR_MESSAGE);
+        } catch (IllegalArgumentException | IllegalStateException ex) {
+            JOptionPane.showMessageDialog(this, ex.getMessage(), "Cannot Book", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    /** The slot starting at {@code text}, which must fall on a slot boundary. */
+    private static int slotAt(String text) {
+        LocalTime time = LocalTime.parse(text.trim());
+        if (time.getMinute() % SlotAvailability.SLOT_MINUTES != 0 || time.getSecond() != 0 || time.getNano() != 0) {
+            throw new IllegalArgumentException("Weekly bookings start and end on the quarter hour, e.g. 19:00 or 19:15; "
+                    + time + " is not.");
+        }
+        return SlotAvailability.timeToSlot(time);
+    }
+
+    /** Lists the turf's weekly bookings and cancels the selected one, with all its sessions. */
+    private void showWeeklyBookings(Turf turf) {
+        List<RecurringBooking> rules = ledger.recurring(turf.id);
+        if (rules.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "No weekly bookings at " + turf.name + ".",
+                    "Weekly Bookings", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        DefaultListModel<String> rows = new DefaultListModel<>();
+        for (RecurringBooking rule : rules) {
+            rows.addElement((rule.customer.isEmpty() ? "" : rule.customer + ": ") + rule.describe());
+        }
+        JList<String> list = new JList<>(rows);
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setSelectedIndex(0);
+        list.setVisibleRowCount(Math.min(rules.size(), 8));
+        Object[] options = {"Cancel Selected", "Close"};
+        if (JOptionPane.showOptionDialog(this, new JScrollPane(list), "Weekly Bookings at " + turf.name,
+                JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[1]) != 0
+                || list.getSelectedIndex() < 0) {
+            return;
+        }
+        RecurringBooking rule = rules.get(list.getSelectedIndex());
+        if (JOptionPane.showConfirmDialog(this, "Cancel " + rule.describe() + " and all its sessions?",
+                "Cancel Weekly Booking", JOptionPane.YES_NO_OPTION) != JOptionPane.YES_OPTION) {
+            return;
+        }
+        if (!ledger.cancelRecurring(rule.id)) {
+            JOptionPane.showMessageDialog(this, "That weekly booking was already cancelled.",
+                    "Weekly Bookings", JOptionPane.INFORMATION_MESSAGE);
+        }
+    }
+
+    private static final String[] REVENUE_PERIODS = {"Last 30 days", "Last 12 weeks", "Last 12 months"};
+
+    /** Revenue curve for one turf with a period selector, answered from the rollups. */
+    private JPanel createRevenuePanel(DetailView view) {
+        JPanel panel = new JPanel(new BorderLayout(0, 8));
+        panel.setOpaque(false);
+        panel.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        JComboBox<String> periodBox = new JComboBox<>(REVENUE_PERIODS);
+        RevenueChart chart = new RevenueChart();
+        JLabel summaryLabel = new JLabel(" ");
+        summaryLabel.setFont(new Font("SansSerif", Font.PLAIN, 12));
+        summaryLabel.setForeground(TEXT_COLOR_MAIN);
+
+        Runnable refresh = () -> {
+            RevenueRollups.Granularity granularity;
+            int buckets;
+            switch (periodBox.getSelectedIndex()) {
+                case 1:
+                    granularity = RevenueRollups.Granularity.WEEK;
+                    buckets = 12;
+                    break;
+                case 2:
+                    granularity = RevenueRollups.Granularity.MONTH;
+                    buckets = 12;
+                    break;
+                default:
+                    granularity = RevenueRollups.Granularity.DAY;
+                    buckets = 30;
+            }
+            Turf turf = view.turf;
+            List<RevenueRollups.Point> points = ledger.revenueSeries(turf.id, granularity, buckets);
+            chart.setPoints(points);
+
+            long paise = 0;
+            int bookings = 0;
+            for (RevenueRollups.Point p : points) {
+                paise += p.revenuePaise;
+                bookings += p.bookings;
+            }
+            long from = points.get(0).startMillis;
+            long to = points.get(points.size() - 1).endMillis;
+            summaryLabel.setText(String.format("Rs. %.2f from %d bookings, %.0f%% utilization",
+                    paise / 100.0, bookings, 100 * utilization(turf, paise, from, to)));
+        };
+        Runnable timedRefresh = () -> {
+            long start = REVENUE_PANEL_TIMER.start();
+            try {
+                refresh.run();
+            } finally {
+                REVENUE_PANEL_TIMER.stop(start);
+            }
+        };
+        periodBox.addActionListener(e -> timedRefresh.run());
+        view.refreshRevenue = timedRefresh;
+
+        panel.add(periodBox, BorderLayout.NORTH);
+        panel.add(chart, BorderLayout.CENTER);
+        panel.add(summaryLabel, BorderLayout.SOUTH);
+        return panel;
+    }
+
+    /** Booked hours (revenue at the hourly rate) over open hours in the period. */
+    private static double utilization(Turf turf, long paise, long fromMillis, long toMillis) {
+        long[] open = SlotAvailability.parseOperatingHours(turf.operatingHours);
+        double openHoursPerDay = (Long.bitCount(open[0]) + Long.bitCount(open[1])) / 4.0;
+        double days = (toMillis - fromMillis) / 86_400_000.0;
+        if (turf.hourlyRate <= 0 || openHoursPerDay == 0 || days <= 0) {
+            return 0;
+        }
+        return Math.min(1, (paise / 100.0 / turf.hourlyRate) / (openHoursPerDay * days));
+    }
+
+    /** Minimal bar chart of revenue per bucket. */
+    static class RevenueChart extends JComponent {
+        private List<RevenueRollups.Point> points = new ArrayList<>();
+
+        RevenueChart() {
+            setPreferredSize(new Dimension(320, 120));
+        }
+
+        void setPoints(List<RevenueRollups.Point> points) {
+            this.points = points;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            Graphics2D g2 = (Graphics2D) g.create();
+            g2.setColor(Color.WHITE);
+            g2.fillRect(0, 0, getWidth(), getHeight());
+            g2.setColor(new Color(200, 200, 200));
+            g2.drawRect(0, 0, getWidth() - 1, getHeight() - 1);
+
+            long max = 1;
+            for (RevenueRollups.Point p : points) {
+                max = Math.max(max, p.revenuePaise);
+            }
+            int n = Math.max(points.size(), 1);
+            int chartHeight = getHeight() - 20;
+            double barWidth = (getWidth() - 10) / (double) n;
+            g2.setColor(ACCENT_COLOR);
+            for (int i = 0; i < points.size(); i++) {
+                int h = (int) Math.round(chartHeight * (double) points.get(i).revenuePaise / max);
+                int x = 5 + (int) Math.round(i * barWidth);
+                g2.fillRect(x, 5 + chartHeight - h, Math.max(1, (int) barWidth - 2), h);
+            }
+            g2.setColor(TEXT_COLOR_MAIN);
+            g2.setFont(new Font("SansSerif", Font.PLAIN, 10));
+            g2.drawString(String.format("max Rs. %.0f", max / 100.0), 6, getHeight() - 4);
+            g2.dispose();
+        }
+    }
 
-    private JPanel createMetricCard(String title, String value, Color accentColor) {
+    private JPanel createMetricCard(String title, JLabel valueLabel, Color accentColor) {
         JPanel card = new JPanel();
         card.setLayout(new BoxLayout(card, BoxLayout.Y_AXIS));
         card.setBackground(Color.WHITE); 
@@ -374,7 +987,6 @@ public class TurfOwnerDashboard extends JFrame {
         titleLabel.setForeground(TEXT_COLOR_MAIN);
         titleLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
 
-        JLabel valueLabel = new JLabel(value);
         valueLabel.setFont(new Font("SansSerif", Font.BOLD, 28));
         valueLabel.setForeground(accentColor.darker()); 
         valueLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
@@ -387,6 +999,7 @@ public class TurfOwnerDashboard extends JFrame {
     }
 
     public static void main(String[] args) {
+        EdtWatchdog.installIfEnabled();
         SwingUtilities.invokeLater(() -> {
             TurfOwnerDashboard dashboard = new TurfOwnerDashboard();
             dashboard.setVisible(true);
@@ -0,0 +1,423 @@
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory search-as-you-type index over a primary text (turf name) and a secondary
+ * text (address or location), keyed by a caller-chosen ID and updated one entry at a time.
+ *
+ * Text is folded to lower case without accents and split into words. Each query word
+ * must match a word of the entry, in order of preference: exactly, as a prefix (so the
+ * word being typed matches as it grows), or as a prefix within one edit (two from seven
+ * letters, transpositions counting as one) found through a trigram index over the
+ * vocabulary. Entries are ranked by the sum of their best match per query word, with
+ * name matches weighted above address matches, then by shorter name.
+ *
+ * Thread-safe; updates and queries are serialized on the index.
+ */
+class TurfSearchIndex<T> {
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+    private static final float EXACT = 3.0f;
+    private static final float PREFIX = 2.0f;
+    private static final float FUZZY = 1.2f;
+    private static final float NAME_WEIGHT = 1.5f;
+
+    private static final class Doc<T> {
+        final String key;
+        final T value;
+
+        Doc(String key, T value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    private static final class Term {
+        final int id;
+        final String text;
+        /** Entries containing this word: {@code docId << 1 | 1} when it is in the name. */
+        int[] postings = new int[2];
+        int size;
+
+        Term(int id, String text) {
+            this.id = id;
+            this.text = text;
+        }
+
+        void add(int posting) {
+            if (size == postings.length) {
+                postings = Arrays.copyOf(postings, size * 2);
+            }
+            postings[size++] = posting;
+        }
+    }
+
+    private final List<Doc<T>> docs = new ArrayList<>();
+    private final Map<String, Integer> docByKey = new HashMap<>();
+    private final TreeMap<String, Term> vocabulary = new TreeMap<>();
+    private final List<Term> termsById = new ArrayList<>();
+    private final Map<String, int[]> termsByTrigram = new HashMap<>();
+    private int deadDocs;
+    private boolean[] live = new boolean[16];
+    private int[] nameLengths = new int[16];
+
+    // Query scratch, reused between searches (which are serialized on the index).
+    private static final int MAX_QUERY_WORDS = 8;
+    private int queryId;
+    private float[] score = new float[0];
+    private float[] best = new float[0];
+    private int[] progress = new int[0];
+    private int[] candidates = new int[0];
+    private int[] sharedTrigrams = new int[0];
+    private int[] touchedTerms = new int[64];
+    private Term[] matchTerms = new Term[64];
+    private float[] matchScores = new float[64];
+    private final int[][] distanceRows = new int[3][];
+
+    /** Adds an entry, replacing any entry with the same key. */
+    synchronized void put(String key, T value, String primary, String secondary) {
+        removeLocked(key);
+        int docId = docs.size();
+        Set<Integer> nameTerms = new LinkedHashSet<>();
+        for (String word : words(primary)) {
+            nameTerms.add(term(word).id);
+        }
+        Set<Integer> posted = new LinkedHashSet<>(nameTerms);
+        for (String word : words(secondary)) {
+            posted.add(term(word).id);
+        }
+        for (int termId : posted) {
+            termsById.get(termId).add(docId << 1 | (nameTerms.contains(termId) ? 1 : 0));
+        }
+        docs.add(new Doc<>(key, value));
+        docByKey.put(key, docId);
+        if (docId == live.length) {
+            live = Arrays.copyOf(live, docId * 2);
+            nameLengths = Arrays.copyOf(nameLengths, docId * 2);
+        }
+        live[docId] = true;
+        nameLengths[docId] = primary == null ? 0 : primary.length();
+    }
+
+    synchronized boolean remove(String key) {
+        boolean removed = removeLocked(key);
+        if (deadDocs > 1024 && deadDocs > docs.size() / 2) {
+            compact();
+        }
+        return removed;
+    }
+
+    synchronized int size() {
+        return docByKey.size();
+    }
+
+    synchronized List<T> search(String query, int limit) {
+        return search(query, limit, null);
+    }
+
+    /** Best {@code limit} entries for {@code query} accepted by {@code filter} (may be null), best first. */
+    synchronized List<T> search(String query, int limit, Predicate<? super T> filter) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0 || docs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (words.size() > MAX_QUERY_WORDS) {
+            words = words.subList(0, MAX_QUERY_WORDS);
+        }
+        prepareScratch();
+        int candidateCount = 0;
+        for (int w = 0; w < words.size(); w++) {
+            int expected = queryId << 4 | w;
+            candidateCount = 0;
+            int termCount = matchingTerms(words.get(w));
+            for (int m = 0; m < termCount; m++) {
+                Term term = matchTerms[m];
+                float termScore = matchScores[m];
+                for (int p = 0; p < term.size; p++) {
+                    int posting = term.postings[p];
+                    int doc = posting >>> 1;
+                    // Skip removed entries and those that missed an earlier word.
+                    if (!live[doc] || (w > 0 && progress[doc] != expected)) {
+                        continue;
+                    }
+                    float s = (posting & 1) != 0 ? termScore * NAME_WEIGHT : termScore;
+                    if (best[doc] == 0) {
+                        candidates[candidateCount++] = doc;
+                    }
+                    if (s > best[doc]) {
+                        best[doc] = s;
+                    }
+                }
+            }
+            for (int c = 0; c < candidateCount; c++) {
+                int doc = candidates[c];
+                score[doc] = (w == 0 ? 0 : score[doc]) + best[doc];
+                best[doc] = 0;
+                progress[doc] = expected + 1;
+            }
+            if (candidateCount == 0) {
+                return Collections.emptyList();
+            }
+        }
+
+        PriorityQueue<Integer> top = new PriorityQueue<>(limit + 1, (a, b) -> -compareRank(a, b));
+        for (int c = 0; c < candidateCount; c++) {
+            int doc = candidates[c];
+            if (top.size() == limit && compareRank(doc, top.peek()) >= 0) {
+                continue; // ranks no better than the worst of the current top
+            }
+            if (filter != null && !filter.test(docs.get(doc).value)) {
+                continue;
+            }
+            top.add(doc);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<T> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(docs.get(top.poll()).value);
+        }
+        Collections.reverse(results);
+        return results;
+    }
+
+    /** Sizes the per-document scratch arrays and starts a new query generation. */
+    private void prepareScratch() {
+        int n = docs.size();
+        if (score.length < n) {
+            int capacity = Math.max(n, score.length * 2);
+            score = Arrays.copyOf(score, capacity);
+            best = Arrays.copyOf(best, capacity);
+            progress = Arrays.copyOf(progress, capacity);
+            candidates = new int[capacity];
+        }
+        if (sharedTrigrams.length < termsById.size()) {
+            sharedTrigrams = new int[Math.max(termsById.size(), sharedTrigrams.length * 2)];
+        }
+        if (++queryId >= 1 << 27) {
+            queryId = 1;
+            Arrays.fill(progress, 0);
+        }
+    }
+
+    /** Negative when {@code a} ranks above {@code b}; ties go to the shorter name, then the older entry. */
+    private int compareRank(int a, int b) {
+        int byScore = Float.compare(score[b], score[a]);
+        if (byScore != 0) {
+            return byScore;
+        }
+        int byLength = Integer.compare(nameLengths[a], nameLengths[b]);
+        return byLength != 0 ? byLength : Integer.compare(a, b);
+    }
+
+    /**
+     * Collects the vocabulary words matching one query word into {@link #matchTerms} and
+     * {@link #matchScores}; returns how many there are.
+     */
+    private int matchingTerms(String word) {
+        int count = 0;
+        for (Term term : vocabulary.subMap(word, true, word + Character.MAX_VALUE, false).values()) {
+            count = addMatch(count, term, term.text.length() == word.length()
+                    ? EXACT
+                    : PREFIX + 0.5f * word.length() / term.text.length());
+        }
+        int maxEdits = word.length() >= 7 ? 2 : word.length() >= 4 ? 1 : 0;
+        if (maxEdits == 0 || vocabulary.containsKey(word)) {
+            return count; // a word we know is taken as typed
+        }
+        // Each edit destroys at most three of the word's trigrams.
+        List<String> grams = trigrams(word);
+        int required = grams.size() - 3 * maxEdits;
+        int touchedCount = 0;
+        for (String gram : new LinkedHashSet<>(grams)) {
+            int[] termIds = termsByTrigram.get(gram);
+            if (termIds == null) {
+                continue;
+            }
+            for (int i = 1; i <= termIds[0]; i++) {
+                int termId = termIds[i];
+                if (sharedTrigrams[termId]++ == 0) {
+                    touchedTerms = touchedCount < touchedTerms.length ? touchedTerms
+                            : Arrays.copyOf(touchedTerms, touchedTerms.length * 2);
+                    touchedTerms[touchedCount++] = termId;
+                }
+                if (sharedTrigrams[termId] == required) {
+                    Term term = termsById.get(termId);
+                    if (term.text.length() < word.length() - maxEdits) {
+                        continue;
+                    }
+                    // Distance 0 means a prefix match, already collected above.
+                    int edits = prefixDistance(word, term.text, maxEdits, distanceRows);
+                    if (edits > 0 && edits <= maxEdits) {
+                        count = addMatch(count, term, FUZZY / edits);
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            sharedTrigrams[touchedTerms[i]] = 0;
+        }
+        return count;
+    }
+
+    private int addMatch(int count, Term term, float termScore) {
+        if (count == matchTerms.length) {
+            matchTerms = Arrays.copyOf(matchTerms, count * 2);
+            matchScores = Arrays.copyOf(matchScores, count * 2);
+        }
+        matchTerms[count] = term;
+        matchScores[count] = termScore;
+        return count + 1;
+    }
+
+    /**
+     * Fewest edits (insert, delete, substitute, swap adjacent) turning {@code word} into
+     * some prefix of {@code text}; anything above {@code max} is reported as {@code max + 1}.
+     */
+    static int prefixDistance(String word, String text, int max) {
+        return prefixDistance(word, text, max, new int[3][]);
+    }
+
+    /** As above, reusing {@code rows} (three arrays, grown as needed) for the DP columns. */
+    private static int prefixDistance(String word, String text, int max, int[][] rows) {
+        int m = word.length();
+        for (int r = 0; r < 3; r++) {
+            if (rows[r] == null || rows[r].length < m + 1) {
+                rows[r] = new int[m + 1];
+            }
+        }
+        int[] prevPrev = rows[0];
+        int[] prev = rows[1];
+        int[] cur = rows[2];
+        for (int i = 0; i <= m; i++) {
+            prev[i] = i;
+        }
+        int best = prev[m];
+        int columns = Math.min(text.length(), m + max);
+        for (int j = 1; j <= columns; j++) {
+            cur[0] = j;
+            int columnMin = cur[0];
+            char tc = text.charAt(j - 1);
+            for (int i = 1; i <= m; i++) {
+                char wc = word.charAt(i - 1);
+                int d = Math.min(Math.min(prev[i] + 1, cur[i - 1] + 1), prev[i - 1] + (wc == tc ? 0 : 1));
+                if (i > 1 && j > 1 && wc == text.charAt(j - 2) && word.charAt(i - 2) == tc) {
+                    d = Math.min(d, prevPrev[i - 2] + 1);
+                }
+                cur[i] = d;
+                columnMin = Math.min(columnMin, d);
+            }
+            best = Math.min(best, cur[m]);
+            if (columnMin > max) {
+                break;
+            }
+            int[] recycled = prevPrev;
+            prevPrev = prev;
+            prev = cur;
+            cur = recycled;
+        }
+        return Math.min(best, max + 1);
+    }
+
+    private Term term(String word) {
+        Term term = vocabulary.get(word);
+        if (term == null) {
+            term = new Term(termsById.size(), word);
+            vocabulary.put(word, term);
+            termsById.add(term);
+            for (String gram : new LinkedHashSet<>(trigrams(word))) {
+                int[] termIds = termsByTrigram.get(gram);
+                if (termIds == null) {
+                    termIds = new int[4];
+                } else if (termIds[0] + 1 == termIds.length) {
+                    termIds = Arrays.copyOf(termIds, termIds.length * 2);
+                }
+                termIds[++termIds[0]] = term.id;
+                termsByTrigram.put(gram, termIds);
+            }
+        }
+        return term;
+    }
+
+    private boolean removeLocked(String key) {
+        Integer docId = docByKey.remove(key);
+        if (docId == null) {
+            return false;
+        }
+        live[docId] = false;
+        deadDocs++;
+        return true;
+    }
+
+    /** Rebuilds postings without removed entries; the vocabulary is kept. */
+    private void compact() {
+        int[] newIds = new int[docs.size()];
+        List<Doc<T>> kept = new ArrayList<>();
+        for (int i = 0; i < docs.size(); i++) {
+            newIds[i] = live[i] ? kept.size() : -1;
+            if (live[i]) {
+                nameLengths[kept.size()] = nameLengths[i];
+                kept.add(docs.get(i));
+            }
+        }
+        for (Term term : termsById) {
+            int size = 0;
+            for (int p = 0; p < term.size; p++) {
+                int newId = newIds[term.postings[p] >>> 1];
+                if (newId >= 0) {
+                    term.postings[size++] = newId << 1 | (term.postings[p] & 1);
+                }
+            }
+            term.size = size;
+        }
+        docs.clear();
+        docs.addAll(kept);
+        docByKey.clear();
+        Arrays.fill(live, false);
+        for (int i = 0; i < docs.size(); i++) {
+            docByKey.put(docs.get(i).key, i);
+            live[i] = true;
+        }
+        deadDocs = 0;
+    }
+
+    /** Trigrams of the word padded at the front, so leading letters count most. */
+    private static List<String> trigrams(String word) {
+        String padded = "\u0000\u0000" + word;
+        List<String> grams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    static List<String> words(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : SPLIT.split(folded)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,593 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Headless booking service: login, catalog, availability, holds and owner aggregates
+ * over a local HTTP/JSON API, so desktop clients started with {@code turf.remote}
+ * share one process (and one connection pool) instead of each talking to MySQL.
+ *
+ * Built on the JDK's {@code com.sun.net.httpserver}. Each request runs on its own
+ * virtual thread when the JVM has them (Java 21+); otherwise on a bounded pool of
+ * {@code turf.server.threads} (64) platform threads that pushes back on the acceptor
+ * when full. Listens on {@code turf.server.host}:{@code turf.server.port}
+ * (127.0.0.1:8085). Authenticated calls carry {@code Authorization: Bearer <token>}
+ * from {@code /api/login}.
+ *
+ * Owner data goes through {@link OwnerLedgers#shared()} ({@code turf.journal.dir}):
+ * owner turfs are listed in the catalog, confirmed reservations for them are journaled
+ * in their owner's partition, and each owner sees only their own aggregates. Do not
+ * point an owner console in another process at the same journal. Set
+ * {@code turf.server.journal=false} to keep owner data in memory instead.
+ */
+class TurfServer {
+
+    static final int DEFAULT_PORT = 8085;
+
+    /** An error answered with {@code status} and a JSON {@code {"error": message, ...}} body. */
+    static final class ApiException extends RuntimeException {
+        final int status;
+        final Map<String, Object> body = new LinkedHashMap<>();
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+            body.put("error", message);
+        }
+    }
+
+    private interface Route {
+        Object handle(Call call) throws Exception;
+    }
+
+    /** One request: method, path, decoded query and lazily read JSON body. */
+    private static final class Call {
+        final HttpExchange exchange;
+        final String method;
+        final String[] path;
+        final Map<String, String> query;
+        private Map<String, Object> body;
+
+        Call(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.method = exchange.getRequestMethod();
+            String raw = exchange.getRequestURI().getPath();
+            this.path = raw.replaceAll("^/+|/+$", "").split("/+");
+            this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+
+        Map<String, Object> body() throws IOException {
+            if (body == null) {
+                try (InputStream in = exchange.getRequestBody()) {
+                    String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                    try {
+                        body = text.isBlank() ? new HashMap<>() : Json.parseObject(text);
+                    } catch (IllegalArgumentException e) {
+                        throw new ApiException(400, e.getMessage());
+                    }
+                }
+            }
+            return body;
+        }
+
+        String required(String key) throws IOException {
+            String value = query.containsKey(key) ? query.get(key) : Json.string(body(), key);
+            if (value == null || value.isEmpty()) {
+                throw new ApiException(400, "Missing " + key);
+            }
+            return value;
+        }
+
+        String optional(String key, String fallback) {
+            String value = query.get(key);
+            return value == null || value.isEmpty() ? fallback : value;
+        }
+
+        int intParam(String key, int fallback, int max) {
+            String value = query.get(key);
+            if (value == null || value.isEmpty()) {
+                return fallback;
+            }
+            try {
+                return Math.max(0, Math.min(max, Integer.parseInt(value)));
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, key + " must be a whole number");
+            }
+        }
+
+        double doubleParam(String key, double fallback) {
+            String value = query.get(key);
+            if (value == null || value.isEmpty()) {
+                return fallback;
+            }
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, key + " must be a number");
+            }
+        }
+
+        void requireMethod(String expected) {
+            if (!method.equals(expected)) {
+                throw new ApiException(405, "Use " + expected);
+            }
+        }
+
+        String clientAddress() {
+            return exchange.getRemoteAddress().getAddress().getHostAddress();
+        }
+    }
+
+    private static final int MAX_PAGE = 200;
+    private static final Metrics.Counter SERVER_ERRORS = Metrics.counter("server.errors");
+
+    private final HttpServer http;
+    private final ExecutorService executor;
+    private final String threadMode;
+    private final TurfCatalog catalog = TurfCatalog.shared();
+    private final SlotAvailability availability = SlotAvailability.shared();
+    private final SlotReservationService reservations = SlotReservationService.shared();
+    private final CredentialService credentials = CredentialService.shared();
+    private final SessionStore sessions = SessionManager.store();
+    private final OwnerLedgers ledgers;
+    private final Consumer<SlotReservationService.Reservation> confirmationListener;
+
+    TurfServer(InetSocketAddress address, boolean useJournal) throws IOException {
+        // Headers and body go out as separate writes; without TCP_NODELAY each small
+        // response waits out the client's delayed ACK (~40 ms). Read once by the JDK.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        this.http = HttpServer.create(address, Integer.getInteger("turf.server.backlog", 1024));
+        ExecutorService virtual = virtualThreadExecutor();
+        this.threadMode = virtual != null ? "virtual" : "pooled";
+        this.executor = virtual != null ? virtual : pooledExecutor(Integer.getInteger("turf.server.threads", 64));
+        this.http.setExecutor(executor);
+        this.ledgers = useJournal ? OwnerLedgers.shared() : new OwnerLedgers(null, null, false);
+        // The shared ledgers already follow confirmations for the whole process.
+        this.confirmationListener = useJournal ? null : ledgers::onReservationConfirmed;
+
+        route("/api/health", "health", call -> {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("status", "ok");
+            out.put("threads", threadMode);
+            return out;
+        });
+        route("/api/login", "login", this::login);
+        route("/api/signup", "signup", this::signup);
+        route("/api/logout", "logout", call -> {
+            call.requireMethod("POST");
+            sessions.invalidate(bearerToken(call));
+            return Collections.singletonMap("ok", true);
+        });
+        route("/api/turfs", "turfs", this::turfs);
+        route("/api/search", "search", this::search);
+        route("/api/nearby", "nearby", this::nearby);
+        route("/api/availability", "availability", this::availability);
+        route("/api/holds", "holds", this::holds);
+        route("/api/owner/aggregates", "ownerAggregates", this::ownerAggregates);
+    }
+
+    void start() {
+        if (confirmationListener != null) {
+            reservations.addConfirmationListener(confirmationListener);
+        }
+        http.start();
+    }
+
+    void stop(int delaySeconds) {
+        if (confirmationListener != null) {
+            reservations.removeConfirmationListener(confirmationListener);
+        }
+        http.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    InetSocketAddress address() {
+        return http.getAddress();
+    }
+
+    String threadMode() {
+        return threadMode;
+    }
+
+    // --- Routes -------------------------------------------------------------------------
+
+    private Object login(Call call) throws Exception {
+        call.requireMethod("POST");
+        String username = call.required("username");
+        char[] password = call.required("password").toCharArray();
+        String role;
+        try {
+            role = credentials.authenticate(username, password, call.clientAddress());
+        } catch (LoginThrottle.ThrottledException e) {
+            call.exchange.getResponseHeaders().set("Retry-After",
+                    String.valueOf(Math.max(1, (e.retryAfterMillis() + 999) / 1000)));
+            ApiException tooMany = new ApiException(429, e.getMessage());
+            tooMany.body.put("retryAfterMs", e.retryAfterMillis());
+            throw tooMany;
+        }
+        if (role == null) {
+            throw new ApiException(401, "Invalid credentials");
+        }
+        SessionStore.Session session = sessions.create(username, role);
+        credentials.rememberVerified(session, password);
+        Arrays.fill(password, '\0');
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("token", session.token);
+        out.put("username", username);
+        out.put("role", role);
+        return out;
+    }
+
+    private Object signup(Call call) throws Exception {
+        call.requireMethod("POST");
+        String role = call.required("role");
+        if (!role.equals("User") && !role.equals("Turf Owner")) {
+            throw new ApiException(400, "Unknown role " + role);
+        }
+        try {
+            credentials.register(call.required("username"), call.required("email"),
+                    call.required("password").toCharArray(), role);
+        } catch (SQLIntegrityConstraintViolationException e) {
+            throw new ApiException(409, "Username already exists");
+        }
+        return Collections.singletonMap("ok", true);
+    }
+
+    private Object turfs(Call call) throws Exception {
+        String category = call.required("category");
+        int offset = call.intParam("offset", 0, Integer.MAX_VALUE);
+        int limit = call.intParam("limit", 50, MAX_PAGE);
+        List<TurfModel> all = catalog.byCategory(category);
+        List<TurfModel> page = catalog.page(category, offset, limit);
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("turfs", turfsJson(page));
+        out.put("exhausted", offset + page.size() >= all.size());
+        return out;
+    }
+
+    private Object search(Call call) throws Exception {
+        String query = call.required("q");
+        int limit = call.intParam("limit", 20, MAX_PAGE);
+        String category = call.optional("category", null);
+        Collection<String> categories = category == null
+                ? Arrays.asList(TurfOwnerDashboard.CATEGORIES) : Collections.singletonList(category);
+        return Collections.singletonMap("turfs", turfsJson(catalog.search(query, limit, categories)));
+    }
+
+    private Object nearby(Call call) throws Exception {
+        double lat = call.doubleParam("lat", Double.NaN);
+        double lon = call.doubleParam("lon", Double.NaN);
+        if (!GeoIndex.validCoordinates(lat, lon)) {
+            throw new ApiException(400, "lat and lon are required");
+        }
+        int k = call.intParam("k", 20, MAX_PAGE);
+        String category = call.optional("category", null);
+        double maxPrice = call.doubleParam("maxPrice", Double.POSITIVE_INFINITY);
+        double radiusKm = call.doubleParam("radiusKm", Double.NaN);
+        List<GeoIndex.Hit<TurfModel>> hits = Double.isNaN(radiusKm)
+                ? catalog.nearest(lat, lon, k, category, maxPrice)
+                : catalog.within(lat, lon, radiusKm, category, maxPrice, k);
+        List<Object> out = new ArrayList<>(hits.size());
+        for (GeoIndex.Hit<TurfModel> hit : hits) {
+            Map<String, Object> turf = turfJson(hit.value);
+            turf.put("distanceKm", hit.distanceKm);
+            out.add(turf);
+        }
+        return Collections.singletonMap("turfs", out);
+    }
+
+    private Object availability(Call call) throws Exception {
+        TurfModel turf = turf(call.required("turfId"));
+        LocalDate day = day(call.optional("day", null));
+        LocalTime notBefore = day.equals(LocalDate.now()) ? LocalTime.now() : LocalTime.MIN;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("turfId", turf.getId());
+        out.put("day", day.toString());
+        out.put("freeSlotCount", availability.freeSlotCount(turf.getId(), day, notBefore));
+        out.put("free", rangesJson(availability.freeSlots(turf.getId(), day, notBefore)));
+        return out;
+    }
+
+    /**
+     * {@code POST /api/holds} places a hold (body: turfId, optional day, start "HH:mm"
+     * on a quarter hour and hours; without a start the first free run is taken). Days
+     * and start times already past are rejected. {@code POST
+     * /api/holds/{id}/confirm} confirms it and {@code DELETE /api/holds/{id}} releases it.
+     */
+    private Object holds(Call call) throws Exception {
+        SessionStore.Session session = requireSession(call);
+        if (call.path.length == 2) {
+            call.requireMethod("POST");
+            return placeHold(call, session);
+        }
+        long holdId;
+        try {
+            holdId = Long.parseLong(call.path[2]);
+        } catch (NumberFormatException e) {
+            throw new ApiException(404, "No such hold");
+        }
+        SlotReservationService.Hold hold = reservations.activeHold(holdId);
+        if (hold == null) {
+            throw new ApiException(404, "Hold " + holdId + " has expired or was already used");
+        }
+        if (!hold.holder.equals(session.username)) {
+            throw new ApiException(403, "Hold " + holdId + " belongs to another user");
+        }
+        if (call.path.length == 4 && call.path[3].equals("confirm")) {
+            call.requireMethod("POST");
+            SlotReservationService.Reservation reservation = reservations.confirm(holdId);
+            if (reservation == null) {
+                throw new ApiException(404, "Hold " + holdId + " has expired or was already used");
+            }
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("reservationId", reservation.id);
+            out.put("turfId", reservation.turf.getId());
+            out.put("day", reservation.day.toString());
+            out.put("start", SlotAvailability.slotToTime(reservation.startSlot).toString());
+            out.put("slotCount", reservation.slotCount);
+            out.put("totalCost", reservation.totalCost);
+            return out;
+        }
+        if (call.path.length == 3) {
+            call.requireMethod("DELETE");
+            return Collections.singletonMap("released", reservations.release(holdId));
+        }
+        throw new ApiException(404, "Unknown hold action");
+    }
+
+    private Object placeHold(Call call, SessionStore.Session session) throws Exception {
+        Map<String, Object> body = call.body();
+        TurfModel turf = turf(Json.string(body, "turfId"));
+        LocalDate day = day(Json.string(body, "day"));
+        if (day.isBefore(LocalDate.now())) {
+            throw new ApiException(400, "day " + day + " has already passed");
+        }
+        long hours = Json.number(body, "hours", 1);
+        if (hours < 1 || hours > 24) {
+            throw new ApiException(400, "hours must be 1 to 24");
+        }
+        int slotCount = (int) hours * 60 / SlotAvailability.SLOT_MINUTES;
+        if (!availability.isRegistered(turf.getId())) {
+            availability.register(turf);
+        }
+        int startSlot;
+        String start = Json.string(body, "start");
+        if (start != null) {
+            LocalTime time;
+            try {
+                time = LocalTime.parse(start);
+            } catch (DateTimeParseException e) {
+                throw new ApiException(400, "start must look like 19:00");
+            }
+            if (time.getMinute() % SlotAvailability.SLOT_MINUTES != 0 || time.getSecond() != 0 || time.getNano() != 0) {
+                throw new ApiException(400, "start must be on the quarter hour, e.g. 19:00 or 19:15");
+            }
+            if (day.equals(LocalDate.now()) && time.isBefore(LocalTime.now())) {
+                throw new ApiException(400, "start " + start + " has already passed");
+            }
+            startSlot = SlotAvailability.timeToSlot(time);
+        } else {
+            LocalTime notBefore = day.equals(LocalDate.now()) ? LocalTime.now() : LocalTime.MIN;
+            SlotAvailability.SlotRange run = availability.firstFreeRun(turf.getId(), day, slotCount, notBefore);
+            if (run == null) {
+                throw new ApiException(409, turf.getName() + " has no free " + hours + "-hour slot on " + day);
+            }
+            startSlot = run.startSlot;
+        }
+        SlotReservationService.Hold hold = reservations.hold(turf, day, startSlot, slotCount, session.username);
+        if (hold == null) {
+            throw new ApiException(409, "That slot is no longer free");
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("holdId", hold.id);
+        out.put("turfId", turf.getId());
+        out.put("day", day.toString());
+        out.put("startSlot", hold.startSlot);
+        out.put("slotCount", hold.slotCount);
+        out.put("range", new SlotAvailability.SlotRange(hold.startSlot, hold.startSlot + hold.slotCount).toString());
+        out.put("totalCost", hold.totalCost());
+        out.put("expiresInMs", hold.getDelay(TimeUnit.MILLISECONDS));
+        return out;
+    }
+
+    private Object ownerAggregates(Call call) {
+        SessionStore.Session session = requireSession(call);
+        if (!"Turf Owner".equals(session.role)) {
+            throw new ApiException(403, "Only turf owners can see booking aggregates");
+        }
+        // Only this owner's partition is loaded, not everyone's bookings.
+        OwnerLedger ledger = ledgers.acquire(session.username);
+        try {
+            return Collections.singletonMap("turfs", ledger.aggregatesJson());
+        } finally {
+            ledgers.release(ledger);
+        }
+    }
+
+    // --- Plumbing -----------------------------------------------------------------------
+
+    private void route(String path, String name, Route route) {
+        Metrics.Timer timer = Metrics.timer("server." + name);
+        http.createContext(path, exchange -> {
+            long start = timer.start();
+            try {
+                int status = 200;
+                String body;
+                try {
+                    body = Json.write(route.handle(new Call(exchange)));
+                } catch (ApiException e) {
+                    status = e.status;
+                    body = Json.write(e.body);
+                } catch (Exception e) {
+                    SERVER_ERRORS.increment();
+                    System.err.println("Request " + exchange.getRequestURI() + " failed: " + e.getMessage());
+                    e.printStackTrace();
+                    status = 500;
+                    body = Json.write(Collections.singletonMap("error", "Internal error"));
+                }
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+                exchange.sendResponseHeaders(status, bytes.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            } finally {
+                exchange.close();
+                timer.stop(start);
+            }
+        });
+    }
+
+    private SessionStore.Session requireSession(Call call) {
+        SessionStore.Session session = sessions.touch(bearerToken(call));
+        if (session == null) {
+            throw new ApiException(401, "Log in first");
+        }
+        return session;
+    }
+
+    private static String bearerToken(Call call) {
+        String header = call.exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private TurfModel turf(String id) {
+        if (id == null) {
+            throw new ApiException(400, "Missing turfId");
+        }
+        TurfModel turf;
+        try {
+            turf = catalog.find(Integer.parseInt(id));
+        } catch (NumberFormatException e) {
+            turf = null;
+        }
+        if (turf == null) {
+            throw new ApiException(404, "No turf " + id);
+        }
+        return turf;
+    }
+
+    private static LocalDate day(String text) {
+        if (text == null || text.isEmpty()) {
+            return LocalDate.now();
+        }
+        try {
+            return LocalDate.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "day must look like 2024-05-31");
+        }
+    }
+
+    private List<Object> turfsJson(List<TurfModel> turfs) {
+        List<Object> out = new ArrayList<>(turfs.size());
+        for (TurfModel turf : turfs) {
+            out.add(turfJson(turf));
+        }
+        return out;
+    }
+
+    /** A turf plus its free ranges for the rest of today, which clients mirror into their availability. */
+    private Map<String, Object> turfJson(TurfModel turf) {
+        if (!availability.isRegistered(turf.getId())) {
+            availability.register(turf);
+        }
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", turf.getId());
+        out.put("name", turf.getName());
+        out.put("address", turf.getAddress());
+        out.put("pricePerHour", turf.getPricePerHour());
+        out.put("operatingHours", turf.getOperatingHours());
+        out.put("category", turf.getCategory());
+        out.put("imagePath", turf.getImagePath());
+        if (turf.hasLocation()) {
+            out.put("latitude", turf.getLatitude());
+            out.put("longitude", turf.getLongitude());
+        }
+        out.put("freeToday", rangesJson(availability.freeSlots(turf.getId(), LocalDate.now(), LocalTime.now())));
+        return out;
+    }
+
+    private static List<Object> rangesJson(List<SlotAvailability.SlotRange> ranges) {
+        List<Object> out = new ArrayList<>(ranges.size());
+        for (SlotAvailability.SlotRange range : ranges) {
+            out.add(Arrays.asList(range.startSlot, range.endSlot));
+        }
+        return out;
+    }
+
+    private static Map<String, String> parseQuery(String raw) {
+        Map<String, String> out = new HashMap<>();
+        if (raw == null || raw.isEmpty()) {
+            return out;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            out.put(key, value);
+        }
+        return out;
+    }
+
+    /** {@code Executors.newVirtualThreadPerTaskExecutor()} when this JVM has it, else null. */
+    static ExecutorService virtualThreadExecutor() {
+        if (!Boolean.parseBoolean(System.getProperty("turf.server.virtualThreads", "true"))) {
+            return null;
+        }
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Fixed pool whose full queue makes the acceptor run the request itself, slowing intake. */
+    private static ExecutorService pooledExecutor(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger("turf.server.queue", 1024)), r -> {
+                    Thread t = new Thread(r, "turf-http-" + n.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    public static void main(String[] args) throws IOException {
+        String host = System.getProperty("turf.server.host", "127.0.0.1");
+        int port = Integer.getInteger("turf.server.port", DEFAULT_PORT);
+        boolean journal = Boolean.parseBoolean(System.getProperty("turf.server.journal", "true"));
+        TurfServer server = new TurfServer(new InetSocketAddress(host, port), journal);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1), "turf-server-shutdown"));
+        System.out.println("Turf booking service on http://" + host + ":" + server.address().getPort()
+                + " (" + server.threadMode() + " threads)");
+    }
+}
@@ -0,0 +1,307 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for {@link TurfServer}: N client threads issue a weighted mix of
+ * catalog, search, nearby, availability and hold/release calls for a fixed duration,
+ * then requests per second and latency percentiles are printed per call.
+ *
+ * <pre>
+ *   java TurfServerLoadTest [-url http://127.0.0.1:8085] [-c 32] [-d 20] [-w 5]
+ *       [-rate 0] [-mix turfs:35,search:25,nearby:15,availability:15,hold:10]
+ *       [-user name -password pw] [-turfs 2000]
+ * </pre>
+ *
+ * Without {@code -url} a server is started in this process on a free port, with
+ * {@code -turfs} synthetic turfs listed and a session minted directly (there is no
+ * database to log in against). With {@code -rate} (requests/second over all threads)
+ * requests follow a fixed schedule and latency is measured from the scheduled start,
+ * so a stalled server shows up as queueing delay instead of hiding it; the default
+ * closed loop sends the next request as soon as the last one returns. Latencies are
+ * recorded in {@link Metrics} timers, so metrics must be enabled.
+ */
+class TurfServerLoadTest {
+
+    private static final String[] OPERATIONS = {"turfs", "search", "nearby", "availability", "hold"};
+    private static final String[] QUERIES = {"arena", "kick", "soccr", "field", "dome", "turf 1", "ground", "sunset"};
+
+    private final String baseUrl;
+    private final String token;
+    private final List<Integer> turfIds;
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1).connectTimeout(Duration.ofSeconds(5)).build();
+    private final int[] cumulativeWeights;
+    private final Map<String, Metrics.Timer> timers = new LinkedHashMap<>();
+    private final Map<String, AtomicLong> errors = new LinkedHashMap<>();
+
+    TurfServerLoadTest(String baseUrl, String token, List<Integer> turfIds, int[] weights) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+        this.turfIds = turfIds;
+        this.cumulativeWeights = new int[weights.length];
+        int sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += weights[i];
+            cumulativeWeights[i] = sum;
+        }
+        for (String op : new String[] {"turfs", "search", "nearby", "availability", "hold", "release"}) {
+            timers.put(op, Metrics.timer("load." + op));
+            errors.put(op, new AtomicLong());
+        }
+    }
+
+    /** Runs {@code threads} clients until {@code endNanos}; {@code ratePerThread} 0 means closed loop. */
+    void run(int threads, long endNanos, double ratePerThread) throws InterruptedException {
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            long seed = i;
+            Thread t = new Thread(() -> clientLoop(new Random(seed), endNanos, ratePerThread), "load-" + i);
+            t.start();
+            workers.add(t);
+        }
+        for (Thread t : workers) {
+            t.join();
+        }
+    }
+
+    private void clientLoop(Random random, long endNanos, double ratePerThread) {
+        long interval = ratePerThread > 0 ? (long) (1e9 / ratePerThread) : 0;
+        long next = System.nanoTime() + (interval > 0 ? (long) (random.nextDouble() * interval) : 0);
+        while (true) {
+            if (interval > 0) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+            }
+            long scheduled = interval > 0 ? next : System.nanoTime();
+            if (scheduled >= endNanos) {
+                return;
+            }
+            String op = pick(random);
+            try {
+                perform(op, random, scheduled);
+            } catch (IOException | RuntimeException e) {
+                errors.get(op).incrementAndGet();
+            } catch (InterruptedException e) {
+                return;
+            }
+            next += interval;
+        }
+    }
+
+    private void perform(String op, Random random, long scheduled) throws IOException, InterruptedException {
+        int turfId = turfIds.get(random.nextInt(turfIds.size()));
+        switch (op) {
+            case "turfs":
+                timed(op, scheduled, get("/api/turfs?category=Football&offset=" + random.nextInt(4) * 50 + "&limit=50"));
+                break;
+            case "search":
+                timed(op, scheduled, get("/api/search?q="
+                        + URLEncoder.encode(QUERIES[random.nextInt(QUERIES.length)], StandardCharsets.UTF_8)));
+                break;
+            case "nearby":
+                timed(op, scheduled, get("/api/nearby?lat=" + (9.97 + random.nextGaussian() * 0.1)
+                        + "&lon=" + (76.28 + random.nextGaussian() * 0.1) + "&k=10&category=Football"));
+                break;
+            case "availability":
+                timed(op, scheduled, get("/api/availability?turfId=" + turfId));
+                break;
+            case "hold": {
+                if (token == null) {
+                    timed("availability", scheduled, get("/api/availability?turfId=" + turfId));
+                    break;
+                }
+                HttpResponse<String> held = timed(op, scheduled, send(authorized("/api/holds")
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"turfId\":\"" + turfId + "\",\"hours\":1}"))));
+                if (held.statusCode() == 200) {
+                    long holdId = Json.number(Json.parseObject(held.body()), "holdId", -1);
+                    timed("release", System.nanoTime(), send(authorized("/api/holds/" + holdId).DELETE()));
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException(op);
+        }
+    }
+
+    private HttpResponse<String> timed(String op, long scheduled, HttpResponse<String> response) {
+        timers.get(op).record(System.nanoTime() - scheduled);
+        // A full turf answers 409, which is a correct reply rather than a failure.
+        if (response.statusCode() >= 400 && response.statusCode() != 409) {
+            errors.get(op).incrementAndGet();
+        }
+        return response;
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET());
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token).header("Content-Type", "application/json");
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.timeout(Duration.ofSeconds(30)).build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private String pick(Random random) {
+        int r = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (r < cumulativeWeights[i]) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[0];
+    }
+
+    Map<String, Metrics.Histogram> snapshot() {
+        Map<String, Metrics.Histogram> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Metrics.Timer> e : timers.entrySet()) {
+            out.put(e.getKey(), e.getValue().snapshot());
+        }
+        return out;
+    }
+
+    void report(Map<String, Metrics.Histogram> before, double seconds) {
+        System.out.printf("%-13s %9s %9s %9s %9s %9s %9s %9s %7s%n",
+                "call", "count", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "errors");
+        long total = 0;
+        for (Map.Entry<String, Metrics.Timer> e : timers.entrySet()) {
+            Metrics.Histogram h = e.getValue().snapshot().since(before.get(e.getKey()));
+            if (h.count == 0) {
+                continue;
+            }
+            total += h.count;
+            System.out.printf("%-13s %9d %9.0f %9.2f %9.2f %9.2f %9.2f %9.2f %7d%n", e.getKey(), h.count,
+                    h.count / seconds, h.percentile(0.50) / 1e6, h.percentile(0.90) / 1e6, h.percentile(0.99) / 1e6,
+                    h.percentile(0.999) / 1e6, h.maxNanos / 1e6, errors.get(e.getKey()).get());
+        }
+        System.out.printf("%-13s %9d %9.0f%n", "total", total, total / seconds);
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPERATIONS.length];
+        for (String part : mix.split(",")) {
+            String[] kv = part.split(":");
+            boolean known = false;
+            for (int i = 0; i < OPERATIONS.length; i++) {
+                if (OPERATIONS[i].equals(kv[0].trim())) {
+                    weights[i] = Integer.parseInt(kv[1].trim());
+                    known = true;
+                }
+            }
+            if (!known) {
+                throw new IllegalArgumentException("Unknown call in -mix: " + kv[0]);
+            }
+        }
+        return weights;
+    }
+
+    /** Lists synthetic football turfs around Kochi, with a few names to search for. */
+    private static void seedTurfs(int count) {
+        String[] names = {"Arena", "Kick Off", "Soccer Dome", "Field", "Ground", "Sunset Turf", "Champions", "Pitch"};
+        Random random = new Random(42);
+        for (int i = 0; i < count; i++) {
+            int id = 100_000 + i;
+            TurfCatalog.listTurf(new TurfModel(id, names[i % names.length] + " " + i, (i % 97) + " Road, Kochi",
+                    600 + random.nextInt(1400), "06:00-23:00", "Football", null,
+                    9.97 + random.nextGaussian() * 0.08, 76.28 + random.nextGaussian() * 0.08));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String url = null;
+        int threads = 32;
+        int seconds = 20;
+        int warmup = 5;
+        double rate = 0;
+        String mix = "turfs:35,search:25,nearby:15,availability:15,hold:10";
+        String user = null;
+        String password = null;
+        int seedTurfs = 2000;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-url": url = args[++i]; break;
+                case "-c": threads = Integer.parseInt(args[++i]); break;
+                case "-d": seconds = Integer.parseInt(args[++i]); break;
+                case "-w": warmup = Integer.parseInt(args[++i]); break;
+                case "-rate": rate = Double.parseDouble(args[++i]); break;
+                case "-mix": mix = args[++i]; break;
+                case "-user": user = args[++i]; break;
+                case "-password": password = args[++i]; break;
+                case "-turfs": seedTurfs = Integer.parseInt(args[++i]); break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(2);
+            }
+        }
+
+        TurfServer local = null;
+        String token = null;
+        if (url == null) {
+            seedTurfs(seedTurfs);
+            local = new TurfServer(new InetSocketAddress("127.0.0.1", 0), false);
+            local.start();
+            url = "http://127.0.0.1:" + local.address().getPort();
+            token = SessionManager.store().create("loadtest", "User").token;
+            System.out.println("In-process server on " + url + " (" + local.threadMode() + " threads), "
+                    + seedTurfs + " synthetic turfs");
+        } else if (user != null && password != null) {
+            RemoteTurfClient client = new RemoteTurfClient(url);
+            if (client.login(user, password.toCharArray()) == null) {
+                System.err.println("Login failed for " + user);
+                System.exit(1);
+            }
+            token = client.sessionToken();
+        }
+        if (token == null) {
+            System.out.println("No session: hold calls are replaced by availability calls.");
+        }
+
+        List<Integer> turfIds = new ArrayList<>();
+        for (TurfModel turf : new RemoteTurfClient(url).page("Football", 0, 200)) {
+            turfIds.add(turf.getId());
+        }
+        if (turfIds.isEmpty()) {
+            System.err.println("The server lists no Football turfs to book against.");
+            System.exit(1);
+        }
+
+        TurfServerLoadTest test = new TurfServerLoadTest(url, token, turfIds, parseMix(mix));
+        double ratePerThread = rate / threads;
+        if (warmup > 0) {
+            System.out.println("Warming up for " + warmup + " s...");
+            test.run(threads, System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup), ratePerThread);
+        }
+        Map<String, Metrics.Histogram> before = test.snapshot();
+        System.out.println("Measuring " + threads + " clients for " + seconds + " s"
+                + (rate > 0 ? " at " + (long) rate + " req/s" : " (closed loop)") + "...");
+        long start = System.nanoTime();
+        test.run(threads, start + TimeUnit.SECONDS.toNanos(seconds), ratePerThread);
+        test.report(before, (System.nanoTime() - start) / 1e9);
+
+        if (local != null) {
+            local.stop(0);
+        }
+        System.exit(0);
+    }
+}
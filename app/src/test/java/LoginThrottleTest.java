@@ -0,0 +1,29 @@
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LoginThrottleTest {
+
+    private final LoginThrottle throttle = new LoginThrottle(1000, 1000, 1000, 1000, 60_000, 64);
+
+    @Test
+    void missForOtherSpellingDoesNotLockOutTheAccount() throws Exception {
+        throttle.recordUnknownUser("alice ");
+        throttle.recordUnknownUser("ALICE");
+
+        assertTrue(throttle.admit("alice", "10.0.0.1"));
+        assertFalse(throttle.admit("ALICE", "10.0.0.1"));
+    }
+
+    @Test
+    void signupForgetsEverySpellingOfTheName() throws Exception {
+        throttle.recordUnknownUser("Bob");
+        throttle.recordUnknownUser(" bob");
+
+        throttle.forgetUnknownUser("bob");
+
+        assertTrue(throttle.admit("Bob", "10.0.0.1"));
+        assertTrue(throttle.admit(" bob", "10.0.0.1"));
+    }
+}
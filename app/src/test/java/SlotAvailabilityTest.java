@@ -0,0 +1,64 @@
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Collections;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SlotAvailabilityTest {
+
+    private static final int TURF = 1004;
+    private static final int SEVEN_PM = 19 * 60 / SlotAvailability.SLOT_MINUTES;
+
+    private SlotAvailability availability;
+
+    @BeforeEach
+    void setUp() {
+        availability = new SlotAvailability();
+        availability.register(new TurfModel(TURF, "Green Field", "Stadium Road", 1000, "06:00-23:00", "Football", null));
+    }
+
+    @Test
+    void rejectsOverlappingRuleOnDaysNeverLoaded() {
+        RecurringBooking league = tuesdays(1, SEVEN_PM, 8, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30));
+        assertNull(availability.addRecurring(TURF, league));
+
+        // 20:00-22:00 from March overlaps the league's 19:00-21:00 on its first Tuesday.
+        RecurringBooking overlapping = tuesdays(2, SEVEN_PM + 4, 8, LocalDate.of(2026, 3, 1), LocalDate.of(2026, 9, 30));
+        assertEquals(LocalDate.of(2026, 3, 3), availability.addRecurring(TURF, overlapping));
+
+        // The rejected rule left nothing behind: once the league is gone, its slots are free.
+        availability.removeRecurring(TURF, league.id);
+        assertTrue(availability.markBooked(TURF, LocalDate.of(2026, 9, 1), SEVEN_PM + 4, 8));
+    }
+
+    @Test
+    void acceptsRulesThatNeverShareAnOccurrence() {
+        assertNull(availability.addRecurring(TURF,
+                tuesdays(1, SEVEN_PM, 8, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30))));
+        // Same time, but starting after the first rule ends.
+        assertNull(availability.addRecurring(TURF,
+                tuesdays(2, SEVEN_PM, 8, LocalDate.of(2026, 7, 1), LocalDate.of(2026, 9, 30))));
+        // Same days, back to back.
+        assertNull(availability.addRecurring(TURF,
+                tuesdays(3, SEVEN_PM + 8, 4, LocalDate.of(2026, 1, 1), LocalDate.of(2026, 6, 30))));
+    }
+
+    @Test
+    void ignoresOverlapOnSkippedDays() {
+        LocalDate holiday = LocalDate.of(2026, 3, 3);
+        assertNull(availability.addRecurring(TURF, new RecurringBooking(1, "T" + TURF, "League",
+                DayOfWeek.TUESDAY, SEVEN_PM, 8, LocalDate.of(2026, 1, 6).toEpochDay(), holiday.toEpochDay(),
+                new long[] {holiday.toEpochDay()}, 0)));
+        assertNull(availability.addRecurring(TURF,
+                tuesdays(2, SEVEN_PM, 8, holiday, LocalDate.of(2026, 6, 30))));
+    }
+
+    private static RecurringBooking tuesdays(long id, int startSlot, int slotCount, LocalDate from, LocalDate until) {
+        return RecurringBooking.weekly(id, "T" + TURF, "Customer " + id, DayOfWeek.TUESDAY, startSlot, slotCount,
+                from, until, Collections.emptyList(), 0);
+    }
+}
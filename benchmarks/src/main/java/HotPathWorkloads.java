@@ -0,0 +1,244 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.reflect.Proxy;
+import java.security.GeneralSecurityException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import javax.swing.JList;
+
+/**
+ * Set-up and single operations for the JMH benchmarks in {@code turfhub.benchmarks}.
+ *
+ * The application lives in the default package, which a packaged JMH benchmark
+ * cannot import, so the benchmarks load this class by name and only ever see the
+ * {@link LongSupplier} each factory returns. Every call to it is one measured
+ * operation; the result is returned so the JIT cannot drop the work. Suppliers that
+ * hold resources are also {@link AutoCloseable}.
+ */
+public final class HotPathWorkloads {
+
+    private static final int TURFS = 50;
+
+    private HotPathWorkloads() {
+    }
+
+    // --- Dashboard -------------------------------------------------------------------------
+
+    /** What the dashboard reads per turf: {@link OwnerLedger#totals} on an in-memory partition. */
+    public static LongSupplier turfTotals(int bookings) {
+        OwnerLedger ledger = new OwnerLedgers(null, null, false).acquire("benchmark");
+        String[] turfIds = turfIds();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < bookings; i++) {
+            ledger.addBooking(new TurfOwnerDashboard.Booking(turfIds[i % TURFS], 500 + (i % 7) * 250, now - i * 1000L));
+        }
+        int[] next = {0};
+        return () -> {
+            OwnerLedger.Totals totals = ledger.totals(turfIds[next[0]++ % TURFS]);
+            return totals.bookings + totals.incomePaise;
+        };
+    }
+
+    /** The full column scan the aggregate index replaced, for comparison. */
+    public static LongSupplier scanTotals(int bookings) {
+        BookingColumnStore store = bookingStore(bookings);
+        String[] turfIds = turfIds();
+        int[] next = {0};
+        return () -> {
+            int code = store.codeOf(turfIds[next[0]++ % TURFS]);
+            return store.count(code, Long.MIN_VALUE, Long.MAX_VALUE) + store.sumPaise(code, Long.MIN_VALUE, Long.MAX_VALUE);
+        };
+    }
+
+    private static BookingColumnStore bookingStore(int bookings) {
+        BookingColumnStore store = new BookingColumnStore();
+        String[] turfIds = turfIds();
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < bookings; i++) {
+            store.append(turfIds[i % TURFS], 50_000 + (i % 7) * 25_000, now - i * 1000L);
+        }
+        return store;
+    }
+
+    private static String[] turfIds() {
+        String[] turfIds = new String[TURFS];
+        for (int t = 0; t < TURFS; t++) {
+            turfIds[t] = "T" + (1000 + t);
+        }
+        return turfIds;
+    }
+
+    // --- Turf list -------------------------------------------------------------------------
+
+    private static final class TurfCards {
+        final SlotAvailability availability = new SlotAvailability();
+        final List<TurfModel> turfs = new ArrayList<>();
+        final TurfCatalog catalog = new TurfCatalog(category -> turfs, 4, Long.MAX_VALUE);
+        final TurfHub.TurfCardRenderer renderer = new TurfHub.TurfCardRenderer(availability, ThumbnailLoader.shared());
+        final JList<TurfModel> list = new JList<>();
+        final BufferedImage canvas = new BufferedImage(750, TurfHub.CARD_HEIGHT, BufferedImage.TYPE_INT_RGB);
+
+        TurfCards() {
+            for (int i = 0; i < 500; i++) {
+                TurfModel turf = new TurfModel(10_000 + i, "Benchmark Turf " + i, i + " Stadium Road",
+                        600 + i % 10 * 100, "06:00-23:00", "Football", null);
+                availability.register(turf);
+                turfs.add(turf);
+            }
+        }
+
+        long paint(TurfModel turf) {
+            java.awt.Component card = renderer.getListCellRendererComponent(list, turf, 0, false, false);
+            card.setBounds(0, 0, canvas.getWidth(), canvas.getHeight());
+            TurfHub.layoutTree(card);
+            Graphics2D g = canvas.createGraphics();
+            try {
+                card.paint(g);
+            } finally {
+                g.dispose();
+            }
+            return canvas.getRGB(canvas.getWidth() / 2, canvas.getHeight() / 2);
+        }
+    }
+
+    /** Filling, laying out and painting one TurfHub card. */
+    public static LongSupplier renderCard() {
+        TurfCards cards = new TurfCards();
+        int[] next = {0};
+        return () -> cards.paint(cards.turfs.get(next[0]++ % cards.turfs.size()));
+    }
+
+    /** A first screenful of cards, loaded from a cold catalog page. */
+    public static LongSupplier firstPage(int visibleRows) {
+        TurfCards cards = new TurfCards();
+        return () -> {
+            cards.catalog.invalidateAll();
+            long work = 0;
+            try {
+                for (TurfModel turf : cards.catalog.page("Football", 0, 50).subList(0, visibleRows)) {
+                    work += cards.paint(turf);
+                }
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not load the first page", e);
+            }
+            return work;
+        };
+    }
+
+    // --- Login -----------------------------------------------------------------------------
+
+    private interface ClosableOperation extends LongSupplier, AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Pool borrow plus the login query and password check, against an in-memory JDBC
+     * stand-in so the database itself is not what is measured.
+     */
+    public static LongSupplier login(int pbkdf2Iterations) throws GeneralSecurityException {
+        PasswordHasher hasher = new PasswordHasher(pbkdf2Iterations, 1, 64);
+        Map<String, String[]> users = new HashMap<>();
+        char[] password = "correct horse battery staple".toCharArray();
+        users.put("player1", new String[] {PasswordHasher.hashNow(password, pbkdf2Iterations), "User"});
+
+        ConnectionPool pool = new ConnectionPool(() -> inMemoryConnection(users),
+                ConnectionPool.Config.fromSystemProperties());
+        LoginThrottle unthrottled = new LoginThrottle(Integer.MAX_VALUE, 1e9, Integer.MAX_VALUE, 1e9, 0, 16);
+        CredentialService credentials = new CredentialService(hasher, unthrottled, pool::borrow);
+        return new ClosableOperation() {
+            @Override
+            public long getAsLong() {
+                String role;
+                try {
+                    role = credentials.authenticate("player1", password, "bench");
+                } catch (Exception e) {
+                    throw new IllegalStateException("login failed", e);
+                }
+                if (role == null) {
+                    throw new IllegalStateException("login failed");
+                }
+                return role.length();
+            }
+
+            @Override
+            public void close() {
+                pool.close();
+            }
+        };
+    }
+
+    // --- In-memory JDBC stand-in -----------------------------------------------------------
+    // Just enough of Connection/PreparedStatement/ResultSet for the login query.
+
+    private static Connection inMemoryConnection(Map<String, String[]> users) {
+        return (Connection) Proxy.newProxyInstance(HotPathWorkloads.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            return inMemoryStatement(users);
+                        case "isValid":
+                        case "getAutoCommit":
+                            return true;
+                        case "isClosed":
+                            return false;
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static PreparedStatement inMemoryStatement(Map<String, String[]> users) {
+        String[] username = new String[1];
+        return (PreparedStatement) Proxy.newProxyInstance(HotPathWorkloads.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "setString":
+                            username[0] = (String) args[1];
+                            return null;
+                        case "executeQuery":
+                            return inMemoryResult(users.get(username[0]));
+                        case "executeUpdate":
+                            return 1;
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static ResultSet inMemoryResult(String[] row) {
+        boolean[] consumed = {false};
+        return (ResultSet) Proxy.newProxyInstance(HotPathWorkloads.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            boolean has = row != null && !consumed[0];
+                            consumed[0] = true;
+                            return has;
+                        case "getString":
+                            return "password".equals(args[0]) ? row[0] : row[1];
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,51 @@
+package turfhub.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-turf booking count and income as the owner dashboard reads them from its
+ * {@code OwnerLedger}, at 10^3..10^7 bookings. {@code scanTotals} is the full scan
+ * the ledger's aggregate index replaced, for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class DashboardBenchmark {
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    int bookings;
+
+    private LongSupplier turfTotals;
+    private LongSupplier scanTotals;
+
+    @Setup
+    public void setUp() {
+        turfTotals = Workloads.create("turfTotals", bookings);
+        scanTotals = Workloads.create("scanTotals", bookings);
+    }
+
+    @Benchmark
+    public long turfTotals() {
+        return turfTotals.getAsLong();
+    }
+
+    @Benchmark
+    public long scanTotals() {
+        return scanTotals.getAsLong();
+    }
+}
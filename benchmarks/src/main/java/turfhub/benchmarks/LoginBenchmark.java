@@ -0,0 +1,50 @@
+package turfhub.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Pool borrow plus the login query and password check, against an in-memory JDBC
+ * stand-in. Production uses far more PBKDF2 iterations; pass {@code -p pbkdf2Iterations=...}
+ * to see that cost.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Dturf.metrics.jmx=false", "-Dturf.metrics.exportSeconds=0"})
+public class LoginBenchmark {
+
+    @Param("1000")
+    int pbkdf2Iterations;
+
+    private LongSupplier login;
+
+    @Setup
+    public void setUp() {
+        login = Workloads.create("login", pbkdf2Iterations);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        Workloads.close(login);
+    }
+
+    @Benchmark
+    public long login() {
+        return login.getAsLong();
+    }
+}
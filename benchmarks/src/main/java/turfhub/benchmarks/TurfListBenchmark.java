@@ -0,0 +1,48 @@
+package turfhub.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Building TurfHub's turf list, headless: one card, and a first screenful from the catalog. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Dturf.thumbs.diskCache=false"})
+public class TurfListBenchmark {
+
+    /** Cards that fit the 700px list viewport. */
+    @Param("6")
+    int visibleRows;
+
+    private LongSupplier renderCard;
+    private LongSupplier firstPage;
+
+    @Setup
+    public void setUp() {
+        renderCard = Workloads.create("renderCard");
+        firstPage = Workloads.create("firstPage", visibleRows);
+    }
+
+    @Benchmark
+    public long renderCard() {
+        return renderCard.getAsLong();
+    }
+
+    @Benchmark
+    public long firstPage() {
+        return firstPage.getAsLong();
+    }
+}
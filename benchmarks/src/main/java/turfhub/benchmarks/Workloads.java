@@ -0,0 +1,36 @@
+package turfhub.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.LongSupplier;
+
+/**
+ * Reaches the default-package {@code HotPathWorkloads} by name, since a packaged
+ * class cannot import it.
+ */
+final class Workloads {
+
+    private Workloads() {
+    }
+
+    static LongSupplier create(String name, Object... args) {
+        try {
+            for (Method factory : Class.forName("HotPathWorkloads").getMethods()) {
+                if (factory.getName().equals(name) && factory.getParameterCount() == args.length) {
+                    return (LongSupplier) factory.invoke(null, args);
+                }
+            }
+            throw new IllegalArgumentException("No workload " + name + " taking " + args.length + " arguments");
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not set up " + name, e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not set up " + name, e);
+        }
+    }
+
+    static void close(LongSupplier workload) throws Exception {
+        if (workload instanceof AutoCloseable) {
+            ((AutoCloseable) workload).close();
+        }
+    }
+}